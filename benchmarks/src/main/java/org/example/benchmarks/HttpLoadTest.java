@@ -0,0 +1,133 @@
+package org.example.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.ZooManager;
+import org.example.http.ZooHttpServer;
+import org.example.metrics.LatencyHistogram;
+import org.example.reporting.ZooReportService;
+import org.example.scheduling.CareScheduler;
+
+/**
+ * Нагрузочный тест HTTP API: threads клиентов в замкнутом цикле (следующий запрос -
+ * после ответа на предыдущий) seconds секунд запрашивают path и выводят запросов/сек
+ * и перцентили задержки. JMH здесь не подходит: важна пропускная способность сервера
+ * под конкурентной нагрузкой, а не время одного вызова.
+ *
+ * Без --url поднимает сервер в том же процессе над зоопарком из --animals животных.
+ *
+ * Пример: {@code java -cp target/benchmarks.jar org.example.benchmarks.HttpLoadTest --threads 64 --path /stat}
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(option(args, "--threads", "32"));
+        int seconds = Integer.parseInt(option(args, "--seconds", "10"));
+        int warmupSeconds = Integer.parseInt(option(args, "--warmup", "3"));
+        String path = option(args, "--path", "/show?limit=20");
+        String url = option(args, "--url", null);
+        if (System.getProperty(ZooHttpServer.NODELAY_PROPERTY) == null) {
+            System.setProperty(ZooHttpServer.NODELAY_PROPERTY, "true");
+        }
+
+        ZooHttpServer server = null;
+        if (url == null) {
+            int animals = Integer.parseInt(option(args, "--animals", "100000"));
+            ZooManager zoo = ZooFixtures.zoo(animals, 50);
+            server = ZooHttpServer.start(new InetSocketAddress("127.0.0.1", 0), zoo, new ZooReportService(),
+                    new CareScheduler(), false);
+            url = "http://127.0.0.1:" + server.getAddress().getPort();
+            System.out.printf("Сервер в процессе: %d животных, %s%n", animals, server.getExecutorDescription());
+        }
+        URI target = URI.create(url + path);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        try {
+            run(client, target, threads, warmupSeconds, null);
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicLong errors = new AtomicLong();
+            long start = System.nanoTime();
+            run(client, target, threads, seconds, new Result(latency, errors));
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%s, клиентов %d, %d с%n", target, threads, seconds);
+            System.out.printf("Запросов: %d, ошибок: %d, %.0f запросов/сек%n",
+                    latency.getCount(), errors.get(), latency.getCount() / elapsed);
+            System.out.printf("Задержка: p50 %.2f мс, p99 %.2f мс, p99.9 %.2f мс, макс %.2f мс%n",
+                    latency.percentile(0.5) / 1e6, latency.percentile(0.99) / 1e6,
+                    latency.percentile(0.999) / 1e6, latency.getMaxNanos() / 1e6);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private record Result(LatencyHistogram latency, AtomicLong errors) {
+    }
+
+    /**
+     * Нагружает target из threads потоков seconds секунд; при result == null (прогрев) ничего не записывает.
+     */
+    private static void run(HttpClient client, URI target, int threads, int seconds, Result result)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        HttpRequest request = HttpRequest.newBuilder(target).GET().build();
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                        try (InputStream body = response.body()) {
+                            // Тело читается целиком, чтобы в замер входила передача
+                            body.transferTo(OutputStream.nullOutputStream());
+                        }
+                        ok = response.statusCode() == 200;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (result != null) {
+                        if (ok) {
+                            result.latency().record(System.nanoTime() - start);
+                        } else {
+                            result.errors().incrementAndGet();
+                        }
+                    }
+                }
+            }, "load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (name.equals(args[i])) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+}
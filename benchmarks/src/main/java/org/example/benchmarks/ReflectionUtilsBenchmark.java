@@ -0,0 +1,42 @@
+package org.example.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ReflectionUtils;
+import org.example.animals.Animal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Создание сущностей по имени типа и обнаружение доступных типов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectionUtilsBenchmark {
+
+    @Param({"wolf", "parrot", "lion"})
+    public String typeName;
+
+    @Benchmark
+    public Animal createAnimalByType() {
+        return ReflectionUtils.createAnimalByType(typeName, "Бенчмарк");
+    }
+
+    @Benchmark
+    public List<String> getAvailableAnimalTypes() {
+        return ReflectionUtils.getAvailableAnimalTypes();
+    }
+}
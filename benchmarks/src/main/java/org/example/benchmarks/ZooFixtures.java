@@ -0,0 +1,84 @@
+package org.example.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.HeapAnimalStore;
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.example.animals.Monkey;
+import org.example.animals.Parrot;
+import org.example.animals.Snake;
+import org.example.animals.Wolf;
+import org.example.employees.Employee;
+import org.example.employees.Vet;
+import org.example.employees.ZooKeeper;
+import org.example.events.Events;
+import org.example.events.SilentEventSink;
+
+/**
+ * Общие заготовки данных для бенчмарков.
+ */
+final class ZooFixtures {
+
+    private static final int BATCH = 10_000;
+
+    static {
+        // Сообщения доменного слоя не должны попадать в замеры
+        Events.setSink(new SilentEventSink());
+    }
+
+    private ZooFixtures() {
+    }
+
+    static Animal animal(int index) {
+        String name = "A" + index;
+        return switch (index & 3) {
+            case 0 -> new Wolf(name);
+            case 1 -> new Parrot(name);
+            case 2 -> new Snake(name);
+            default -> new Monkey(name);
+        };
+    }
+
+    static List<Animal> animals(int count) {
+        List<Animal> animals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            animals.add(animal(i));
+        }
+        return animals;
+    }
+
+    static List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(i % 3 == 2 ? new Vet("V" + i) : new ZooKeeper("K" + i));
+        }
+        return employees;
+    }
+
+    /**
+     * Зоопарк заданного размера, заполненный пачками, чтобы подготовка 10M животных не занимала минуты.
+     */
+    static ZooManager zoo(int animalCount, int employeeCount) {
+        return zoo(animalCount, employeeCount, 1);
+    }
+
+    /**
+     * То же с животными, разбитыми на shardCount разделов по виду.
+     */
+    static ZooManager zoo(int animalCount, int employeeCount, int shardCount) {
+        ZooManager zoo = new ZooManager(shardCount, HeapAnimalStore::new);
+        List<Animal> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < animalCount; i++) {
+            batch.add(animal(i));
+            if (batch.size() == BATCH) {
+                zoo.addAnimals(batch);
+                batch.clear();
+            }
+        }
+        zoo.addAnimals(batch);
+        zoo.addEmployees(employees(employeeCount));
+        return zoo;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Горячие пути ZooManager: добавление (в том числе конкурентное) и чтения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ZooManagerBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int zooSize;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    private ZooManager zoo;
+    private long nextLookup;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        zoo = ZooFixtures.zoo(zooSize, 10, shards);
+        nextLookup = 0;
+    }
+
+    // Каждое животное добавляется один раз: повторно добавить тот же объект нельзя, его идентификатор занят
+
+    @Benchmark
+    public ZooManager addAnimal() {
+        zoo.addAnimal(ZooFixtures.animal(0));
+        return zoo;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ZooManager addAnimalConcurrent() {
+        // Разные виды, чтобы при нескольких разделах потоки попадали в разные блокировки
+        zoo.addAnimal(ZooFixtures.animal(ThreadLocalRandom.current().nextInt(4)));
+        return zoo;
+    }
+
+    @Benchmark
+    public Animal getAnimalById() {
+        nextLookup = nextLookup % zooSize + 1;
+        return zoo.getAnimal(nextLookup);
+    }
+
+    /**
+     * Удаление и повторное добавление того же животного: размер зоопарка не меняется между вызовами.
+     */
+    @Benchmark
+    public ZooManager removeAndReAddAnimal() {
+        nextLookup = nextLookup % zooSize + 1;
+        Animal removed = zoo.removeAnimal(nextLookup);
+        zoo.addAnimals(List.of(removed));
+        return zoo;
+    }
+
+    @Benchmark
+    public List<Animal> getAnimals() {
+        return zoo.getAnimals();
+    }
+
+    @Benchmark
+    public List<Animal> getAnimalsBySpecies() {
+        return zoo.getAnimalsBySpecies("wolf");
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+import org.example.reporting.ZooReportService;
+import org.example.scheduling.CareSchedule;
+import org.example.scheduling.CareScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Все построители отчётов ZooReportService на зоопарках разного размера.
+ * Число сотрудников растёт вместе с зоопарком (одна сотая от числа животных, минимум 3).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class ZooReportServiceBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int zooSize;
+
+    private final ZooReportService service = new ZooReportService();
+    private List<Animal> animals;
+    private List<List<Animal>> partitions;
+    private List<Employee> employees;
+    private Map<String, Long> speciesCounts;
+    private CareSchedule careSchedule;
+
+    @Setup
+    public void setUp() {
+        ZooManager zoo = ZooFixtures.zoo(zooSize, Math.max(3, zooSize / 100));
+        animals = zoo.getAnimals();
+        employees = zoo.getEmployees();
+        speciesCounts = zoo.getSpeciesCounts();
+        partitions = ZooFixtures.zoo(zooSize, 0, 4).getAnimalPartitions();
+        careSchedule = new CareScheduler().schedule(animals, employees);
+    }
+
+    @Benchmark
+    public String buildShortSummaryFromList() {
+        return service.buildShortSummary(animals);
+    }
+
+    @Benchmark
+    public Map<String, Long> countBySpeciesPartitions() {
+        return service.countBySpecies(partitions);
+    }
+
+    @Benchmark
+    public String buildShortSummaryFromCounters() {
+        return service.buildShortSummary(speciesCounts);
+    }
+
+    @Benchmark
+    public String buildFeedingSchedule() {
+        return service.buildFeedingSchedule(animals);
+    }
+
+    @Benchmark
+    public String buildMedicalSchedule() {
+        return service.buildMedicalSchedule(animals);
+    }
+
+    @Benchmark
+    public String buildCleaningSchedule() {
+        return service.buildCleaningSchedule(animals);
+    }
+
+    @Benchmark
+    public String buildDailySchedule() {
+        return service.buildDailySchedule(animals);
+    }
+
+    @Benchmark
+    public String buildCareSchedule() {
+        return service.buildCareSchedule(careSchedule);
+    }
+
+    @Benchmark
+    public String buildEmployeesInfo() {
+        return service.buildEmployeesInfo(employees);
+    }
+}
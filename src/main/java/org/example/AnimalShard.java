@@ -0,0 +1,136 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.example.animals.Animal;
+import org.example.animals.SpeciesRegistry;
+
+/**
+ * Раздел животных ZooManager: своё хранилище, своя блокировка записи, счётчики видов
+ * и индекс имён. Вид целиком живёт в одном разделе, поэтому добавления животных
+ * разных разделов не ждут друг друга. Строку животного в хранилище раздела находит
+ * общая таблица идентификаторов, где раздел записан как вид места kind.
+ * ZooManager.replaceAll подменяет раздел целиком новым, с той же блокировкой.
+ */
+final class AnimalShard {
+
+    final AnimalStore store;
+    final Lock lock;
+    final NameIndex names;
+    final IdTable ids;
+    final int kind;
+    /** Наибольший идентификатор среди животных раздела, уже видимых в хранилище. */
+    volatile int lastId;
+    /**
+     * Количество животных по ordinal вида. Массив не меняется после публикации: писатель под lock
+     * собирает копию и подменяет ссылку, поэтому читатели берут согласованный снимок без блокировки.
+     */
+    private volatile long[] speciesCounts = new long[0];
+
+    AnimalShard(AnimalStore store, IdTable ids, int kind) {
+        this(store, new ReentrantLock(), ids, kind);
+    }
+
+    private AnimalShard(AnimalStore store, Lock lock, IdTable ids, int kind) {
+        this.store = store;
+        this.lock = lock;
+        this.ids = ids;
+        this.kind = kind;
+        this.names = new NameIndex(this::nameOf, () -> lastId);
+    }
+
+    /**
+     * Пустой раздел с хранилищем того же устройства и той же блокировкой над таблицей ids.
+     */
+    AnimalShard emptyCopy(IdTable ids) {
+        return new AnimalShard(store.newEmpty(), lock, ids, kind);
+    }
+
+    /**
+     * Животное раздела по идентификатору или null; без блокировок.
+     * Животное, переносимое в другой раздел, может на мгновение не найтись ни в одном.
+     */
+    Animal get(long id) {
+        int row = rowOf(id);
+        Animal animal = row < 0 ? null : store.get(row);
+        return animal != null && animal.getId() == id ? animal : null;
+    }
+
+    /**
+     * Строка животного id в хранилище раздела или -1, если животное не в этом разделе.
+     */
+    int rowOf(long id) {
+        int location = ids.locate(id);
+        return IdTable.isPlaced(location) && ids.kindOf(location) == kind ? ids.rowOf(location) : -1;
+    }
+
+    private String nameOf(long id) {
+        int row = rowOf(id);
+        return row < 0 ? null : store.nameOf(row, id);
+    }
+
+    /**
+     * Добавляет пачку животных с уже назначенными (и занятыми в ids) идентификаторами;
+     * assigned - те из них, что были назначены до добавления (их индекс имён вставляет
+     * отдельно). Вызывается под lock или до публикации раздела.
+     */
+    void appendAll(List<? extends Animal> batch, int[] assigned) {
+        // Строки записываются в таблицу после публикации в хранилище: найденная строка уже видна
+        Runnable append = () -> {
+            int[] rows = store.appendAll(batch);
+            for (int i = 0; i < rows.length; i++) {
+                ids.put(batch.get(i).getId(), kind, rows[i]);
+            }
+        };
+        if (assigned.length == 0) {
+            append.run();
+        } else {
+            names.addAssigned(assigned, append);
+        }
+        int last = lastId;
+        long[] counts = copyOfCounts();
+        for (Animal animal : batch) {
+            counts = count(counts, animal, 1);
+            last = Math.max(last, (int) animal.getId());
+        }
+        speciesCounts = counts;
+        lastId = last;
+    }
+
+    /**
+     * Вызывается под lock.
+     */
+    void countSpecies(Animal animal, long delta) {
+        speciesCounts = count(copyOfCounts(), animal, delta);
+    }
+
+    private long[] copyOfCounts() {
+        long[] counts = speciesCounts;
+        return Arrays.copyOf(counts, Math.max(counts.length, SpeciesRegistry.size()));
+    }
+
+    private static long[] count(long[] counts, Animal animal, long delta) {
+        int ordinal = animal.getSpeciesRef().getOrdinal();
+        if (ordinal >= counts.length) {
+            // Вид зарегистрирован после копирования счётчиков
+            counts = Arrays.copyOf(counts, Math.max(ordinal + 1, SpeciesRegistry.size()));
+        }
+        counts[ordinal] += delta;
+        return counts;
+    }
+
+    /**
+     * Прибавляет счётчики раздела к totals (по ordinal вида); без блокировок.
+     */
+    long[] addCountsTo(long[] totals) {
+        long[] counts = speciesCounts;
+        long[] result = totals.length >= counts.length ? totals : Arrays.copyOf(totals, counts.length);
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            result[ordinal] += counts[ordinal];
+        }
+        return result;
+    }
+}
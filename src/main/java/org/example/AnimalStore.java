@@ -0,0 +1,80 @@
+package org.example;
+
+import java.util.List;
+
+import org.example.animals.Animal;
+
+/**
+ * Хранилище животных раздела ZooManager.
+ * Животное адресуется номером строки, который хранилище выдаёт при добавлении; таблицу
+ * идентификатор -> раздел и строка ведёт ZooManager, поэтому хранилище занимает память
+ * по числу своих животных, а не по величине их идентификаторов.
+ * Методы записи вызываются только под блокировкой раздела; методы чтения
+ * должны быть безопасны без блокировок и возвращать неизменяемые снимки.
+ */
+public interface AnimalStore {
+
+    /**
+     * Добавляет пачку животных (идентификаторы уже назначены ZooManager),
+     * публикуя изменения один раз на всю пачку.
+     *
+     * @return строки добавленных животных, в порядке пачки
+     */
+    int[] appendAll(List<? extends Animal> batch);
+
+    /**
+     * Добавляет одно животное.
+     *
+     * @return строка животного
+     */
+    default int append(Animal animal) {
+        return appendAll(List.of(animal))[0];
+    }
+
+    /**
+     * Животное строки или null, если строка свободна; O(1) и без блокировок.
+     * Строку удалённого животного хранилище может отдать следующему добавленному,
+     * поэтому вызывающий сверяет идентификатор.
+     */
+    Animal get(int row);
+
+    /**
+     * Удаляет животное строки за O(1).
+     *
+     * @return удалённое животное
+     */
+    Animal remove(int row);
+
+    /**
+     * Ставит replacement (с тем же идентификатором) на место животного строки за O(1);
+     * если вид изменился, животное переносится в индекс нового вида.
+     *
+     * @return строка replacement: прежняя или новая, если хранилище не заменяет на месте
+     */
+    int replace(int row, Animal replacement);
+
+    /**
+     * Неизменяемый снимок всех животных. Пока ничего не удалялось, порядок - порядок добавления;
+     * удаление переставляет на место удалённого последнее животное.
+     */
+    List<Animal> snapshot();
+
+    /**
+     * Неизменяемый снимок животных вида (без учёта регистра), порядок - как у snapshot().
+     */
+    List<Animal> bySpecies(String species);
+
+    /**
+     * Новое пустое хранилище того же устройства (для ZooManager.replaceAll).
+     */
+    AnimalStore newEmpty();
+
+    /**
+     * Имя животного строки, если в ней животное id, иначе null (для индекса имён).
+     * Реализации могут переопределить, чтобы не создавать объект Animal.
+     */
+    default String nameOf(int row, long id) {
+        Animal animal = get(row);
+        return animal != null && animal.getId() == id ? animal.getName() : null;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Общая часть SnapshotArray и IntSnapshotArray: массив, разбитый на блоки по 4096 элементов,
+ * с публикацией неизменяемых снимков (таблица блоков + размер).
+ *
+ * Ячейки, которые мог видеть опубликованный снимок, на месте не меняются: перед записью
+ * блок копируется, а если опубликована и таблица блоков - копируется и она (один раз за
+ * поколение, то есть между публикациями). Поэтому изменение или удаление элемента стоит
+ * копирования одного блока и таблицы блоков, а не всего массива. Запись за пределами
+ * когда-либо опубликованного размера идёт на месте, как в обычном растущем массиве.
+ *
+ * Писатели сериализуются внешней блокировкой; снимки читаются без блокировок.
+ *
+ * @param <C> тип блока (Object[] или int[])
+ */
+abstract class ChunkedArray<C> {
+
+    static final int CHUNK_SHIFT = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int INITIAL_CHUNK = 16;
+
+    /** Таблица блоков; элементы имеют тип C. */
+    Object[] chunks = new Object[4];
+    int size;
+
+    private int[] chunkGenerations = new int[4];
+    private int directoryGeneration;
+    private int generation = 1;
+    /** Максимальный размер, когда-либо опубликованный в снимке. */
+    private int exposedSize;
+
+    abstract C newChunk(int length);
+
+    abstract C copyChunk(C chunk, int length);
+
+    abstract int chunkLength(C chunk);
+
+    /**
+     * Возвращает блок, в который можно записать ячейку index, при необходимости копируя его.
+     */
+    @SuppressWarnings("unchecked")
+    final C writableChunk(int index) {
+        int chunkIndex = index >>> CHUNK_SHIFT;
+        if (chunkIndex >= chunks.length) {
+            int capacity = Math.max(chunkIndex + 1, chunks.length * 2);
+            chunks = Arrays.copyOf(chunks, capacity);
+            chunkGenerations = Arrays.copyOf(chunkGenerations, capacity);
+            directoryGeneration = generation;
+        }
+        C chunk = (C) chunks[chunkIndex];
+        int offset = index & CHUNK_MASK;
+        if (chunk == null) {
+            chunk = newChunk(chunkIndex == 0 ? INITIAL_CHUNK : CHUNK_SIZE);
+            replaceChunk(chunkIndex, chunk);
+        } else if (offset >= chunkLength(chunk)) {
+            // Растёт только первый блок: маленькие массивы не занимают целый блок
+            chunk = copyChunk(chunk, Math.min(CHUNK_SIZE, Math.max(offset + 1, chunkLength(chunk) * 2)));
+            replaceChunk(chunkIndex, chunk);
+        } else if (index < exposedSize && chunkGenerations[chunkIndex] != generation) {
+            chunk = copyChunk(chunk, chunkLength(chunk));
+            replaceChunk(chunkIndex, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Завершает поколение: всё записанное до этого момента считается видимым снимкам.
+     * Наследник вызывает его, публикуя снимок текущих chunks и size.
+     */
+    final void sealGeneration() {
+        exposedSize = Math.max(exposedSize, size);
+        generation++;
+    }
+
+    private void replaceChunk(int chunkIndex, C chunk) {
+        if (((long) chunkIndex << CHUNK_SHIFT) < exposedSize && directoryGeneration != generation) {
+            chunks = chunks.clone();
+            directoryGeneration = generation;
+        }
+        chunks[chunkIndex] = chunk;
+        chunkGenerations[chunkIndex] = generation;
+    }
+}
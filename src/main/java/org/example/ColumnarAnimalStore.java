@@ -0,0 +1,338 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+import org.example.animals.Animal;
+import org.example.animals.Species;
+import org.example.animals.SpeciesRegistry;
+
+/**
+ * Колоночное хранилище животных для очень больших зоопарков.
+ *
+ * Вместо объекта Animal на каждое животное хранятся: код типа (int), идентификатор (int),
+ * смещение имени (int) и байты имени в общей UTF-8 арене. Индекс по виду и список живых
+ * строк хранят номера строк (int), а не ссылки; позиция строки в этих списках - ещё две
+ * колонки int. Строку по идентификатору находит общая таблица ZooManager (IdTable).
+ * Объекты Animal создаются по требованию при обращении к элементу снимка через фабрику
+ * ReflectionUtils, поэтому два чтения одной позиции дают разные, но равные по данным объекты.
+ *
+ * Колонки только растут: удаление убирает строку из списков за O(1), а замена
+ * дописывает новую строку, поэтому байты удалённых и заменённых животных остаются в арене
+ * до перезапуска (восстановление из снимка их не переносит).
+ *
+ * Снимки безопасны по той же причине, что и в SnapshotArray: записанные ячейки колонок
+ * не меняются, при расширении массивы копируются, а списки строк - это IntSnapshotArray.
+ */
+public class ColumnarAnimalStore implements AnimalStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<Class<?>, Integer> typeCodes = new HashMap<>();
+    private Function<String, Animal>[] factories = newFactoryTable(0);
+
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] nameEnds = new int[INITIAL_CAPACITY];
+    /** Позиция строки в live и в списке её вида; только для писателя. */
+    private int[] livePositions = new int[INITIAL_CAPACITY];
+    private int[] speciesPositions = new int[INITIAL_CAPACITY];
+    private byte[] arena = new byte[INITIAL_CAPACITY * 8];
+    private int size;
+    private int arenaSize;
+
+    /** Живые строки в порядке snapshot(). */
+    private final Rows live = new Rows();
+    /** Индекс по ordinal вида; массив заменяется целиком при появлении нового вида. */
+    private volatile Rows[] bySpecies = new Rows[0];
+    private volatile Columns columns = new Columns(factories, types, ids, nameEnds, arena, 0);
+
+    @Override
+    public int[] appendAll(List<? extends Animal> batch) {
+        // Сначала разрешаем все типы, чтобы ошибка не оставила пачку добавленной частично
+        int[] codes = new int[batch.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = typeCode(batch.get(i));
+        }
+
+        Map<Species, int[]> grouped = new HashMap<>();
+        Map<Species, Integer> groupSizes = new HashMap<>();
+        int first = size;
+        for (int i = 0; i < codes.length; i++) {
+            Animal animal = batch.get(i);
+            appendRow(codes[i], animal);
+
+            Species key = animal.getSpeciesRef();
+            int count = groupSizes.merge(key, 1, Integer::sum);
+            int[] group = grouped.computeIfAbsent(key, k -> new int[Math.min(codes.length, 16)]);
+            if (count > group.length) {
+                group = Arrays.copyOf(group, Math.max(count, group.length * 2));
+                grouped.put(key, group);
+            }
+            group[count - 1] = first + i;
+        }
+
+        // Колонки публикуются раньше списков строк, чтобы видимая в списке строка всегда была в колонках
+        publishColumns();
+        int[] rows = rangeOf(first, codes.length);
+        live.appendAll(rows, codes.length, livePositions);
+        grouped.forEach((species, group) -> rows(species).appendAll(group, groupSizes.get(species), speciesPositions));
+        return rows;
+    }
+
+    @Override
+    public Animal get(int row) {
+        Columns current = columns;
+        return row >= 0 && row < current.size ? current.animalAt(row) : null;
+    }
+
+    @Override
+    public String nameOf(int row, long id) {
+        Columns current = columns;
+        return row >= 0 && row < current.size && current.ids[row] == id ? current.nameAt(row) : null;
+    }
+
+    @Override
+    public Animal remove(int row) {
+        Animal removed = columns.animalAt(row);
+        live.remove(row, livePositions);
+        rows(removed.getSpeciesRef()).remove(row, speciesPositions);
+        return removed;
+    }
+
+    @Override
+    public int replace(int row, Animal replacement) {
+        Animal previous = columns.animalAt(row);
+        int replacementRow = appendRow(typeCode(replacement), replacement);
+        publishColumns();
+        live.set(row, replacementRow, livePositions);
+        if (previous.getSpeciesRef() == replacement.getSpeciesRef()) {
+            rows(previous.getSpeciesRef()).set(row, replacementRow, speciesPositions);
+        } else {
+            rows(previous.getSpeciesRef()).remove(row, speciesPositions);
+            rows(replacement.getSpeciesRef()).appendAll(new int[]{replacementRow}, 1, speciesPositions);
+        }
+        return replacementRow;
+    }
+
+    @Override
+    public List<Animal> snapshot() {
+        IntSnapshotArray.Snapshot rows = live.rows.snapshot();
+        return new ColumnView(columns, rows);
+    }
+
+    @Override
+    public AnimalStore newEmpty() {
+        return new ColumnarAnimalStore();
+    }
+
+    @Override
+    public List<Animal> bySpecies(String species) {
+        Species known = SpeciesRegistry.lookup(species);
+        Rows[] index = bySpecies;
+        if (known == null || known.getOrdinal() >= index.length || index[known.getOrdinal()] == null) {
+            return List.of();
+        }
+        IntSnapshotArray.Snapshot rows = index[known.getOrdinal()].rows.snapshot();
+        return new ColumnView(columns, rows);
+    }
+
+    /**
+     * Примерный объём кучи, занятый колонками и индексами, в байтах.
+     */
+    public long estimatedHeapBytes() {
+        long total = 4L * types.length + 4L * ids.length + 4L * nameEnds.length + arena.length;
+        total += 4L * livePositions.length + 4L * speciesPositions.length + 4L * live.rows.size();
+        for (Rows rows : bySpecies) {
+            if (rows != null) {
+                total += 4L * rows.rows.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Дописывает строку в колонки (без публикации) и возвращает её номер.
+     */
+    private int appendRow(int code, Animal animal) {
+        ensureCapacity(size + 1);
+        byte[] name = animal.getName().getBytes(StandardCharsets.UTF_8);
+        ensureArena(name.length);
+        System.arraycopy(name, 0, arena, arenaSize, name.length);
+        arenaSize += name.length;
+        types[size] = code;
+        ids[size] = (int) animal.getId();
+        nameEnds[size] = arenaSize;
+        return size++;
+    }
+
+    private void publishColumns() {
+        columns = new Columns(factories, types, ids, nameEnds, arena, size);
+    }
+
+    private static int[] rangeOf(int first, int count) {
+        int[] range = new int[count];
+        for (int i = 0; i < count; i++) {
+            range[i] = first + i;
+        }
+        return range;
+    }
+
+    private Rows rows(Species species) {
+        Rows[] index = bySpecies;
+        int ordinal = species.getOrdinal();
+        if (ordinal < index.length && index[ordinal] != null) {
+            return index[ordinal];
+        }
+        Rows[] extended = Arrays.copyOf(index, Math.max(index.length, SpeciesRegistry.size()));
+        Rows rows = new Rows();
+        extended[ordinal] = rows;
+        bySpecies = extended;
+        return rows;
+    }
+
+    private int typeCode(Animal animal) {
+        Integer code = typeCodes.get(animal.getClass());
+        if (code != null) {
+            return code;
+        }
+        Function<String, Animal> factory = ReflectionUtils.getAnimalFactory(animal.getClass().getSimpleName());
+        if (factory == null || factory.apply(animal.getName()).getClass() != animal.getClass()) {
+            throw new IllegalArgumentException(
+                    "Тип не поддерживается колоночным хранилищем: " + animal.getClass().getName());
+        }
+        int newCode = factories.length;
+        Function<String, Animal>[] extended = Arrays.copyOf(factories, newCode + 1);
+        extended[newCode] = factory;
+        factories = extended;
+        typeCodes.put(animal.getClass(), newCode);
+        return newCode;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > types.length) {
+            int capacity = Math.max(required, types.length + (types.length >> 1));
+            types = Arrays.copyOf(types, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            nameEnds = Arrays.copyOf(nameEnds, capacity);
+            livePositions = Arrays.copyOf(livePositions, capacity);
+            speciesPositions = Arrays.copyOf(speciesPositions, capacity);
+        }
+    }
+
+    private void ensureArena(int extra) {
+        long required = (long) arenaSize + extra;
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Арена имён переполнена: " + required + " байт");
+        }
+        if (required > arena.length) {
+            long capacity = Math.max(required, arena.length + ((long) arena.length >> 1));
+            arena = Arrays.copyOf(arena, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Animal>[] newFactoryTable(int size) {
+        return (Function<String, Animal>[]) new Function[size];
+    }
+
+    /**
+     * Неизменяемое состояние колонок на момент публикации.
+     */
+    private static final class Columns {
+        private final Function<String, Animal>[] factories;
+        private final int[] types;
+        private final int[] ids;
+        private final int[] nameEnds;
+        private final byte[] arena;
+        private final int size;
+
+        Columns(Function<String, Animal>[] factories, int[] types, int[] ids, int[] nameEnds, byte[] arena,
+                int size) {
+            this.factories = factories;
+            this.types = types;
+            this.ids = ids;
+            this.nameEnds = nameEnds;
+            this.arena = arena;
+            this.size = size;
+        }
+
+        Animal animalAt(int position) {
+            Animal animal = factories[types[position]].apply(nameAt(position));
+            animal.assignId(ids[position]);
+            return animal;
+        }
+
+        String nameAt(int position) {
+            if (position < 0 || position >= size) {
+                throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+            }
+            int start = position == 0 ? 0 : nameEnds[position - 1];
+            return new String(arena, start, nameEnds[position] - start, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Список строк (все живые или одного вида); позиции строк в нём хранит владелец (positions),
+     * чтобы удалять за O(1) перестановкой последней строки на место удалённой.
+     */
+    private static final class Rows {
+        private final IntSnapshotArray rows = new IntSnapshotArray();
+
+        void appendAll(int[] batch, int batchSize, int[] positions) {
+            int position = rows.size();
+            for (int i = 0; i < batchSize; i++) {
+                positions[batch[i]] = position++;
+            }
+            rows.appendAll(batch, batchSize);
+        }
+
+        void remove(int row, int[] positions) {
+            int position = positions[row];
+            int moved = rows.removeSwap(position);
+            if (moved >= 0) {
+                positions[moved] = position;
+            }
+        }
+
+        void set(int row, int replacement, int[] positions) {
+            int position = positions[row];
+            positions[replacement] = position;
+            rows.set(position, replacement);
+        }
+    }
+
+    /**
+     * Неизменяемое представление снимка списка строк поверх колонок.
+     */
+    private static final class ColumnView extends AbstractList<Animal> implements RandomAccess {
+        private final Columns columns;
+        private final IntSnapshotArray.Snapshot rows;
+        private final int size;
+
+        ColumnView(Columns columns, IntSnapshotArray.Snapshot rows) {
+            this.columns = columns;
+            this.rows = rows;
+            this.size = rows.size();
+        }
+
+        @Override
+        public Animal get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return columns.animalAt(rows.get(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Неизменяемая склейка нескольких списков (снимков разделов) без копирования элементов.
+ * Позиция ищется двоичным поиском по смещениям частей, поэтому get стоит O(log частей).
+ */
+final class ConcatList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<? extends List<? extends T>> parts;
+    /** offsets[i] - позиция первого элемента части i; offsets[parts.size()] - общий размер. */
+    private final int[] offsets;
+
+    ConcatList(List<? extends List<? extends T>> parts) {
+        this.parts = List.copyOf(parts);
+        this.offsets = new int[parts.size() + 1];
+        for (int i = 0; i < parts.size(); i++) {
+            offsets[i + 1] = Math.addExact(offsets[i], parts.get(i).size());
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int part = Arrays.binarySearch(offsets, index);
+        if (part < 0) {
+            part = -part - 2;
+        } else {
+            // Пустые части дают одинаковые смещения: берём последнюю часть, начинающуюся с index
+            while (offsets[part + 1] == index) {
+                part++;
+            }
+        }
+        return parts.get(part).get(index - offsets[part]);
+    }
+
+    @Override
+    public int size() {
+        return offsets[offsets.length - 1];
+    }
+}
@@ -0,0 +1,149 @@
+package org.example;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.example.care.Capability;
+import org.example.care.CapabilityRegistry;
+import org.example.employees.Employee;
+
+/**
+ * Сотрудники ZooManager: сотрудники по номерам строк, список, списки по видам ухода
+ * и индекс имён. Строку сотрудника находит общая таблица идентификаторов (вид места kind),
+ * а позиции в списках - LongIntMap по размеру списка. Собраны в один объект, чтобы
+ * ZooManager.replaceAll подменял их одной записью. Изменяется под блокировкой
+ * сотрудников ZooManager, читается без блокировок.
+ */
+final class EmployeeShard {
+
+    final IdIndexedArray<Employee> employees = new IdIndexedArray<>(Employee::getId);
+    final Map<Capability, IdIndexedArray<Employee>> byCapability = new EnumMap<>(Capability.class);
+    final NameIndex names;
+    final IdTable ids;
+    final int kind;
+    private final SlotArray<Employee> slots = new SlotArray<>();
+    /** Наибольший идентификатор среди добавленных сотрудников, уже видимых в хранилище. */
+    volatile int lastId;
+
+    EmployeeShard(IdTable ids, int kind) {
+        this.ids = ids;
+        this.kind = kind;
+        for (Capability capability : Capability.values()) {
+            byCapability.put(capability, new IdIndexedArray<>(Employee::getId));
+        }
+        this.names = new NameIndex(id -> {
+            Employee employee = get(id);
+            return employee != null ? employee.getName() : null;
+        }, () -> lastId);
+    }
+
+    /**
+     * Сотрудник по идентификатору или null; O(1) и без блокировок.
+     * Строка сотрудника не меняется до удаления, а освободившуюся строку может занять
+     * другой сотрудник, поэтому идентификатор сверяется.
+     */
+    Employee get(long id) {
+        int row = rowOf(id);
+        Employee employee = row < 0 ? null : slots.get(row);
+        return employee != null && employee.getId() == id ? employee : null;
+    }
+
+    /**
+     * Добавляет пачку сотрудников с уже назначенными (и занятыми в ids) идентификаторами;
+     * assigned - те из них, что были назначены до добавления (их индекс имён вставляет отдельно).
+     */
+    void appendAll(List<? extends Employee> batch, int[] assigned) {
+        Runnable append = () -> {
+            int[] rows = slots.putAll(batch);
+            employees.appendAll(batch);
+            for (int i = 0; i < rows.length; i++) {
+                ids.put(batch.get(i).getId(), kind, rows[i]);
+            }
+        };
+        if (assigned.length == 0) {
+            append.run();
+        } else {
+            names.addAssigned(assigned, append);
+        }
+        int last = lastId;
+        for (Employee employee : batch) {
+            int mask = CapabilityRegistry.maskOf(employee);
+            for (Capability capability : Capability.values()) {
+                if ((mask & capability.bit()) != 0) {
+                    byCapability.get(capability).append(employee);
+                }
+            }
+            last = Math.max(last, (int) employee.getId());
+        }
+        lastId = last;
+    }
+
+    /**
+     * Удаляет сотрудника из всех списков, индекса имён и таблицы идентификаторов.
+     *
+     * @return удалённый сотрудник или null, если его нет
+     */
+    Employee remove(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        Employee removed = slots.get(row);
+        names.update((int) id, removed.getName(), false, () -> {
+            employees.remove(id);
+            slots.clear(row);
+            ids.release(id);
+        });
+        int mask = CapabilityRegistry.maskOf(removed);
+        for (Capability capability : Capability.values()) {
+            if ((mask & capability.bit()) != 0) {
+                byCapability.get(capability).remove(id);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Ставит replacement (с тем же идентификатором) на место сотрудника id.
+     *
+     * @return прежний сотрудник или null, если его нет (тогда ничего не меняется)
+     */
+    Employee replace(long id, Employee replacement) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        Employee previous = slots.get(row);
+        replacement.assignId(id);
+        Runnable replace = () -> {
+            employees.replace(replacement);
+            slots.set(row, replacement);
+        };
+        if (previous.getName().equals(replacement.getName())) {
+            replace.run();
+        } else {
+            names.update((int) id, previous.getName(), true, replace);
+        }
+        int previousMask = CapabilityRegistry.maskOf(previous);
+        int mask = CapabilityRegistry.maskOf(replacement);
+        for (Capability capability : Capability.values()) {
+            boolean had = (previousMask & capability.bit()) != 0;
+            boolean has = (mask & capability.bit()) != 0;
+            IdIndexedArray<Employee> list = byCapability.get(capability);
+            if (had && has) {
+                list.replace(replacement);
+            } else if (had) {
+                list.remove(id);
+            } else if (has) {
+                list.append(replacement);
+            }
+        }
+        return previous;
+    }
+
+    private int rowOf(long id) {
+        int location = ids.locate(id);
+        return IdTable.isPlaced(location) && ids.kindOf(location) == kind ? ids.rowOf(location) : -1;
+    }
+}
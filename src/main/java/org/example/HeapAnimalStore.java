@@ -0,0 +1,147 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.example.animals.Animal;
+import org.example.animals.Species;
+import org.example.animals.SpeciesRegistry;
+
+/**
+ * Хранилище по умолчанию: сами объекты Animal по номерам строк (SlotArray), список всех
+ * животных и индекс по виду, адресуемый ordinal из SpeciesRegistry. Чтобы удалять из списков
+ * за O(1), писатель помнит позицию каждой строки в списке всех и в списке её вида (колонки int
+ * по номеру строки), а списки - строку каждой своей позиции.
+ */
+public class HeapAnimalStore implements AnimalStore {
+
+    private final SlotArray<Animal> slots = new SlotArray<>();
+    private final Bucket live = new Bucket();
+    private volatile Bucket[] bySpecies = new Bucket[0];
+    /** Позиция строки в live и в списке её вида; только для писателя. */
+    private int[] livePositions = new int[0];
+    private int[] speciesPositions = new int[0];
+
+    @Override
+    public int[] appendAll(List<? extends Animal> batch) {
+        int[] rows = slots.putAll(batch);
+        int required = slots.rowCount();
+        if (required > livePositions.length) {
+            int capacity = Math.max(required, livePositions.length + (livePositions.length >> 1));
+            livePositions = Arrays.copyOf(livePositions, capacity);
+            speciesPositions = Arrays.copyOf(speciesPositions, capacity);
+        }
+        live.appendAll(batch, rows, livePositions);
+        for (int i = 0; i < rows.length; i++) {
+            Animal animal = batch.get(i);
+            bucket(animal.getSpeciesRef()).append(animal, rows[i], speciesPositions);
+        }
+        return rows;
+    }
+
+    @Override
+    public Animal get(int row) {
+        return slots.get(row);
+    }
+
+    @Override
+    public Animal remove(int row) {
+        Animal removed = slots.get(row);
+        live.remove(row, livePositions);
+        bucket(removed.getSpeciesRef()).remove(row, speciesPositions);
+        slots.clear(row);
+        return removed;
+    }
+
+    @Override
+    public int replace(int row, Animal replacement) {
+        Animal previous = slots.get(row);
+        live.set(row, replacement, livePositions);
+        if (previous.getSpeciesRef() == replacement.getSpeciesRef()) {
+            bucket(previous.getSpeciesRef()).set(row, replacement, speciesPositions);
+        } else {
+            bucket(previous.getSpeciesRef()).remove(row, speciesPositions);
+            bucket(replacement.getSpeciesRef()).append(replacement, row, speciesPositions);
+        }
+        slots.set(row, replacement);
+        return row;
+    }
+
+    @Override
+    public List<Animal> snapshot() {
+        return live.animals.snapshot();
+    }
+
+    @Override
+    public AnimalStore newEmpty() {
+        return new HeapAnimalStore();
+    }
+
+    @Override
+    public List<Animal> bySpecies(String species) {
+        Species known = SpeciesRegistry.lookup(species);
+        Bucket[] buckets = bySpecies;
+        if (known == null || known.getOrdinal() >= buckets.length || buckets[known.getOrdinal()] == null) {
+            return List.of();
+        }
+        return buckets[known.getOrdinal()].animals.snapshot();
+    }
+
+    private Bucket bucket(Species species) {
+        Bucket[] buckets = bySpecies;
+        int ordinal = species.getOrdinal();
+        if (ordinal < buckets.length && buckets[ordinal] != null) {
+            return buckets[ordinal];
+        }
+        Bucket[] extended = Arrays.copyOf(buckets, Math.max(buckets.length, SpeciesRegistry.size()));
+        Bucket bucket = new Bucket();
+        extended[ordinal] = bucket;
+        bySpecies = extended;
+        return bucket;
+    }
+
+    /**
+     * Список животных (все или одного вида) со строкой каждой позиции; позиции строк
+     * в списке хранит владелец (positions), по одной колонке на все списки одного назначения.
+     */
+    private static final class Bucket {
+        private final SnapshotArray<Animal> animals = new SnapshotArray<>();
+        /** Строка по позиции в списке; только для писателя. */
+        private int[] rows = new int[0];
+
+        void append(Animal animal, int row, int[] positions) {
+            track(animals.size(), row, positions);
+            animals.append(animal);
+        }
+
+        void appendAll(List<? extends Animal> batch, int[] batchRows, int[] positions) {
+            int position = animals.size();
+            for (int row : batchRows) {
+                track(position++, row, positions);
+            }
+            animals.appendAll(batch);
+        }
+
+        void set(int row, Animal animal, int[] positions) {
+            animals.set(positions[row], animal);
+        }
+
+        void remove(int row, int[] positions) {
+            int position = positions[row];
+            int last = animals.size() - 1;
+            animals.removeSwap(position);
+            if (position != last) {
+                rows[position] = rows[last];
+                positions[rows[position]] = position;
+            }
+        }
+
+        private void track(int position, int row, int[] positions) {
+            if (position >= rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(8, rows.length + (rows.length >> 1)));
+            }
+            rows[position] = row;
+            positions[row] = position;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Список сущностей со снимками (SnapshotArray) плюс позиция каждой сущности по её
+ * идентификатору. Удаление переставляет последний элемент на место удалённого,
+ * поэтому поиск, замена и удаление по идентификатору стоят O(1), но порядок
+ * снимка после удалений перестаёт совпадать с порядком добавления.
+ * Позиции хранятся в LongIntMap, то есть занимают память по размеру списка.
+ * Изменяется только под блокировкой владельца.
+ */
+final class IdIndexedArray<T> {
+
+    private final SnapshotArray<T> elements = new SnapshotArray<>();
+    private final LongIntMap positions = new LongIntMap();
+    private final ToLongFunction<? super T> idOf;
+
+    IdIndexedArray(ToLongFunction<? super T> idOf) {
+        this.idOf = idOf;
+    }
+
+    void append(T element) {
+        positions.put(idOf.applyAsLong(element), elements.size());
+        elements.append(element);
+    }
+
+    void appendAll(List<? extends T> batch) {
+        int position = elements.size();
+        for (T element : batch) {
+            positions.put(idOf.applyAsLong(element), position++);
+        }
+        elements.appendAll(batch);
+    }
+
+    /**
+     * @return true, если сущность с таким идентификатором была в списке
+     */
+    boolean remove(long id) {
+        int position = positions.remove(id);
+        if (position == LongIntMap.ABSENT) {
+            return false;
+        }
+        T moved = elements.removeSwap(position);
+        if (moved != null) {
+            positions.put(idOf.applyAsLong(moved), position);
+        }
+        return true;
+    }
+
+    /**
+     * Ставит element на место сущности с тем же идентификатором.
+     *
+     * @return true, если такая сущность была в списке
+     */
+    boolean replace(T element) {
+        int position = positions.get(idOf.applyAsLong(element));
+        if (position == LongIntMap.ABSENT) {
+            return false;
+        }
+        elements.set(position, element);
+        return true;
+    }
+
+    List<T> snapshot() {
+        return elements.snapshot();
+    }
+}
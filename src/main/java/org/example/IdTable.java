@@ -0,0 +1,124 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Единая на ZooManager таблица идентификатор -> место сущности: вид места (раздел животных
+ * или сотрудники) и номер строки в его хранилище. Единственная структура, размер которой
+ * зависит от наибольшего идентификатора: 4 байта на идентификатор, блоками по 4096,
+ * блок выделяется при первой записи в него.
+ *
+ * Потокобезопасна: писатели разных разделов пишут одновременно (каждый - только свои
+ * идентификаторы), чтение без блокировок. Занятие идентификатора - claim, атомарное
+ * сравнение с обменом, поэтому один идентификатор не могут занять две пачки сразу.
+ */
+final class IdTable {
+
+    /** Место отсутствующей сущности. */
+    static final int ABSENT = 0;
+    /** Идентификатор занят пачкой, которая ещё не добавлена в хранилище. */
+    static final int CLAIMED = -1;
+    /** Наибольший допустимый идентификатор. */
+    static final long MAX_ID = Integer.MAX_VALUE - 8;
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int kinds;
+    /** Таблица блоков; заменяется большей под this, блоки добавляются под this. */
+    private volatile AtomicReferenceArray<int[]> chunks = new AtomicReferenceArray<>(16);
+
+    /**
+     * @param kinds число видов мест (разделы животных плюс сотрудники)
+     */
+    IdTable(int kinds) {
+        this.kinds = kinds;
+    }
+
+    /**
+     * Место сущности id: ABSENT, CLAIMED или значение location(kind, row).
+     */
+    int locate(long id) {
+        if (id <= 0 || id > MAX_ID) {
+            return ABSENT;
+        }
+        AtomicReferenceArray<int[]> current = chunks;
+        int index = (int) (id >>> CHUNK_SHIFT);
+        int[] chunk = index < current.length() ? current.get(index) : null;
+        return chunk == null ? ABSENT : (int) SLOTS.getAcquire(chunk, (int) id & CHUNK_MASK);
+    }
+
+    /**
+     * Занимает свободный идентификатор.
+     *
+     * @return false, если идентификатор уже занят
+     */
+    boolean claim(long id) {
+        return SLOTS.compareAndSet(chunk(id), (int) id & CHUNK_MASK, ABSENT, CLAIMED);
+    }
+
+    /**
+     * Записывает место занятого идентификатора; видно читателям после всего, что писатель
+     * сделал до вызова (в том числе публикации строки в хранилище).
+     */
+    void put(long id, int kind, int row) {
+        if (row < 0 || row > (Integer.MAX_VALUE - 1 - kind) / kinds) {
+            throw new IllegalStateException("Номер строки не помещается в таблицу идентификаторов: " + row);
+        }
+        SLOTS.setRelease(chunk(id), (int) id & CHUNK_MASK, row * kinds + kind + 1);
+    }
+
+    /**
+     * Освобождает идентификатор (сущность удалена или пачка не добавлена).
+     */
+    void release(long id) {
+        SLOTS.setRelease(chunk(id), (int) id & CHUNK_MASK, ABSENT);
+    }
+
+    /**
+     * Есть ли по месту location сущность (не ABSENT и не CLAIMED).
+     */
+    static boolean isPlaced(int location) {
+        return location > 0;
+    }
+
+    int kindOf(int location) {
+        return (location - 1) % kinds;
+    }
+
+    int rowOf(int location) {
+        return (location - 1) / kinds;
+    }
+
+    private int[] chunk(long id) {
+        if (id <= 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Недопустимый идентификатор: " + id);
+        }
+        int index = (int) (id >>> CHUNK_SHIFT);
+        AtomicReferenceArray<int[]> current = chunks;
+        int[] chunk = index < current.length() ? current.get(index) : null;
+        return chunk != null ? chunk : addChunk(index);
+    }
+
+    private synchronized int[] addChunk(int index) {
+        AtomicReferenceArray<int[]> current = chunks;
+        if (index >= current.length()) {
+            AtomicReferenceArray<int[]> larger = new AtomicReferenceArray<>(Math.max(index + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                larger.set(i, current.get(i));
+            }
+            chunks = larger;
+            current = larger;
+        }
+        int[] chunk = current.get(index);
+        if (chunk == null) {
+            chunk = new int[CHUNK_SIZE];
+            current.set(index, chunk);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Вариант SnapshotArray для int без упаковки: позиции строк колоночного хранилища.
+ * Писатели сериализуются внешней блокировкой; снимки читаются без блокировок.
+ */
+final class IntSnapshotArray extends ChunkedArray<int[]> {
+
+    private volatile Snapshot snapshot = new Snapshot(chunks, 0);
+
+    /**
+     * Добавляет values[0, count) и публикует один снимок на всю пачку.
+     */
+    void appendAll(int[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            writableChunk(size)[size & CHUNK_MASK] = values[i];
+            size++;
+        }
+        publish();
+    }
+
+    int get(int index) {
+        return ((int[]) chunks[index >>> CHUNK_SHIFT])[index & CHUNK_MASK];
+    }
+
+    void set(int index, int value) {
+        writableChunk(index)[index & CHUNK_MASK] = value;
+        publish();
+    }
+
+    /**
+     * Удаляет значение, переставляя на его место последнее, и публикует новый снимок.
+     *
+     * @return значение, переехавшее на место index, или -1, если удалено последнее
+     */
+    int removeSwap(int index) {
+        int last = size - 1;
+        int moved = -1;
+        if (index != last) {
+            moved = get(last);
+            writableChunk(index)[index & CHUNK_MASK] = moved;
+        }
+        size = last;
+        publish();
+        return moved;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(chunks, size);
+        sealGeneration();
+    }
+
+    @Override
+    int[] newChunk(int length) {
+        return new int[length];
+    }
+
+    @Override
+    int[] copyChunk(int[] chunk, int length) {
+        return Arrays.copyOf(chunk, length);
+    }
+
+    @Override
+    int chunkLength(int[] chunk) {
+        return chunk.length;
+    }
+
+    /**
+     * Неизменяемый снимок первых size значений.
+     */
+    static final class Snapshot {
+
+        private final Object[] chunks;
+        private final int size;
+
+        Snapshot(Object[] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        int get(int index) {
+            return ((int[]) chunks[index >>> CHUNK_SHIFT])[index & CHUNK_MASK];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -1,64 +1,516 @@
 package org.example;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.example.animals.Animal;
 import org.example.employees.Employee;
+import org.example.events.AsyncEventSink;
+import org.example.events.EventSink;
+import org.example.events.Events;
+import org.example.events.SilentEventSink;
+import org.example.http.ZooHttpServer;
+import org.example.importing.BulkImporter;
+import org.example.importing.ImportResult;
+import org.example.metrics.CommandEvent;
+import org.example.metrics.ZooMetrics;
+import org.example.persistence.ZooPersistence;
+import org.example.persistence.ZooReplicationFollower;
+import org.example.persistence.ZooReplicationLeader;
+import org.example.reporting.ReportCache;
 import org.example.reporting.ZooReportService;
+import org.example.scheduling.CareExecutor;
+import org.example.scheduling.CareRunReport;
+import org.example.scheduling.CareSchedule;
+import org.example.scheduling.CareScheduler;
 
 /**
  * Интерактивный консольный интерфейс для управления зоопарком.
+ * С аргументом {@code --data <каталог>} состояние сохраняется между запусками,
+ * с {@code --store columnar} животные хранятся в компактном колоночном виде,
+ * {@code --shards <n>} разбивает животных на n разделов по виду с отдельными блокировками,
+ * {@code --events async|silent} меняет вывод сообщений доменного слоя,
+ * {@code --batch <файл|->} выполняет команды из файла или stdin без интерактивного режима.
+ * {@code --replicate <порт>} делает узел ведущим репликации, {@code --follow <хост:порт>} -
+ * ведомым: он повторяет состояние ведущего и принимает только команды чтения.
+ * {@code --http <порт>} запускает HTTP/JSON API (только чтение на ведомом); если stdin закрыт,
+ * процесс продолжает обслуживать HTTP до завершения.
  */
 public class Main {
 
+    private static final int MAX_PRINTED_IMPORT_ERRORS = 20;
+    private static final int BATCH_BUFFER_SIZE = 1 << 20;
+    private static final int DEFAULT_SHOW_PAGE_SIZE = 20;
+    private static final int MAX_SHOW_OPTIONS = 8;
+    private static final int MAX_FOUND = 20;
+    private static final long FOLLOW_SYNC_SECONDS = 10;
+
     private static ZooManager zooManager;
     private static ZooReportService reportService;
+    private static ReportCache reportCache;
+    private static CareScheduler careScheduler;
+    private static ZooPersistence persistence;
+    private static ZooReplicationLeader replicationLeader;
+    private static ZooReplicationFollower replicationFollower;
+    private static ZooHttpServer httpServer;
+    private static boolean asyncEvents;
 
     public static void main(String[] args) {
-        zooManager = new ZooManager();
+        // До создания первого HttpServer: свойство читается один раз на JVM
+        if (System.getProperty(ZooHttpServer.NODELAY_PROPERTY) == null) {
+            System.setProperty(ZooHttpServer.NODELAY_PROPERTY, "true");
+        }
+        Supplier<AnimalStore> stores = "columnar".equals(findOption(args, "--store"))
+                ? ColumnarAnimalStore::new
+                : HeapAnimalStore::new;
+        String shardsOption = findOption(args, "--shards");
+        int shardCount;
+        try {
+            shardCount = shardsOption == null ? 1 : Integer.parseInt(shardsOption);
+        } catch (NumberFormatException e) {
+            shardCount = 0;
+        }
+        if (shardCount < 1) {
+            System.out.println("Значение --shards должно быть положительным числом: " + shardsOption);
+            return;
+        }
+        zooManager = new ZooManager(shardCount, stores);
         reportService = new ZooReportService();
-        Scanner scanner = new Scanner(System.in);
+        reportCache = new ReportCache();
+        careScheduler = new CareScheduler();
+
+        String events = findOption(args, "--events");
+        asyncEvents = "async".equals(events);
+        if (asyncEvents) {
+            Events.setSink(newAsyncSink());
+        } else if ("silent".equals(events)) {
+            Events.setSink(new SilentEventSink());
+        }
+
+        String dataDir = findOption(args, "--data");
+        String replicatePort = findOption(args, "--replicate");
+        String leaderAddress = findOption(args, "--follow");
+        if (leaderAddress != null && (dataDir != null || replicatePort != null)) {
+            System.out.println("--follow нельзя сочетать с --data и --replicate: состояние ведомого приходит от ведущего.");
+            return;
+        }
+        if (dataDir != null) {
+            try {
+                persistence = ZooPersistence.open(Path.of(dataDir), zooManager);
+            } catch (IOException e) {
+                System.out.println("Не удалось открыть хранилище " + dataDir + ": " + e.getMessage());
+                return;
+            }
+            System.out.printf("Восстановлено животных: %d, сотрудников: %d за %.1f мс%n%n",
+                    persistence.getRecoveredAnimals(), persistence.getRecoveredEmployees(),
+                    persistence.getRecoveryNanos() / 1e6);
+        }
+
+        if (!startReplication(replicatePort, leaderAddress) || !startHttp(findOption(args, "--http"))) {
+            shutdown();
+            return;
+        }
+
+        String batchSource = findOption(args, "--batch");
+        if (batchSource != null) {
+            runBatch(batchSource);
+            shutdown();
+            return;
+        }
 
+        Scanner scanner = new Scanner(System.in);
         System.out.println("=== Система управления зоопарком ===");
         System.out.println("Введите 'info' для списка доступных команд.");
         System.out.println();
 
         while (true) {
             System.out.print("> ");
+            if (!scanner.hasNextLine()) {
+                if (httpServer != null) {
+                    // Запуск в фоне без консоли: HTTP обслуживается до сигнала завершения
+                    System.out.println("Ввод закрыт, HTTP API работает до завершения процесса.");
+                    Runtime.getRuntime().addShutdownHook(new Thread(Main::shutdown));
+                } else {
+                    shutdown();
+                }
+                return;
+            }
             String input = scanner.nextLine().trim();
 
             if (input.isEmpty()) {
                 continue;
             }
 
-            String[] parts = input.split("\\s+", 3);
-            String command = parts[0].toLowerCase();
-
-            switch (command) {
-                case "add" -> handleAddCommand(parts);
-                case "stat" -> handleStatCommand();
-                case "sched" -> handleSchedCommand();
-                case "show" -> handleShowCommand(parts);
-                case "employees", "emps" -> handleEmployeesCommand();
-                case "info" -> handleInfoCommand();
-                case "exit", "quit" -> {
-                    System.out.println("До свидания!");
-                    scanner.close();
-                    return;
+            String[] parts = tokenize(input, 3);
+            if (isExitCommand(parts[0])) {
+                shutdown();
+                System.out.println("До свидания!");
+                scanner.close();
+                return;
+            }
+
+            try {
+                executeCommand(input, parts);
+            } catch (RuntimeException e) {
+                System.out.println("Ошибка выполнения '" + input + "': " + e);
+            }
+            // Асинхронный приёмник должен успеть вывести сообщения команды до следующего приглашения
+            Events.getSink().flush();
+        }
+    }
+
+    /**
+     * Выполняет одну команду.
+     *
+     * @param input исходная строка команды (для аргументов, которые могут содержать пробелы)
+     * @param parts строка, разбитая tokenize(input, 3)
+     * @return false, если команда неизвестна или завершилась ошибкой
+     */
+    private static boolean executeCommand(String input, String[] parts) {
+        String command = parts[0].toLowerCase();
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            success = dispatchCommand(command, parts, input);
+            return success;
+        } finally {
+            String metricName = metricName(command);
+            ZooMetrics.recordCommand(metricName, System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.command = metricName;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    private static boolean dispatchCommand(String command, String[] parts, String input) {
+        if (replicationFollower != null && isWriteCommand(command)) {
+            System.out.println("Узел ведомый и доступен только для чтения; изменения вносятся на ведущем "
+                    + replicationFollower.getLeader() + ".");
+            return false;
+        }
+        switch (command) {
+            case "add" -> {
+                return handleAddCommand(parts);
+            }
+            case "stat" -> handleStatCommand();
+            case "sched" -> handleSchedCommand();
+            case "show" -> {
+                return handleShowCommand(parts);
+            }
+            case "employees", "emps" -> handleEmployeesCommand();
+            case "import" -> {
+                return handleImportCommand(input);
+            }
+            case "run" -> handleRunCommand();
+            case "save" -> {
+                return handleSaveCommand();
+            }
+            case "info" -> handleInfoCommand();
+            case "metrics" -> handleMetricsCommand();
+            case "find" -> {
+                return handleFindCommand(parts);
+            }
+            case "remove" -> {
+                return handleRemoveCommand(parts);
+            }
+            case "transfer" -> {
+                return handleTransferCommand(parts);
+            }
+            default -> {
+                System.out.println("Неизвестная команда. Введите 'info' для списка команд.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Имя гистограммы для команды: алиасы сводятся к одному имени,
+     * а неизвестные команды - к "unknown", чтобы ввод не плодил гистограммы.
+     */
+    private static String metricName(String command) {
+        return switch (command) {
+            case "add", "stat", "sched", "show", "find", "remove", "transfer", "import", "run", "save", "info",
+                 "metrics" -> command;
+            case "employees", "emps" -> "emps";
+            default -> "unknown";
+        };
+    }
+
+    private static boolean isWriteCommand(String command) {
+        return switch (command) {
+            case "add", "import", "remove", "transfer" -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isExitCommand(String command) {
+        return "exit".equalsIgnoreCase(command) || "quit".equalsIgnoreCase(command);
+    }
+
+    /**
+     * Асинхронный приёмник событий, пишущий в текущий System.out.
+     */
+    private static AsyncEventSink newAsyncSink() {
+        return new AsyncEventSink(new BufferedWriter(new OutputStreamWriter(System.out)));
+    }
+
+    /**
+     * Пакетный режим: команды читаются из файла (или stdin при "-") без приглашений,
+     * вывод буферизуется, в конце печатается сводка. Асинхронный приёмник событий на время
+     * пакета пишет в тот же буфер и сбрасывается после каждой команды, чтобы сообщения
+     * не отрывались от вывода своей команды.
+     */
+    private static void runBatch(String source) {
+        PrintStream console = System.out;
+        PrintStream buffered = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BATCH_BUFFER_SIZE), false);
+        System.setOut(buffered);
+        EventSink consoleSink = asyncEvents ? Events.setSink(newAsyncSink()) : null;
+
+        long commands = 0;
+        long errors = 0;
+        long start = System.nanoTime();
+        try (BufferedReader reader = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in), BATCH_BUFFER_SIZE)
+                : new BufferedReader(new InputStreamReader(Files.newInputStream(Path.of(source))), BATCH_BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = tokenize(line, 3);
+                if (parts.length == 0 || parts[0].startsWith("#")) {
+                    continue;
+                }
+                if (isExitCommand(parts[0])) {
+                    break;
+                }
+                commands++;
+                try {
+                    if (!executeCommand(line, parts)) {
+                        errors++;
+                    }
+                } catch (RuntimeException e) {
+                    errors++;
+                    System.out.println("Ошибка выполнения '" + line.strip() + "': " + e);
+                }
+                if (consoleSink != null) {
+                    Events.getSink().flush();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Не удалось прочитать команды: " + e.getMessage());
+            errors++;
+        } finally {
+            if (consoleSink != null) {
+                Events.setSink(consoleSink).close();
+            } else {
+                Events.getSink().flush();
+            }
+            buffered.flush();
+            System.setOut(console);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Пакет выполнен: команд %d, ошибок %d, %.1f с, %.0f команд/сек%n",
+                commands, errors, seconds, seconds == 0 ? commands : commands / seconds);
+    }
+
+    private static void shutdown() {
+        if (httpServer != null) {
+            httpServer.close();
+        }
+        closeReplication();
+        closePersistence();
+        Events.getSink().close();
+    }
+
+    /**
+     * Делит строку на не более чем limit частей по пробельным символам, как
+     * {@code input.trim().split("\\s+", limit)}, но без регулярных выражений.
+     * Последняя часть содержит остаток строки без изменений.
+     *
+     * @return части строки; пустой массив для пустой строки
+     */
+    static String[] tokenize(String input, int limit) {
+        int end = input.length();
+        while (end > 0 && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int pos = 0;
+        while (pos < end && input.charAt(pos) <= ' ') {
+            pos++;
+        }
+        if (pos == end) {
+            return new String[0];
+        }
+
+        String[] parts = new String[limit];
+        int count = 0;
+        while (pos < end) {
+            if (count == limit - 1) {
+                parts[count++] = input.substring(pos, end);
+                break;
+            }
+            int tokenEnd = pos;
+            while (tokenEnd < end && !isSeparator(input.charAt(tokenEnd))) {
+                tokenEnd++;
+            }
+            parts[count++] = input.substring(pos, tokenEnd);
+            pos = tokenEnd;
+            while (pos < end && isSeparator(input.charAt(pos))) {
+                pos++;
+            }
+        }
+        return count == limit ? parts : Arrays.copyOf(parts, count);
+    }
+
+    /**
+     * Символы класса \s в регулярных выражениях Java.
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Возвращает значение аргумента командной строки вида {@code --имя значение}.
+     */
+    private static String findOption(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (name.equals(args[i])) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Запускает ведущего (port != null) и/или ведомого (leader в виде хост:порт) репликации.
+     * Ведомый ждёт первого снимка ведущего не дольше FOLLOW_SYNC_SECONDS, дальше догоняет в фоне.
+     *
+     * @return false, если запуск не удался
+     */
+    private static boolean startReplication(String port, String leader) {
+        try {
+            if (port != null) {
+                replicationLeader = ZooReplicationLeader.start(new InetSocketAddress(Integer.parseInt(port)), zooManager);
+                System.out.println("Ведущий репликации, порт " + replicationLeader.getAddress().getPort());
+            }
+            if (leader != null) {
+                int colon = leader.lastIndexOf(':');
+                if (colon <= 0) {
+                    throw new IllegalArgumentException("ожидался адрес вида хост:порт: " + leader);
+                }
+                InetSocketAddress address = new InetSocketAddress(leader.substring(0, colon),
+                        Integer.parseInt(leader.substring(colon + 1)));
+                replicationFollower = ZooReplicationFollower.start(address, zooManager);
+                if (replicationFollower.awaitSync(FOLLOW_SYNC_SECONDS, TimeUnit.SECONDS)) {
+                    System.out.printf("Ведомый узел %s: животных %d, сотрудников %d (только чтение)%n%n", address,
+                            zooManager.getAnimals().size(), zooManager.getEmployees().size());
+                } else {
+                    System.out.println("Ведущий " + address + " пока недоступен, синхронизация продолжится в фоне.");
                 }
-                default -> System.out.println("Неизвестная команда. Введите 'info' для списка команд.");
             }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Не удалось запустить репликацию: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Запускает HTTP API на порту port, если он задан; на ведомом узле - только для чтения.
+     *
+     * @return false, если запуск не удался
+     */
+    private static boolean startHttp(String port) {
+        if (port == null) {
+            return true;
+        }
+        try {
+            httpServer = ZooHttpServer.start(new InetSocketAddress(Integer.parseInt(port)), zooManager, reportService,
+                    careScheduler, replicationFollower != null);
+            System.out.println("HTTP API: http://localhost:" + httpServer.getAddress().getPort()
+                    + "/ (" + httpServer.getExecutorDescription() + ")");
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Не удалось запустить HTTP API: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void closeReplication() {
+        try {
+            if (replicationLeader != null) {
+                replicationLeader.close();
+            }
+            if (replicationFollower != null) {
+                replicationFollower.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Не удалось остановить репликацию: " + e.getMessage());
+        }
+    }
+
+    private static void closePersistence() {
+        if (persistence == null) {
+            return;
+        }
+        try {
+            persistence.close();
+        } catch (IOException e) {
+            System.out.println("Не удалось сохранить состояние: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Обработка команды save - внеочередной снимок состояния.
+     */
+    private static boolean handleSaveCommand() {
+        if (persistence == null) {
+            System.out.println("Хранилище не подключено. Запустите программу с --data <каталог>.");
+            return false;
+        }
+        try {
+            persistence.snapshot();
+            System.out.println("✓ Снимок состояния сохранён.");
+            return true;
+        } catch (IOException e) {
+            System.out.println("Не удалось сохранить снимок: " + e.getMessage());
+            return false;
         }
     }
 
     /**
      * Обработка команды добавления (add animal/employee).
      */
-    private static void handleAddCommand(String[] parts) {
+    private static boolean handleAddCommand(String[] parts) {
         if (parts.length < 2) {
             System.out.println("Использование: add <-a|-e> <тип> <имя>");
-            return;
+            return false;
         }
 
         String type = parts[1].toLowerCase();
@@ -68,13 +520,13 @@ public class Main {
                 System.out.println("Использование: add -a <тип> <имя>");
                 List<String> availableTypes = ReflectionUtils.getAvailableAnimalTypes();
                 System.out.println("Доступные типы: " + String.join(", ", availableTypes));
-                return;
+                return false;
             }
 
-            String[] animalParts = parts[2].split("\\s+", 2);
+            String[] animalParts = tokenize(parts[2], 2);
             if (animalParts.length < 2) {
                 System.out.println("Использование: add -a <тип> <имя>");
-                return;
+                return false;
             }
 
             String animalType = animalParts[0].toLowerCase();
@@ -83,24 +535,24 @@ public class Main {
             Animal animal = ReflectionUtils.createAnimalByType(animalType, name);
             if (animal != null) {
                 zooManager.addAnimal(animal);
-            } else {
-                System.out.println("Неизвестный тип животного: " + animalType);
-                List<String> availableTypes = ReflectionUtils.getAvailableAnimalTypes();
-                System.out.println("Доступные типы: " + String.join(", ", availableTypes));
+                return true;
             }
+            System.out.println("Неизвестный тип животного: " + animalType);
+            List<String> availableTypes = ReflectionUtils.getAvailableAnimalTypes();
+            System.out.println("Доступные типы: " + String.join(", ", availableTypes));
 
         } else if ("-e".equals(type)) {
             if (parts.length < 3) {
                 System.out.println("Использование: add -e <тип> <имя>");
                 List<String> availableTypes = ReflectionUtils.getAvailableEmployeeTypes();
                 System.out.println("Доступные типы: " + String.join(", ", availableTypes));
-                return;
+                return false;
             }
 
-            String[] employeeParts = parts[2].split("\\s+", 2);
+            String[] employeeParts = tokenize(parts[2], 2);
             if (employeeParts.length < 2) {
                 System.out.println("Использование: add -e <тип> <имя>");
-                return;
+                return false;
             }
 
             String employeeType = employeeParts[0].toLowerCase();
@@ -109,15 +561,16 @@ public class Main {
             Employee employee = ReflectionUtils.createEmployeeByType(employeeType, name);
             if (employee != null) {
                 zooManager.addEmployee(employee);
-            } else {
-                System.out.println("Неизвестный тип сотрудника: " + employeeType);
-                List<String> availableTypes = ReflectionUtils.getAvailableEmployeeTypes();
-                System.out.println("Доступные типы: " + String.join(", ", availableTypes));
+                return true;
             }
+            System.out.println("Неизвестный тип сотрудника: " + employeeType);
+            List<String> availableTypes = ReflectionUtils.getAvailableEmployeeTypes();
+            System.out.println("Доступные типы: " + String.join(", ", availableTypes));
 
         } else {
             System.out.println("Использование: add <-a|-e> <тип> <имя>");
         }
+        return false;
     }
 
 
@@ -125,15 +578,16 @@ public class Main {
      * Обработка команды stat - статистика по животным.
      */
     private static void handleStatCommand() {
-        List<Animal> animals = zooManager.getAnimals();
+        long version = zooManager.getModificationCount();
+        Map<String, Long> speciesCounts = zooManager.getSpeciesCounts();
 
-        if (animals.isEmpty()) {
+        if (speciesCounts.isEmpty()) {
             System.out.println("В зоопарке пока нет животных.");
             return;
         }
         System.out.println("\n=== Статистика зоопарка ===");
         System.out.println();
-        System.out.println(reportService.buildShortSummary(zooManager.getAnimals()));
+        System.out.println(reportCache.get("stat", version, out -> reportService.writeShortSummary(speciesCounts, out)));
         System.out.println();
     }
 
@@ -141,6 +595,7 @@ public class Main {
      * Обработка команды sched - расписание ухода за животными.
      */
     private static void handleSchedCommand() {
+        long version = zooManager.getModificationCount();
         List<Animal> animals = zooManager.getAnimals();
         
         if (animals.isEmpty()) {
@@ -150,48 +605,326 @@ public class Main {
 
         System.out.println("\n=== Расписание ухода за животными на сегодня ===");
         System.out.println();
-        System.out.println(reportService.buildFeedingSchedule(animals));
-        System.out.println(reportService.buildMedicalSchedule(animals));
-        System.out.println(reportService.buildCleaningSchedule(animals));
+
+        List<Employee> employees = zooManager.getEmployees();
+        if (!employees.isEmpty()) {
+            // Распределение задач тоже повторяется только при промахе кэша
+            printCachedReport("sched", version,
+                    out -> reportService.writeCareSchedule(careScheduler.schedule(animals, employees), out));
+            return;
+        }
+
+        System.out.println("Сотрудников нет, поэтому задачи не распределены. Добавьте их командой add -e.");
+        System.out.println();
+        printCachedReport("sched-daily", version, out -> {
+            reportService.writeDailySchedule(animals, out);
+            out.append('\n');
+        });
+    }
+
+    /**
+     * Обработка команды run - выполнение всех задач ухода на сегодня.
+     */
+    private static void handleRunCommand() {
+        List<Animal> animals = zooManager.getAnimals();
+        List<Employee> employees = zooManager.getEmployees();
+
+        if (animals.isEmpty() || employees.isEmpty()) {
+            System.out.println("Для прогона дня нужны и животные, и сотрудники.");
+            return;
+        }
+
+        CareSchedule schedule = careScheduler.schedule(animals, employees);
+        CareRunReport report;
+        try {
+            report = new CareExecutor().run(schedule);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Прогон дня прерван.");
+            return;
+        }
+
+        // Сообщения задач из рабочих потоков выводятся до итогов, а не вперемешку с ними
+        Events.getSink().flush();
+        System.out.println("\n=== Итоги прогона дня ===");
+        System.out.println("Выполнено задач: " + report.getCompleted() + ", ошибок: " + report.getFailed());
+        System.out.println("Очередь на старте: " + report.getInitialQueueDepth()
+                + ", максимум у одного сотрудника: " + report.getMaxEmployeeQueueDepth());
+        System.out.printf("Задержка, мс: p50=%.3f p95=%.3f p99=%.3f max=%.3f%n",
+                report.getP50Nanos() / 1e6, report.getP95Nanos() / 1e6,
+                report.getP99Nanos() / 1e6, report.getMaxNanos() / 1e6);
+        System.out.printf("Общее время: %.3f мс%n", report.getElapsedNanos() / 1e6);
+        System.out.println();
     }
 
     /**
      * Обработка команды show - информация о животных конкретного вида.
+     * С --limit/--page печатается только одна страница списка.
      */
-    private static void handleShowCommand(String[] parts) {
+    private static boolean handleShowCommand(String[] parts) {
         if (parts.length < 2) {
-            System.out.println("Использование: show <вид>");
-            System.out.println("Пример: show Wolf");
-            return;
+            System.out.println("Использование: show <вид> [--limit <n>] [--page <номер>]");
+            System.out.println("Пример: show Wolf --limit 20 --page 2");
+            return false;
         }
 
         String species = parts[1];
-        List<Animal> animals = zooManager.getAnimalsBySpecies(species);
+        String[] options = parts.length > 2 ? tokenize(parts[2], MAX_SHOW_OPTIONS) : new String[0];
+        String limitOption = findOption(options, "--limit");
+        String pageOption = findOption(options, "--page");
+        int limit;
+        int pageNumber;
+        try {
+            limit = limitOption != null ? Integer.parseInt(limitOption)
+                    : pageOption != null ? DEFAULT_SHOW_PAGE_SIZE : Integer.MAX_VALUE;
+            pageNumber = pageOption != null ? Integer.parseInt(pageOption) : 1;
+        } catch (NumberFormatException e) {
+            System.out.println("Значения --limit и --page должны быть числами.");
+            return false;
+        }
+        if (limit <= 0 || pageNumber <= 0) {
+            System.out.println("Значения --limit и --page должны быть положительными.");
+            return false;
+        }
 
-        if (animals.isEmpty()) {
+        long offset = (long) (pageNumber - 1) * limit;
+        Page<Animal> page = zooManager.getAnimalsBySpeciesPage(species, (int) Math.min(offset, Integer.MAX_VALUE), limit);
+
+        if (page.getTotal() == 0) {
             System.out.println("Животных вида '" + species + "' не найдено в зоопарке.");
-            return;
+            return true;
+        }
+
+        int pages = (int) ((page.getTotal() + (long) limit - 1) / limit);
+        if (page.getItems().isEmpty()) {
+            System.out.println("Страницы " + pageNumber + " нет: всего страниц " + pages + ".");
+            return true;
         }
 
         System.out.println("\n=== Информация о животных вида: " + species + " ===");
-        System.out.println("Количество: " + animals.size());
+        System.out.println("Количество: " + page.getTotal());
+        if (limit != Integer.MAX_VALUE) {
+            System.out.println("Страница " + pageNumber + " из " + pages);
+        }
         System.out.println("\nСписок:");
-        for (Animal animal : animals) {
-            System.out.println("  - " + animal.getName() + " (" + animal.getSpecies() + ")");
-            System.out.print("    Звук: ");
-            animal.makeSound();
-            System.out.print("    Действие: ");
-            animal.performDailyActivity();
+        for (Animal animal : page.getItems()) {
+            System.out.println("  - " + animal.getName() + " (" + animal.getSpecies() + "), #" + animal.getId());
+            System.out.println("    Звук: " + Events.capture(animal::makeSound));
+            System.out.println("    Действие: " + Events.capture(animal::performDailyActivity));
+        }
+        if (page.hasNext()) {
+            System.out.println("\nСледующая страница: show " + species + " --limit " + limit + " --page " + (pageNumber + 1));
         }
         System.out.println();
+        return true;
     }
 
     /**
      * Обработка команды employees/emps - информация о сотрудниках.
      */
     private static void handleEmployeesCommand() {
+        long version = zooManager.getModificationCount();
         List<Employee> employees = zooManager.getEmployees();
-        System.out.println("\n" + reportService.buildEmployeesInfo(employees));
+        printCachedReport("employees", version, out -> {
+            out.append('\n');
+            reportService.writeEmployeesInfo(employees, out);
+            out.append('\n');
+        });
+    }
+
+    /**
+     * Обработка команды find - поиск животных и сотрудников по началу имени без учёта регистра.
+     */
+    private static boolean handleFindCommand(String[] parts) {
+        if (parts.length < 2) {
+            System.out.println("Использование: find <имя или начало имени>");
+            System.out.println("Пример: find Сер");
+            return false;
+        }
+
+        String query = String.join(" ", Arrays.copyOfRange(parts, 1, parts.length));
+        long start = System.nanoTime();
+        List<Animal> animals = zooManager.findAnimalsByPrefix(query, MAX_FOUND);
+        List<Employee> employees = zooManager.findEmployeesByPrefix(query, MAX_FOUND);
+        long elapsed = System.nanoTime() - start;
+
+        if (animals.isEmpty() && employees.isEmpty()) {
+            System.out.println("По запросу '" + query + "' ничего не найдено.");
+            return true;
+        }
+        System.out.println("\n=== Результаты поиска: " + query + " ===");
+        if (!animals.isEmpty()) {
+            System.out.println("Животные:");
+            for (Animal animal : animals) {
+                System.out.println("  - " + animal.getName() + " (" + animal.getSpecies() + "), #" + animal.getId());
+            }
+        }
+        if (!employees.isEmpty()) {
+            System.out.println("Сотрудники:");
+            for (Employee employee : employees) {
+                System.out.println("  - " + employee.getName() + " (" + employee.getRole() + "), #" + employee.getId());
+            }
+        }
+        if (animals.size() == MAX_FOUND || employees.size() == MAX_FOUND) {
+            System.out.println("Показаны первые " + MAX_FOUND + " совпадений; уточните запрос.");
+        }
+        System.out.printf("Поиск: %.1f мкс%n%n", elapsed / 1e3);
+        return true;
+    }
+
+    /**
+     * Обработка команды remove - удаление животного или сотрудника по идентификатору.
+     */
+    private static boolean handleRemoveCommand(String[] parts) {
+        if (parts.length != 2) {
+            System.out.println("Использование: remove <идентификатор>");
+            return false;
+        }
+        Long id = parseId(parts[1]);
+        if (id == null) {
+            return false;
+        }
+        Animal animal = zooManager.removeAnimal(id);
+        if (animal != null) {
+            System.out.println("✓ Удалено животное: " + animal.getName() + " (" + animal.getSpecies() + "), #" + id);
+            return true;
+        }
+        Employee employee = zooManager.removeEmployee(id);
+        if (employee != null) {
+            System.out.println("✓ Удалён сотрудник: " + employee.getName() + " (" + employee.getRole() + "), #" + id);
+            return true;
+        }
+        System.out.println("Животного или сотрудника #" + id + " нет.");
+        return false;
+    }
+
+    /**
+     * Обработка команды transfer - перевод животного или сотрудника в другой зоопарк:
+     * строка для import дописывается в файл, затем сущность удаляется.
+     */
+    private static boolean handleTransferCommand(String[] parts) {
+        if (parts.length < 3) {
+            System.out.println("Использование: transfer <идентификатор> <файл>");
+            System.out.println("Файл затем можно загрузить в другом зоопарке командой import.");
+            return false;
+        }
+        Long id = parseId(parts[1]);
+        if (id == null) {
+            return false;
+        }
+        Animal animal = zooManager.getAnimal(id);
+        Employee employee = animal == null ? zooManager.getEmployee(id) : null;
+        if (animal == null && employee == null) {
+            System.out.println("Животного или сотрудника #" + id + " нет.");
+            return false;
+        }
+        String line = animal != null ? BulkImporter.toCsvLine(animal) : BulkImporter.toCsvLine(employee);
+        try {
+            Files.writeString(Path.of(parts[2]), line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.out.println("Не удалось записать файл: " + e.getMessage());
+            return false;
+        }
+        boolean removed = animal != null ? zooManager.removeAnimal(id) != null : zooManager.removeEmployee(id) != null;
+        if (!removed) {
+            System.out.println("#" + id + " удалён из зоопарка во время перевода; строка в " + parts[2] + " лишняя.");
+            return false;
+        }
+        String name = animal != null ? animal.getName() : employee.getName();
+        System.out.println("✓ Переведено в другой зоопарк: " + name + ", #" + id + "; запись добавлена в " + parts[2]);
+        return true;
+    }
+
+    /**
+     * Разбирает идентификатор сущности; при ошибке печатает сообщение и возвращает null.
+     */
+    private static Long parseId(String value) {
+        String digits = value.startsWith("#") ? value.substring(1) : value;
+        long id;
+        try {
+            id = Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            id = 0;
+        }
+        if (id <= 0) {
+            System.out.println("Идентификатор должен быть положительным числом: " + value);
+            return null;
+        }
+        return id;
+    }
+
+    private static void handleMetricsCommand() {
+        printReport(out -> {
+            out.append("\n=== Метрики ===\n");
+            ZooMetrics.writeTo(out);
+            out.append(String.format("Кэш отчётов: %d шт., %.1f из %.1f МБ, версия данных %d%n",
+                    reportCache.getEntryCount(), reportCache.getSizeBytes() / 1048576.0,
+                    reportCache.getMaxBytes() / 1048576.0, zooManager.getModificationCount()));
+            if (replicationLeader != null) {
+                out.append("Репликация: ведущий, позиция ").append(Long.toString(replicationLeader.getPosition()))
+                        .append(", ведомых ").append(Integer.toString(replicationLeader.getFollowerCount())).append('\n');
+            }
+            if (replicationFollower != null) {
+                out.append("Репликация: ведомый ").append(replicationFollower.isConnected() ? "на связи" : "без связи")
+                        .append(", позиция ").append(Long.toString(replicationFollower.getPosition())).append('\n');
+            }
+            out.append('\n');
+        });
+    }
+
+    /**
+     * Печатает отчёт в консоль потоково, без сборки всего текста в одну строку.
+     */
+    private static void printReport(ZooReportService.ReportWriter report) {
+        try {
+            reportService.writeTo(System.out, report);
+        } catch (IOException e) {
+            System.out.println("Ошибка вывода отчёта: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Печатает отчёт key, построенный по состоянию зоопарка версии version,
+     * из кэша отчётов; при промахе строит его через report и запоминает.
+     */
+    private static void printCachedReport(String key, long version, ZooReportService.ReportWriter report) {
+        printReport(out -> reportCache.write(key, version, report, out));
+    }
+
+    /**
+     * Обработка команды import - массовая загрузка из CSV/JSONL файла.
+     * Путь - весь остаток строки после команды, поэтому может содержать любые пробелы.
+     */
+    private static boolean handleImportCommand(String input) {
+        String[] parts = tokenize(input, 2);
+        if (parts.length < 2) {
+            System.out.println("Использование: import <файл>");
+            return false;
+        }
+
+        String fileName = parts[1];
+        ImportResult result;
+        try {
+            result = new BulkImporter(zooManager).importFile(Path.of(fileName));
+        } catch (IOException e) {
+            System.out.println("Не удалось прочитать файл: " + e.getMessage());
+            return false;
+        }
+
+        List<String> errors = result.getErrors();
+        int printed = Math.min(errors.size(), MAX_PRINTED_IMPORT_ERRORS);
+        for (int i = 0; i < printed; i++) {
+            System.out.println("  ✗ " + errors.get(i));
+        }
+        if (result.getErrorCount() > printed) {
+            System.out.println("  ... и ещё ошибок: " + (result.getErrorCount() - printed));
+        }
+        System.out.println("✓ Импортировано животных: " + result.getAnimalsImported()
+                + ", сотрудников: " + result.getEmployeesImported()
+                + ", ошибок: " + result.getErrorCount());
+        System.out.printf("  Скорость: %.0f записей/сек%n", result.getRecordsPerSecond());
+        return result.getErrorCount() == 0;
     }
 
     /**
@@ -212,12 +945,34 @@ public class Main {
         System.out.println("                            (общее количество и по видам)");
         System.out.println();
         System.out.println("sched                      - Показать расписание ухода за животными");
+        System.out.println("                            (кто из сотрудников, за кем и когда ухаживает)");
+        System.out.println();
+        System.out.println("run                        - Выполнить все задачи ухода по расписанию на сегодня");
         System.out.println();
         System.out.println("show <вид>                 - Показать информацию о животных конкретного вида");
-        System.out.println("                            Пример: show Wolf");
+        System.out.println("    [--limit <n>] [--page <номер>]  Постранично (по умолчанию " + DEFAULT_SHOW_PAGE_SIZE + " на странице)");
+        System.out.println("                            Пример: show Wolf --limit 20 --page 2");
+        System.out.println();
+        System.out.println("find <имя>                 - Найти животных и сотрудников по имени или его началу");
+        System.out.println("                            (без учёта регистра)");
+        System.out.println();
+        System.out.println("remove <id>                - Удалить животное или сотрудника по идентификатору");
+        System.out.println("                            (идентификатор печатается при добавлении, в show и find)");
+        System.out.println();
+        System.out.println("transfer <id> <файл>       - Перевести животное или сотрудника в другой зоопарк:");
+        System.out.println("                            дописать строку для import в файл и удалить из этого");
         System.out.println();
         System.out.println("employees / emps           - Показать информацию о сотрудниках зоопарка");
         System.out.println();
+        System.out.println("import <файл>              - Загрузить животных и сотрудников из CSV/JSONL файла");
+        System.out.println("                            Строки: animal,wolf,Серый или");
+        System.out.println("                            {\"kind\":\"employee\",\"type\":\"keeper\",\"name\":\"Иван\"}");
+        System.out.println();
+        System.out.println("save                       - Сохранить снимок состояния (при запуске с --data <каталог>)");
+        System.out.println();
+        System.out.println("metrics                    - Показать метрики: задержки команд и отчётов, счётчики");
+        System.out.println("                            (те же данные пишутся в JFR, категория Zoo)");
+        System.out.println();
         System.out.println("info                       - Показать этот список команд");
         System.out.println();
         System.out.println("exit / quit                - Выход из программы");
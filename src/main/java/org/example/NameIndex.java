@@ -0,0 +1,477 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * Индекс имён: идентификаторы сущностей, упорядоченные по имени без учёта регистра
+ * (при равных именах - по идентификатору, то есть в порядке добавления).
+ *
+ * На сущность хранится идентификатор (int) и ключ сортировки (long) - первые три символа имени,
+ * приведённые к одному регистру. Большинство сравнений решается по ключам в плотном массиве,
+ * и только при совпадении ключей имя читается из хранилища по идентификатору.
+ *
+ * Индекс состоит из основного отсортированного массива и небольшого отсортированного буфера,
+ * который сливается с основным, когда вырастает до ~1/1024 его размера.
+ * Поиск точного имени или префикса - бинарный поиск в обоих массивах, O(log n).
+ *
+ * Индекс ленивый: добавления в хранилище его не трогают, а запрос сначала доиндексирует
+ * идентификаторы, выданные с прошлого запроса (сортировка пачки и слияние). Поэтому запись
+ * не платит за индекс, а первый запрос после большой загрузки стоит O(k log k).
+ *
+ * Удаление или переименование уже проиндексированной сущности оставляет её запись на месте,
+ * но запоминает имя, под которым она отсортирована ("выбывшие"); поиск такие записи пропускает,
+ * а новое имя переименованной сущности проверяется перебором среди "свободных" идентификаторов.
+ * Когда выбывших и свободных набирается ~1/256 индекса, догоняющий запрос перестраивает массивы
+ * без них. Состояние публикуется через volatile поле; догоняющий запрос один.
+ */
+final class NameIndex {
+
+    private static final int MIN_PENDING = 1024;
+    private static final int MIN_RETIRED = 1024;
+    private static final int KEY_CODE_POINTS = 3;
+    private static final int KEY_BITS = 21;
+
+    private final IntFunction<String> names;
+    private final IntSupplier lastId;
+    private final Lock catchUpLock = new ReentrantLock();
+    private volatile State state = new State(Run.EMPTY, Run.EMPTY, 0);
+
+    /**
+     * @param names  текущее имя сущности по идентификатору или null, если её нет
+     * @param lastId наибольший выданный идентификатор, видимый через names
+     */
+    NameIndex(IntFunction<String> names, IntSupplier lastId) {
+        this.names = names;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Идентификаторы сущностей, чьё имя совпадает с query (или начинается с query при prefix)
+     * без учёта регистра; в порядке имени, затем идентификатора.
+     * Сначала индексирует сущности, добавленные после предыдущего запроса.
+     *
+     * @param limit максимальное число идентификаторов
+     */
+    int[] find(String query, boolean prefix, int limit) {
+        State current = catchUp();
+        Run fromSorted = collect(current, current.sorted, query, prefix, limit);
+        Run fromPending = collect(current, current.pending, query, prefix, limit);
+        Run fromLoose = current.loose.isEmpty() ? Run.EMPTY : collectLoose(current, query, prefix);
+        if (fromPending.size() == 0 && fromLoose.size() == 0) {
+            return fromSorted.ids;
+        }
+        // Найденное упорядочивается по текущим именам: у свободных идентификаторов в State.retired старое имя
+        int[] all = new int[fromSorted.size() + fromPending.size() + fromLoose.size()];
+        System.arraycopy(fromSorted.ids, 0, all, 0, fromSorted.size());
+        System.arraycopy(fromPending.ids, 0, all, fromSorted.size(), fromPending.size());
+        System.arraycopy(fromLoose.ids, 0, all, fromSorted.size() + fromPending.size(), fromLoose.size());
+        int[] found = sortBatch(all, all.length).ids;
+        return found.length > limit ? Arrays.copyOf(found, limit) : found;
+    }
+
+    /**
+     * Удаляет или переименовывает сущность id так, чтобы индекс остался согласованным:
+     * mutation (изменение хранилища владельца) выполняется, пока догоняющий запрос ждёт.
+     *
+     * @param previousName имя сущности до изменения
+     * @param keep         false при удалении, true при переименовании
+     */
+    void update(int id, String previousName, boolean keep, Runnable mutation) {
+        catchUpLock.lock();
+        try {
+            State current = state;
+            if (id <= current.indexed) {
+                if (!current.loose.contains(id)) {
+                    current.retired.putIfAbsent(id, previousName);
+                }
+                if (keep) {
+                    current.loose.add(id);
+                } else {
+                    current.loose.remove(id);
+                }
+            }
+            mutation.run();
+        } finally {
+            catchUpLock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет сущности с заранее выданными идентификаторами (восстановление, повторное добавление):
+     * такие идентификаторы могут оказаться уже пройденными догоняющим запросом.
+     */
+    void addAssigned(int[] ids, Runnable mutation) {
+        catchUpLock.lock();
+        try {
+            State current = state;
+            for (int id : ids) {
+                if (id <= current.indexed) {
+                    current.loose.add(id);
+                }
+            }
+            mutation.run();
+        } finally {
+            catchUpLock.unlock();
+        }
+    }
+
+    /**
+     * Доиндексирует идентификаторы (indexed, lastId]: имена читаются один раз, пачка сортируется
+     * и сливается с буфером; при большом числе выбывших массивы перестраиваются.
+     * Параллельные запросы ждут одного догоняющего.
+     */
+    private State catchUp() {
+        State current = state;
+        if (current.indexed >= lastId.getAsInt() && !current.needsCompaction()) {
+            return current;
+        }
+        catchUpLock.lock();
+        try {
+            current = state;
+            int available = lastId.getAsInt();
+            boolean compact = current.needsCompaction();
+            if (current.indexed >= available && !compact) {
+                return current;
+            }
+            int[] batchIds = new int[available - current.indexed + (compact ? current.loose.size() : 0)];
+            int count = 0;
+            for (int id = current.indexed + 1; id <= available; id++) {
+                batchIds[count++] = id;
+            }
+            if (compact) {
+                for (int id : current.loose) {
+                    batchIds[count++] = id;
+                }
+            }
+            Run batch = sortBatch(batchIds, count);
+
+            Run sorted = current.sorted;
+            Run pending = current.pending;
+            if (compact) {
+                sorted = merge(current, without(sorted, current.retired), without(pending, current.retired));
+                pending = Run.EMPTY;
+                current = new State(sorted, pending, current.indexed);
+            }
+            pending = merge(current, pending, batch);
+            if (pending.size() > Math.max(MIN_PENDING, sorted.size() >>> 10)) {
+                sorted = merge(current, sorted, pending);
+                pending = Run.EMPTY;
+            }
+            state = compact
+                    ? new State(sorted, pending, available)
+                    : new State(sorted, pending, available, current.retired, current.loose);
+            return state;
+        } finally {
+            catchUpLock.unlock();
+        }
+    }
+
+    /**
+     * Читает текущие имена пачки и сортирует её; отсутствующие сущности пропускаются.
+     */
+    private Run sortBatch(int[] batchIds, int count) {
+        String[] batch = new String[count];
+        long[] batchKeys = new long[count];
+        int[] present = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            String name = names.apply(batchIds[i]);
+            if (name != null) {
+                batch[size] = name;
+                batchKeys[size] = keyOf(name);
+                present[size] = batchIds[i];
+                size++;
+            }
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        sortBatch(order, batchKeys, batch, present);
+
+        int[] ids = new int[size];
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = present[order[i]];
+            keys[i] = batchKeys[order[i]];
+        }
+        return new Run(ids, keys);
+    }
+
+    private static Run without(Run run, Map<Integer, String> retired) {
+        if (retired.isEmpty()) {
+            return run;
+        }
+        int[] ids = new int[run.size()];
+        long[] keys = new long[run.size()];
+        int size = 0;
+        for (int i = 0; i < run.size(); i++) {
+            if (!retired.containsKey(run.ids[i])) {
+                ids[size] = run.ids[i];
+                keys[size] = run.keys[i];
+                size++;
+            }
+        }
+        return size == run.size() ? run : new Run(Arrays.copyOf(ids, size), Arrays.copyOf(keys, size));
+    }
+
+    private Run collect(State state, Run run, String query, boolean prefix, int limit) {
+        int from = lowerBound(state, run, keyOf(query), query);
+        int[] ids = new int[Math.min(16, run.size() - from)];
+        long[] keys = new long[ids.length];
+        int size = 0;
+        for (int i = from; i < run.size() && size < limit; i++) {
+            int id = run.ids[i];
+            if (!matches(sortName(state, id), query, prefix)) {
+                break;
+            }
+            if (state.retired.containsKey(id)) {
+                continue;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            ids[size] = id;
+            keys[size] = run.keys[i];
+            size++;
+        }
+        return size == 0 ? Run.EMPTY : new Run(Arrays.copyOf(ids, size), Arrays.copyOf(keys, size));
+    }
+
+    /**
+     * Перебирает свободные идентификаторы (переименованные после индексации) по текущему имени.
+     */
+    private Run collectLoose(State state, String query, boolean prefix) {
+        int[] candidates = new int[state.loose.size() + 16];
+        int count = 0;
+        for (int id : state.loose) {
+            if (count == candidates.length) {
+                candidates = Arrays.copyOf(candidates, count * 2);
+            }
+            String name = names.apply(id);
+            if (name != null && matches(name, query, prefix)) {
+                candidates[count++] = id;
+            }
+        }
+        return count == 0 ? Run.EMPTY : new Run(Arrays.copyOf(candidates, count), new long[count]);
+    }
+
+    private static boolean matches(String name, String query, boolean prefix) {
+        return prefix
+                ? name.regionMatches(true, 0, query, 0, query.length())
+                : name.equalsIgnoreCase(query);
+    }
+
+    /**
+     * Имя, под которым запись id отсортирована: для выбывших - запомненное, иначе текущее.
+     * Текущее имя читается первым: писатель запоминает имя до изменения хранилища,
+     * поэтому увидевший новое имя увидит и запомненное.
+     */
+    private String sortName(State state, int id) {
+        String current = names.apply(id);
+        String retired = state.retired.get(id);
+        return retired != null ? retired : current;
+    }
+
+    /**
+     * Первый индекс в run, чьё имя не меньше query.
+     */
+    private int lowerBound(State state, Run run, long key, String query) {
+        int low = 0;
+        int high = run.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int byKey = Long.compare(run.keys[mid], key);
+            int cmp = byKey != 0 ? byKey : String.CASE_INSENSITIVE_ORDER.compare(sortName(state, run.ids[mid]), query);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Первый индекс в run начиная с from, который больше тройки (key, name, id).
+     * Ищет экспоненциальными шагами от from: при слиянии следующая точка вставки обычно рядом.
+     */
+    private int upperBound(State state, Run run, int from, long key, String name, int id) {
+        int size = run.size();
+        int low = from;
+        int step = 1;
+        int high = from;
+        while (high < size && compare(state, run, high, key, name, id) <= 0) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, size);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(state, run, mid, key, name, id) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Сливает два отсортированных набора; второй обычно много меньше первого,
+     * поэтому первый копируется блоками между точками вставки.
+     */
+    private Run merge(State state, Run sorted, Run extra) {
+        if (extra.size() == 0) {
+            return sorted;
+        }
+        if (sorted.size() == 0) {
+            return extra;
+        }
+        int total = sorted.size() + extra.size();
+        int[] ids = new int[total];
+        long[] keys = new long[total];
+        int copied = 0;
+        int written = 0;
+        for (int i = 0; i < extra.size(); i++) {
+            long key = extra.keys[i];
+            int id = extra.ids[i];
+            int until = upperBound(state, sorted, copied, key, sortName(state, id), id);
+            System.arraycopy(sorted.ids, copied, ids, written, until - copied);
+            System.arraycopy(sorted.keys, copied, keys, written, until - copied);
+            written += until - copied;
+            copied = until;
+            ids[written] = id;
+            keys[written] = key;
+            written++;
+        }
+        System.arraycopy(sorted.ids, copied, ids, written, sorted.size() - copied);
+        System.arraycopy(sorted.keys, copied, keys, written, sorted.size() - copied);
+        return new Run(ids, keys);
+    }
+
+    /**
+     * Сравнивает элемент run[index] с тройкой (key, name, id); имя элемента
+     * читается только при равных ключах.
+     */
+    private int compare(State state, Run run, int index, long key, String name, int id) {
+        int byKey = Long.compare(run.keys[index], key);
+        if (byKey != 0) {
+            return byKey;
+        }
+        int byName = String.CASE_INSENSITIVE_ORDER.compare(sortName(state, run.ids[index]), name);
+        return byName != 0 ? byName : Integer.compare(run.ids[index], id);
+    }
+
+    /**
+     * Ключ сортировки: первые три кодовые точки имени в одном регистре, по 21 биту,
+     * старшая первой; отсутствующий символ даёт 0, поэтому префикс меньше продолжения.
+     */
+    static long keyOf(String name) {
+        long key = 0;
+        int offset = 0;
+        for (int i = 0; i < KEY_CODE_POINTS; i++) {
+            key <<= KEY_BITS;
+            if (offset < name.length()) {
+                int codePoint = name.codePointAt(offset);
+                offset += Character.charCount(codePoint);
+                key |= Character.toLowerCase(Character.toUpperCase(codePoint)) + 1;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Сортирует индексы пачки по (ключ, имя, идентификатор) слиянием, без упаковки в Integer.
+     */
+    private static void sortBatch(int[] order, long[] keys, String[] batch, int[] ids) {
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int low = 0; low < order.length - width; low += width << 1) {
+                int mid = low + width;
+                int high = Math.min(low + (width << 1), order.length);
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    buffer[k++] = compareBatch(order[i], order[j], keys, batch, ids) <= 0 ? order[i++] : order[j++];
+                }
+                while (i < mid) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = order[j++];
+                }
+                System.arraycopy(buffer, low, order, low, high - low);
+            }
+        }
+    }
+
+    private static int compareBatch(int left, int right, long[] keys, String[] batch, int[] ids) {
+        int byKey = Long.compare(keys[left], keys[right]);
+        if (byKey != 0) {
+            return byKey;
+        }
+        int byName = String.CASE_INSENSITIVE_ORDER.compare(batch[left], batch[right]);
+        return byName != 0 ? byName : Integer.compare(ids[left], ids[right]);
+    }
+
+    /**
+     * Состояние индекса на момент публикации. Массивы неизменяемы; выбывшие и свободные
+     * пополняются писателями под catchUpLock и заменяются пустыми при перестройке.
+     */
+    private static final class State {
+        private final Run sorted;
+        private final Run pending;
+        /** Идентификаторы [1, indexed] уже в индексе. */
+        private final int indexed;
+        /** Выбывшие записи: идентификатор -> имя, под которым запись отсортирована. */
+        private final Map<Integer, String> retired;
+        /** Идентификаторы не из [1, indexed] по текущему имени: переименованные и добавленные повторно. */
+        private final Set<Integer> loose;
+
+        State(Run sorted, Run pending, int indexed) {
+            this(sorted, pending, indexed, new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+        }
+
+        State(Run sorted, Run pending, int indexed, Map<Integer, String> retired, Set<Integer> loose) {
+            this.sorted = sorted;
+            this.pending = pending;
+            this.indexed = indexed;
+            this.retired = retired;
+            this.loose = loose;
+        }
+
+        boolean needsCompaction() {
+            return retired.size() + loose.size() > Math.max(MIN_RETIRED, (sorted.size() + pending.size()) >>> 8);
+        }
+    }
+
+    /**
+     * Отсортированный неизменяемый набор идентификаторов с их ключами.
+     */
+    private static final class Run {
+        private static final Run EMPTY = new Run(new int[0], new long[0]);
+
+        private final int[] ids;
+        private final long[] keys;
+
+        Run(int[] ids, long[] keys) {
+            this.ids = ids;
+            this.keys = keys;
+        }
+
+        int size() {
+            return ids.length;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Страница результатов запроса к ZooManager.
+ * Элементы - представление снимка без копирования; курсор следующей страницы
+ * непрозрачен и продолжает выдачу с того же места, даже если в зоопарк
+ * тем временем добавили новых животных. Курсор хранит раздел и позицию внутри
+ * раздела: добавления дописываются в конец своего раздела и не сдвигают позиции
+ * других, поэтому добавленное в уже пройденный раздел просто не попадает в выдачу.
+ * Удаление переставляет на место удалённого последний элемент раздела, поэтому после
+ * удалений между страницами элемент может быть пропущен или показан повторно.
+ */
+public final class Page<T> {
+
+    private static final String CURSOR_PREFIX = "c";
+    private static final char CURSOR_SEPARATOR = '.';
+
+    private final List<T> items;
+    private final int offset;
+    private final int total;
+    private final String nextCursor;
+
+    private Page(List<T> items, int offset, int total, String nextCursor) {
+        this.items = items;
+        this.offset = offset;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Вырезает страницу из неизменяемого снимка с одним разделом.
+     */
+    static <T> Page<T> of(List<T> snapshot, int offset, int limit) {
+        return ofPartitions(List.of(snapshot), offset, limit);
+    }
+
+    /**
+     * Вырезает страницу из снимков разделов, начиная с позиции offset их склейки.
+     */
+    static <T> Page<T> ofPartitions(List<? extends List<T>> partitions, int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Смещение не может быть отрицательным: " + offset);
+        }
+        int partition = 0;
+        int position = offset;
+        while (partition < partitions.size() - 1 && position > partitions.get(partition).size()) {
+            position -= partitions.get(partition).size();
+            partition++;
+        }
+        return ofPartitions(partitions, new Cursor(partition, position), limit);
+    }
+
+    /**
+     * Вырезает страницу из снимков разделов, начиная с позиции курсора.
+     */
+    static <T> Page<T> ofPartitions(List<? extends List<T>> partitions, Cursor cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным: " + limit);
+        }
+        if (cursor.partition() >= partitions.size()) {
+            throw new IllegalArgumentException("Курсор указывает на несуществующий раздел: " + cursor.partition());
+        }
+        int total = 0;
+        int offset = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            int size = partitions.get(i).size();
+            if (i < cursor.partition()) {
+                offset += size;
+            } else if (i == cursor.partition()) {
+                offset += Math.min(cursor.position(), size);
+            }
+            total = Math.addExact(total, size);
+        }
+
+        List<List<T>> parts = new ArrayList<>(1);
+        int partition = cursor.partition();
+        int position = Math.min(cursor.position(), partitions.get(partition).size());
+        int left = limit;
+        while (true) {
+            List<T> snapshot = partitions.get(partition);
+            int to = (int) Math.min((long) position + left, snapshot.size());
+            if (to > position) {
+                parts.add(snapshot.subList(position, to));
+                left -= to - position;
+            }
+            position = to;
+            if (left == 0 || partition == partitions.size() - 1) {
+                break;
+            }
+            partition++;
+            position = 0;
+        }
+        List<T> items = parts.size() == 1 ? parts.get(0) : new ConcatList<>(parts);
+        boolean hasNext = offset + items.size() < total;
+        // Курсор остаётся в разделе последнего элемента: дописанное туда позже не пропадёт
+        String nextCursor = hasNext ? encodeCursor(partition, position) : null;
+        return new Page<>(items, offset, total, nextCursor);
+    }
+
+    private static String encodeCursor(int partition, int position) {
+        return CURSOR_PREFIX + Integer.toString(partition, Character.MAX_RADIX)
+                + CURSOR_SEPARATOR + Integer.toString(position, Character.MAX_RADIX);
+    }
+
+    /**
+     * Разбирает курсор, выданный getNextCursor(); null означает начало выдачи.
+     *
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    static Cursor decodeCursor(String cursor) {
+        if (cursor == null) {
+            return new Cursor(0, 0);
+        }
+        int separator = cursor.indexOf(CURSOR_SEPARATOR);
+        if (!cursor.startsWith(CURSOR_PREFIX) || separator < 0) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+        try {
+            int partition = Integer.parseInt(cursor.substring(CURSOR_PREFIX.length(), separator), Character.MAX_RADIX);
+            int position = Integer.parseInt(cursor.substring(separator + 1), Character.MAX_RADIX);
+            if (partition < 0 || position < 0) {
+                throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+            }
+            return new Cursor(partition, position);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor, e);
+        }
+    }
+
+    /**
+     * Элементы страницы в порядке добавления.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Позиция первого элемента страницы в полной выдаче.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Размер полной выдачи на момент запроса.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Курсор следующей страницы или null, если это последняя страница.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Место в выдаче: раздел и позиция в его снимке.
+     */
+    record Cursor(int partition, int position) {
+    }
+}
@@ -1,12 +1,24 @@
 package org.example;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.example.animals.Animal;
+import org.example.animals.SpeciesRegistry;
 import org.example.employees.Employee;
+import org.example.metrics.ZooMetrics;
 
 /**
  * Утилитный класс для работы с рефлексией.
@@ -17,17 +29,36 @@ public class ReflectionUtils {
     private static final String ANIMALS_PACKAGE = "org.example.animals";
     private static final String EMPLOYEES_PACKAGE = "org.example.employees";
 
+    /**
+     * Реестр фабрик: имя типа в нижнем регистре -> скомпилированный конструктор.
+     * Хранятся только найденные типы, поэтому размер ограничен числом классов.
+     */
+    private static final Map<String, Function<String, Animal>> ANIMAL_FACTORIES = new ConcurrentHashMap<>();
+    private static final Map<String, Function<String, Employee>> EMPLOYEE_FACTORIES = new ConcurrentHashMap<>();
+
+    /**
+     * Недавно не найденные типы (ключ кэша с префиксом вида сущности), чтобы строки импорта
+     * с неизвестным типом не разрешались рефлексией каждый раз. Имена приходят извне (файлы импорта,
+     * POST /add), поэтому набор ограничен: при переполнении он очищается.
+     */
+    private static final Set<String> MISSES = ConcurrentHashMap.newKeySet();
+    private static final int MAX_MISSES = 1024;
+    private static final int MAX_MISS_NAME_LENGTH = 64;
+
     /**
      * Находит все классы животных в пакете org.example.animals.
      * Возвращает список простых имен классов (без пакета).
      */
     public static List<String> getAvailableAnimalTypes() {
-        return getClassesInPackage(ANIMALS_PACKAGE, Animal.class)
+        List<String> types = getClassesInPackage(ANIMALS_PACKAGE, Animal.class)
                 .stream()
                 .map(Class::getSimpleName)
                 .map(String::toLowerCase)
                 .sorted()
                 .collect(Collectors.toList());
+        // Разрешение фабрики регистрирует вид в SpeciesRegistry
+        types.forEach(ReflectionUtils::getAnimalFactory);
+        return types;
     }
 
     /**
@@ -48,20 +79,28 @@ public class ReflectionUtils {
      * 
      * @param typeName имя класса (например, "wolf", "parrot")
      * @param animalName имя животного
-     * @return созданное животное или null, если класс не найден
+     * @return созданное животное или null, если класс не найден или конструктор выбросил исключение
      */
     public static Animal createAnimalByType(String typeName, String animalName) {
-        try {
-            Class<?> animalClass = findClassInPackage(ANIMALS_PACKAGE, typeName, Animal.class);
-            if (animalClass == null) {
-                return null;
-            }
+        return create(getAnimalFactory(typeName), animalName);
+    }
 
-            Constructor<?> constructor = animalClass.getConstructor(String.class);
-            return (Animal) constructor.newInstance(animalName);
-        } catch (Exception e) {
-            return null;
+    /**
+     * Возвращает закэшированную фабрику животных для типа.
+     *
+     * @param typeName имя класса (например, "wolf", "parrot")
+     * @return фабрика, принимающая имя животного, или null, если класс не найден
+     */
+    public static Function<String, Animal> getAnimalFactory(String typeName) {
+        ZooMetrics.factoryLookup();
+        String key = cacheKey(typeName);
+        Function<String, Animal> factory = ANIMAL_FACTORIES.get(key);
+        if (factory != null || MISSES.contains("a:" + key)) {
+            return factory;
         }
+        factory = resolved(typeName, compileFactory(registerSpecies(
+                findClassInPackage(ANIMALS_PACKAGE, key, Animal.class))));
+        return remember(ANIMAL_FACTORIES, key, "a:" + key, factory);
     }
 
     /**
@@ -69,21 +108,127 @@ public class ReflectionUtils {
      * 
      * @param typeName имя класса (например, "keeper", "vet")
      * @param employeeName имя сотрудника
-     * @return созданный сотрудник или null, если класс не найден
+     * @return созданный сотрудник или null, если класс не найден или конструктор выбросил исключение
      */
     public static Employee createEmployeeByType(String typeName, String employeeName) {
+        return create(getEmployeeFactory(typeName), employeeName);
+    }
+
+    /**
+     * Создаёт сущность фабрикой; как и прежний вызов конструктора через рефлексию,
+     * исключение конструктора превращается в null.
+     */
+    private static <T> T create(Function<String, T> factory, String name) {
+        if (factory == null) {
+            return null;
+        }
         try {
-            String className = normalizeEmployeeTypeName(typeName);
-            
-            Class<?> employeeClass = findClassInPackage(EMPLOYEES_PACKAGE, className, Employee.class);
-            if (employeeClass == null) {
-                return null;
+            return factory.apply(name);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Возвращает закэшированную фабрику сотрудников для типа (с учётом алиасов).
+     *
+     * @param typeName имя класса или алиас (например, "keeper", "vet")
+     * @return фабрика, принимающая имя сотрудника, или null, если класс не найден
+     */
+    public static Function<String, Employee> getEmployeeFactory(String typeName) {
+        ZooMetrics.factoryLookup();
+        // Алиасы ("keeper", "zookeeper") приводятся к имени класса и делят одну запись
+        String className = normalizeEmployeeTypeName(cacheKey(typeName));
+        String key = cacheKey(className);
+        Function<String, Employee> factory = EMPLOYEE_FACTORIES.get(key);
+        if (factory != null || MISSES.contains("e:" + key)) {
+            return factory;
+        }
+        factory = resolved(typeName, compileFactory(
+                findClassInPackage(EMPLOYEES_PACKAGE, className, Employee.class)));
+        return remember(EMPLOYEE_FACTORIES, key, "e:" + key, factory);
+    }
+
+    /**
+     * Учитывает рефлексивное разрешение типа (промах кэша фабрик) в ZooMetrics.
+     */
+    private static <T> Function<String, T> resolved(String typeName, Function<String, T> factory) {
+        ZooMetrics.reflectiveResolution(typeName, factory != null);
+        return factory;
+    }
+
+    /**
+     * Ключ кэша: имя типа без учёта регистра, так что "Wolf", "wolf" и "WOLF" делят одну запись.
+     * Класс ищется по этому же ключу, поэтому результат не зависит от того, в каком
+     * написании тип запросили первым.
+     */
+    private static String cacheKey(String typeName) {
+        return typeName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Запоминает найденную фабрику под ключом key или, если тип не найден, miss
+     * в ограниченном наборе промахов.
+     *
+     * @return фабрика, уже сохранённая другим потоком, если такая есть
+     */
+    private static <T> Function<String, T> remember(Map<String, Function<String, T>> factories, String key,
+            String miss, Function<String, T> factory) {
+        if (factory != null) {
+            Function<String, T> existing = factories.putIfAbsent(key, factory);
+            return existing != null ? existing : factory;
+        }
+        if (miss.length() <= MAX_MISS_NAME_LENGTH) {
+            if (MISSES.size() >= MAX_MISSES) {
+                MISSES.clear();
             }
+            MISSES.add(miss);
+        }
+        return null;
+    }
 
-            Constructor<?> constructor = employeeClass.getConstructor(String.class);
-            return (Employee) constructor.newInstance(employeeName);
-        } catch (Exception e) {
+    /**
+     * Регистрирует вид класса животных в SpeciesRegistry по аннотации SpeciesName,
+     * не создавая экземпляр. Вид класса без аннотации регистрируется с первым животным.
+     */
+    private static Class<?> registerSpecies(Class<?> animalClass) {
+        if (animalClass != null) {
+            SpeciesRegistry.ofClass(animalClass);
+        }
+        return animalClass;
+    }
+
+    /**
+     * Компилирует конструктор (String) класса в Function через LambdaMetafactory,
+     * чтобы последующие создания стоили как обычный вызов new.
+     *
+     * @return фабрика или null, если класс не найден или не имеет подходящего конструктора
+     * @throws Error если при компиляции не хватило памяти, не загрузился класс и т. п.:
+     *               это не означает, что типа нет
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Function<String, T> compileFactory(Class<?> clazz) {
+        if (clazz == null) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class, String.class));
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    constructor,
+                    MethodType.methodType(clazz, String.class));
+            return (Function<String, T>) site.getTarget().invoke();
+        } catch (ReflectiveOperationException | LambdaConversionException e) {
             return null;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // invoke() объявляет Throwable, но цель metafactory не выбрасывает проверяемых исключений
+            throw new IllegalStateException("Не удалось создать фабрику класса " + clazz.getName(), e);
         }
     }
 
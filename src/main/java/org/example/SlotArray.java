@@ -0,0 +1,64 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сущности по номеру строки. Строка выдаётся при добавлении и не меняется, пока сущность
+ * на месте, поэтому её можно запомнить во внешней таблице (IdTable); строки удалённых
+ * переиспользуются, и размер массива следует за числом сущностей, а не за величиной
+ * их идентификаторов. Писатели сериализуются блокировкой владельца, get читает
+ * опубликованный снимок без блокировок.
+ */
+final class SlotArray<T> {
+
+    private final SnapshotArray<T> slots = new SnapshotArray<>();
+    /** Освободившиеся строки (стек); только для писателя. */
+    private int[] free = new int[0];
+    private int freeCount;
+
+    /**
+     * Записывает пачку в свободные строки и публикует один снимок на всю пачку.
+     *
+     * @return строки элементов пачки, в том же порядке
+     */
+    int[] putAll(List<? extends T> batch) {
+        int[] rows = new int[batch.size()];
+        int next = slots.size();
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = freeCount > 0 ? free[--freeCount] : next++;
+        }
+        slots.putAll(batch, rows);
+        return rows;
+    }
+
+    /**
+     * Элемент строки или null, если строка свободна или ещё не выдана; без блокировок.
+     */
+    T get(int row) {
+        List<T> current = slots.snapshot();
+        return row >= 0 && row < current.size() ? current.get(row) : null;
+    }
+
+    void set(int row, T element) {
+        slots.set(row, element);
+    }
+
+    /**
+     * Освобождает строку для следующих добавлений.
+     */
+    void clear(int row) {
+        slots.set(row, null);
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, Math.max(8, free.length * 2));
+        }
+        free[freeCount++] = row;
+    }
+
+    /**
+     * Число выданных строк (занятых и свободных).
+     */
+    int rowCount() {
+        return slots.size();
+    }
+}
@@ -0,0 +1,149 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Массив с публикацией неизменяемых снимков.
+ * Писатели должны быть сериализованы внешней блокировкой; читатели получают
+ * снимок без блокировок и без копирования данных.
+ * Добавление пишет за пределы опубликованного размера, а замена и удаление
+ * копируют затронутый блок (см. ChunkedArray), поэтому уже выданные снимки не меняются.
+ */
+final class SnapshotArray<T> extends ChunkedArray<Object[]> {
+
+    private volatile Snapshot<T> snapshot = new Snapshot<>(chunks, 0);
+
+    /**
+     * Добавляет элемент и публикует новый снимок.
+     * Вызывается только под блокировкой владельца.
+     */
+    void append(T element) {
+        writableChunk(size)[size & CHUNK_MASK] = element;
+        size++;
+        publish();
+    }
+
+    /**
+     * Добавляет пачку элементов и публикует один снимок на всю пачку.
+     * Вызывается только под блокировкой владельца.
+     */
+    void appendAll(List<? extends T> batch) {
+        for (T element : batch) {
+            writableChunk(size)[size & CHUNK_MASK] = element;
+            size++;
+        }
+        publish();
+    }
+
+    /**
+     * Записывает batch.get(i) по индексу indexes[i], дополняя массив null до нужного
+     * размера, и публикует один снимок на всю пачку.
+     */
+    void putAll(List<? extends T> batch, int[] indexes) {
+        for (int i = 0; i < indexes.length; i++) {
+            int position = indexes[i];
+            while (size <= position) {
+                writableChunk(size)[size & CHUNK_MASK] = null;
+                size++;
+            }
+            writableChunk(position)[position & CHUNK_MASK] = batch.get(i);
+        }
+        publish();
+    }
+
+    /**
+     * Элемент по индексу в текущем (ещё не опубликованном) состоянии писателя.
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return (T) ((Object[]) chunks[index >>> CHUNK_SHIFT])[index & CHUNK_MASK];
+    }
+
+    /**
+     * Заменяет элемент и публикует новый снимок.
+     */
+    void set(int index, T element) {
+        writableChunk(index)[index & CHUNK_MASK] = element;
+        publish();
+    }
+
+    /**
+     * Удаляет элемент, переставляя на его место последний, и публикует новый снимок.
+     *
+     * @return элемент, переехавший на место index, или null, если удалён последний
+     */
+    T removeSwap(int index) {
+        int last = size - 1;
+        T moved = null;
+        if (index != last) {
+            moved = get(last);
+            writableChunk(index)[index & CHUNK_MASK] = moved;
+        }
+        writableChunk(last)[last & CHUNK_MASK] = null;
+        size = last;
+        publish();
+        return moved;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает текущий неизменяемый снимок.
+     */
+    List<T> snapshot() {
+        return snapshot;
+    }
+
+    private void publish() {
+        snapshot = new Snapshot<>(chunks, size);
+        sealGeneration();
+    }
+
+    @Override
+    Object[] newChunk(int length) {
+        return new Object[length];
+    }
+
+    @Override
+    Object[] copyChunk(Object[] chunk, int length) {
+        return Arrays.copyOf(chunk, length);
+    }
+
+    @Override
+    int chunkLength(Object[] chunk) {
+        return chunk.length;
+    }
+
+    /**
+     * Неизменяемое представление первых size элементов.
+     */
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+
+        private final Object[] chunks;
+        private final int size;
+
+        Snapshot(Object[] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (T) ((Object[]) chunks[index >>> CHUNK_SHIFT])[index & CHUNK_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
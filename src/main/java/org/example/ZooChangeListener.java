@@ -0,0 +1,54 @@
+package org.example;
+
+import java.util.List;
+
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Подписчик на изменения ZooManager (журналирование, репликация, кэши).
+ * Методы, кроме awaitDurable, вызываются синхронно под блокировкой записи, в порядке применения
+ * изменений, поэтому должны работать быстро и не обращаться к методам записи ZooManager.
+ */
+public interface ZooChangeListener {
+
+    /**
+     * Вызывается под блокировкой записи до применения изменения. Исключение отменяет изменение:
+     * так подписчик, который уже не может его записать (например, журнал после ошибки диска),
+     * не расходится с содержимым ZooManager.
+     */
+    default void checkWritable() {
+    }
+
+    /**
+     * Вызывается после снятия блокировок потоком, сделавшим изменение, до возврата из метода
+     * записи ZooManager: подписчик может дождаться, пока уже полученные изменения станут
+     * долговременными. Другие писатели в это время не ждут.
+     */
+    default void awaitDurable() {
+    }
+
+    default void animalsAdded(List<Animal> added) {
+    }
+
+    default void employeesAdded(List<Employee> added) {
+    }
+
+    default void animalRemoved(Animal removed) {
+    }
+
+    default void employeeRemoved(Employee removed) {
+    }
+
+    /**
+     * Животное заменено на current с тем же идентификатором.
+     */
+    default void animalReplaced(Animal previous, Animal current) {
+    }
+
+    /**
+     * Сотрудник заменён на current с тем же идентификатором.
+     */
+    default void employeeReplaced(Employee previous, Employee current) {
+    }
+}
@@ -1,64 +1,971 @@
 package org.example;
 
 import org.example.animals.Animal;
+import org.example.animals.Species;
+import org.example.animals.SpeciesRegistry;
+import org.example.care.Capability;
 import org.example.employees.Employee;
+import org.example.events.Events;
+import org.example.metrics.ZooMetrics;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Менеджер зоопарка - централизованное хранилище животных и сотрудников.
  * SRP: отвечает только за хранение и базовое управление коллекциями.
+ * Потокобезопасен: изменения животных и сотрудников сериализуются отдельными блокировками,
+ * а чтения возвращают неизменяемые снимки без блокировок и без копирования.
+ *
+ * При добавлении сущность получает идентификатор из общей для животных и сотрудников
+ * последовательности; получение, удаление и замена по идентификатору стоят O(1).
+ * Общая таблица идентификаторов (IdTable) хранит для каждого раздел (или сотрудников)
+ * и строку в его хранилище; всё остальное занимает память по числу сущностей.
+ * Удаление переставляет на место удалённого последний элемент списка, поэтому порядок
+ * снимков совпадает с порядком добавления только до первого удаления.
+ *
+ * Животные могут быть разбиты на разделы (AnimalShard) по хэшу вида: у каждого раздела своё
+ * хранилище и своя блокировка, поэтому добавления животных разных разделов идут параллельно.
+ * Снимок всех животных - склейка снимков разделов по порядку; снимки разделов берутся
+ * по очереди, а не атомарно (атомарный снимок даёт withWritesBlocked).
+ *
+ * replaceAll заменяет всё содержимое сразу (ведомый узел репликации при пересинхронизации):
+ * новые разделы, сотрудники и таблица идентификаторов строятся в стороне и подменяются одной
+ * записью State при заблокированных изменениях. Блокировки разделов переходят к новым
+ * разделам, поэтому писатель читает раздел только после взятия его блокировки, а читатель
+ * читает state один раз.
+ *
+ * Методы записи возвращаются только после awaitDurable всех подписчиков: при журнале
+ * (ZooPersistence) подтверждённое изменение уже записано на диск.
  */
 public class ZooManager {
     
-    private final List<Animal> animals;
-    private final List<Employee> employees;
+    /** Пачка от такого размера раскладывается по разделам параллельно. */
+    private static final int PARALLEL_BATCH = 4096;
+
+    private volatile State state;
+    private final AtomicLong nextId = new AtomicLong(1);
+    /** Растёт после каждого изменения, уже видимого читателям; ключ кэшей производных данных. */
+    private final AtomicLong modifications = new AtomicLong();
+    private final Lock employeesLock = new ReentrantLock();
+    private final List<ZooChangeListener> listeners = new CopyOnWriteArrayList<>();
     
     public ZooManager() {
-        this.animals = new ArrayList<>();
-        this.employees = new ArrayList<>();
+        this(new HeapAnimalStore());
+    }
+
+    /**
+     * Создаёт менеджер с указанным хранилищем животных
+     * (например, ColumnarAnimalStore для очень больших зоопарков).
+     */
+    public ZooManager(AnimalStore animalStore) {
+        this(newState(1, () -> animalStore));
+    }
+
+    /**
+     * Создаёт менеджер с shardCount разделами животных по хэшу вида; хранилище
+     * каждого раздела создаёт stores. Один раздел равносилен ZooManager(stores.get()).
+     */
+    public ZooManager(int shardCount, Supplier<? extends AnimalStore> stores) {
+        this(newState(shardCount, stores));
+    }
+
+    private ZooManager(State state) {
+        this.state = state;
     }
     
     /**
      * Добавляет животное в зоопарк.
-     * При добавлении животное автоматически попадает в список.
+     * При добавлении животное автоматически попадает в список и в индекс по виду.
+     *
+     * @return идентификатор животного
+     * @throws IllegalArgumentException если животному уже назначен идентификатор, занятый в зоопарке
      */
-    public void addAnimal(Animal animal) {
-        animals.add(animal);
-        System.out.println("✓ Добавлено животное: " + animal.getName() + " (" + animal.getSpecies() + ")");
+    public long addAnimal(Animal animal) {
+        AnimalShard shard = lockShard(shardIndex(animal.getSpeciesRef()));
+        try {
+            appendAnimals(shard, List.of(animal));
+        } finally {
+            shard.lock.unlock();
+        }
+        awaitDurable();
+        ZooMetrics.animalsAdded(1);
+        Events.emit("✓ Добавлено животное: " + animal.getName() + " (" + animal.getSpecies() + "), #" + animal.getId());
+        return animal.getId();
     }
     
     /**
      * Добавляет сотрудника в зоопарк.
+     *
+     * @return идентификатор сотрудника
+     * @throws IllegalArgumentException если сотруднику уже назначен идентификатор, занятый в зоопарке
+     */
+    public long addEmployee(Employee employee) {
+        employeesLock.lock();
+        try {
+            appendEmployees(List.of(employee));
+        } finally {
+            employeesLock.unlock();
+        }
+        awaitDurable();
+        ZooMetrics.employeesAdded(1);
+        Events.emit("✓ Добавлен сотрудник: " + employee.getName() + " (" + employee.getRole() + "), #" + employee.getId());
+        return employee.getId();
+    }
+    
+    /**
+     * Добавляет пачку животных за одно взятие блокировки каждого затронутого раздела.
+     * В отличие от addAnimal ничего не печатает: итог выводит вызывающий код.
+     * Животные с уже назначенным идентификатором (из снимка или журнала) сохраняют его.
+     * При нескольких разделах пачка применяется по разделам (большая - параллельно),
+     * и ошибка в одном разделе не отменяет уже добавленное в другие.
+     */
+    public void addAnimals(List<? extends Animal> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int shardCount = getShardCount();
+        if (shardCount == 1) {
+            addToShard(0, batch);
+        } else {
+            List<List<Animal>> groups = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                groups.add(new ArrayList<>());
+            }
+            for (Animal animal : batch) {
+                groups.get(shardIndex(animal.getSpeciesRef())).add(animal);
+            }
+            IntStream indexes = IntStream.range(0, shardCount).filter(i -> !groups.get(i).isEmpty());
+            if (batch.size() >= PARALLEL_BATCH) {
+                indexes = indexes.parallel();
+            }
+            indexes.forEach(i -> addToShard(i, groups.get(i)));
+        }
+        awaitDurable();
+        ZooMetrics.animalsAdded(batch.size());
+    }
+
+    private void addToShard(int index, List<? extends Animal> batch) {
+        AnimalShard shard = lockShard(index);
+        try {
+            appendAnimals(shard, batch);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет пачку сотрудников за одно взятие блокировки, без вывода в консоль.
+     */
+    public void addEmployees(List<? extends Employee> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        employeesLock.lock();
+        try {
+            appendEmployees(batch);
+        } finally {
+            employeesLock.unlock();
+        }
+        awaitDurable();
+        ZooMetrics.employeesAdded(batch.size());
+    }
+
+    /**
+     * Животное по идентификатору или null; O(1) и без блокировок.
+     */
+    public Animal getAnimal(long id) {
+        State current = state;
+        int location = current.ids.locate(id);
+        while (IdTable.isPlaced(location) && current.ids.kindOf(location) < current.shards.length) {
+            Animal animal = current.shards[current.ids.kindOf(location)].get(id);
+            if (animal != null) {
+                return animal;
+            }
+            // Животное могли перенести в другой раздел, пока его искали в прежнем
+            int moved = current.ids.locate(id);
+            if (moved == location) {
+                return null;
+            }
+            location = moved;
+        }
+        return null;
+    }
+
+    /**
+     * Сотрудник по идентификатору или null; O(1) и без блокировок.
+     */
+    public Employee getEmployee(long id) {
+        return state.staff.get(id);
+    }
+
+    /**
+     * Удаляет животное за O(1): из списка, индекса по виду, счётчиков и индекса имён.
+     * Ничего не печатает: сообщение выводит вызывающий код.
+     *
+     * @return удалённое животное или null, если животного с таким идентификатором нет
+     */
+    public Animal removeAnimal(long id) {
+        while (true) {
+            int index = shardHolding(id);
+            if (index < 0) {
+                return null;
+            }
+            Animal removed = null;
+            AnimalShard shard = lockShard(index);
+            try {
+                // Пока блокировка не взята, животное могли удалить или перенести в другой раздел
+                int row = shard.rowOf(id);
+                if (row >= 0) {
+                    checkWritable();
+                    removed = removeFromShard(shard, id, row);
+                    modifications.incrementAndGet();
+                    for (ZooChangeListener listener : listeners) {
+                        listener.animalRemoved(removed);
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            if (removed != null) {
+                awaitDurable();
+                return removed;
+            }
+        }
+    }
+
+    /**
+     * Удаляет сотрудника за O(1): из списка, списков по видам ухода и индекса имён, без вывода в консоль.
+     *
+     * @return удалённый сотрудник или null, если сотрудника с таким идентификатором нет
+     */
+    public Employee removeEmployee(long id) {
+        Employee removed;
+        employeesLock.lock();
+        try {
+            if (state.staff.get(id) == null) {
+                return null;
+            }
+            checkWritable();
+            removed = state.staff.remove(id);
+            modifications.incrementAndGet();
+            for (ZooChangeListener listener : listeners) {
+                listener.employeeRemoved(removed);
+            }
+        } finally {
+            employeesLock.unlock();
+        }
+        awaitDurable();
+        return removed;
+    }
+
+    /**
+     * Заменяет животное с идентификатором id на replacement за O(1); replacement получает тот же
+     * идентификатор. Индекс по виду, счётчики и индекс имён обновляются.
+     *
+     * @return прежнее животное или null, если животного с таким идентификатором нет
+     * @throws IllegalArgumentException если replacement уже назначен другой идентификатор
+     */
+    public Animal updateAnimal(long id, Animal replacement) {
+        requireReplacementId(replacement.getId(), id);
+        int targetIndex = shardIndex(replacement.getSpeciesRef());
+        while (true) {
+            int sourceIndex = shardHolding(id);
+            if (sourceIndex < 0) {
+                return null;
+            }
+            Animal previous = null;
+            // Разделы блокируются в порядке номеров, чтобы встречные переносы не взаимоблокировались
+            AnimalShard first = lockShard(Math.min(sourceIndex, targetIndex));
+            AnimalShard second = lockShard(Math.max(sourceIndex, targetIndex));
+            AnimalShard source = sourceIndex <= targetIndex ? first : second;
+            AnimalShard target = sourceIndex <= targetIndex ? second : first;
+            try {
+                int row = source.rowOf(id);
+                if (row < 0) {
+                    continue;
+                }
+                checkWritable();
+                previous = source.store.get(row);
+                replacement.assignId(id);
+                if (source != target) {
+                    // Сначала новое место, затем удаление из прежнего: читатель находит животное всё время
+                    target.names.addAssigned(new int[]{(int) id},
+                            () -> target.ids.put(id, target.kind, target.store.append(replacement)));
+                    target.lastId = Math.max(target.lastId, (int) id);
+                    source.names.update((int) id, previous.getName(), false, () -> source.store.remove(row));
+                } else if (previous.getName().equals(replacement.getName())) {
+                    replaceInShard(source, id, row, replacement);
+                } else {
+                    source.names.update((int) id, previous.getName(), true,
+                            () -> replaceInShard(source, id, row, replacement));
+                }
+                source.countSpecies(previous, -1);
+                target.countSpecies(replacement, 1);
+                modifications.incrementAndGet();
+                for (ZooChangeListener listener : listeners) {
+                    listener.animalReplaced(previous, replacement);
+                }
+            } finally {
+                second.lock.unlock();
+                first.lock.unlock();
+            }
+            awaitDurable();
+            return previous;
+        }
+    }
+
+    /**
+     * Заменяет сотрудника с идентификатором id на replacement за O(1); списки по видам ухода
+     * и индекс имён обновляются.
+     *
+     * @return прежний сотрудник или null, если сотрудника с таким идентификатором нет
+     * @throws IllegalArgumentException если replacement уже назначен другой идентификатор
+     */
+    public Employee updateEmployee(long id, Employee replacement) {
+        requireReplacementId(replacement.getId(), id);
+        Employee previous;
+        employeesLock.lock();
+        try {
+            if (state.staff.get(id) == null) {
+                return null;
+            }
+            checkWritable();
+            previous = state.staff.replace(id, replacement);
+            modifications.incrementAndGet();
+            for (ZooChangeListener listener : listeners) {
+                listener.employeeReplaced(previous, replacement);
+            }
+        } finally {
+            employeesLock.unlock();
+        }
+        awaitDurable();
+        return previous;
+    }
+
+    /**
+     * Идентификатор, который получит следующая добавленная сущность.
+     */
+    public long getNextId() {
+        return nextId.get();
+    }
+
+    /**
+     * Счётчик изменений: растёт при каждом добавлении, удалении и замене животных и сотрудников.
+     * Пока он не изменился, всё, что построено по состоянию зоопарка, остаётся верным; значение
+     * читается до построения, чтобы изменение во время построения не осталось незамеченным.
      */
-    public void addEmployee(Employee employee) {
-        employees.add(employee);
-        System.out.println("✓ Добавлен сотрудник: " + employee.getName() + " (" + employee.getRole() + ")");
+    public long getModificationCount() {
+        return modifications.get();
+    }
+
+    /**
+     * Не выдавать идентификаторы меньше nextId (например, удалённых до сохранения снимка).
+     */
+    public void reserveIds(long nextId) {
+        this.nextId.accumulateAndGet(nextId, Math::max);
     }
     
     /**
-     * Возвращает список всех животных.
+     * Заменяет всё содержимое зоопарка на animals и employees с уже назначенными идентификаторами
+     * (например, снимок ведущего узла) и не выдаёт идентификаторы меньше nextId. Новое содержимое
+     * строится в стороне и подменяется при заблокированных изменениях, поэтому читатели видят
+     * либо прежнее содержимое, либо новое, но не промежуточное. Слушатели получают удаление
+     * каждой прежней сущности и добавление новых.
+     *
+     * @throws IllegalArgumentException если идентификатор не назначен, недопустим или повторяется
+     */
+    public void replaceAll(List<? extends Animal> animals, List<? extends Employee> employees, long nextId) {
+        AnimalShard[] current = state.shards;
+        IdTable ids = new IdTable(current.length + 1);
+        long max = Math.max(claimAssigned(animals, Animal::getId, ids), claimAssigned(employees, Employee::getId, ids));
+        List<List<Animal>> groups = new ArrayList<>(current.length);
+        for (int i = 0; i < current.length; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (Animal animal : animals) {
+            groups.get(shardIndex(animal.getSpeciesRef())).add(animal);
+        }
+        AnimalShard[] replacement = new AnimalShard[current.length];
+        for (int i = 0; i < current.length; i++) {
+            replacement[i] = current[i].emptyCopy(ids);
+            List<Animal> group = groups.get(i);
+            replacement[i].appendAll(group, group.stream().mapToInt(animal -> (int) animal.getId()).toArray());
+        }
+        EmployeeShard replacementStaff = new EmployeeShard(ids, current.length);
+        replacementStaff.appendAll(employees, employees.stream().mapToInt(employee -> (int) employee.getId()).toArray());
+
+        withWritesBlocked(() -> {
+            checkWritable();
+            List<Animal> previousAnimals = getAnimals();
+            List<Employee> previousEmployees = getEmployees();
+            state = new State(ids, replacement, replacementStaff);
+            reserveIds(Math.max(nextId, max + 1));
+            modifications.incrementAndGet();
+            if (!listeners.isEmpty()) {
+                for (ZooChangeListener listener : listeners) {
+                    previousAnimals.forEach(listener::animalRemoved);
+                    previousEmployees.forEach(listener::employeeRemoved);
+                }
+                notifyAnimalsAdded(animals);
+                notifyEmployeesAdded(employees);
+            }
+            return null;
+        });
+        awaitDurable();
+    }
+
+    /**
+     * Подписывает слушателя на последующие изменения.
+     */
+    public void addListener(ZooChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ZooChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Выполняет действие, пока все изменения заблокированы.
+     * Позволяет согласованно снять состояние вместе с позицией подписчика (например, журнала).
+     */
+    public <T> T withWritesBlocked(Supplier<T> action) {
+        return blockingShards(0, action);
+    }
+
+    private <T> T blockingShards(int from, Supplier<T> action) {
+        // Блокировки разделов не меняются при replaceAll, поэтому state можно читать на каждом шаге
+        Lock lock = from < getShardCount() ? state.shards[from].lock : null;
+        if (lock == null) {
+            employeesLock.lock();
+            try {
+                return action.get();
+            } finally {
+                employeesLock.unlock();
+            }
+        }
+        lock.lock();
+        try {
+            return blockingShards(from + 1, action);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Возвращает неизменяемый снимок всех животных.
+     * Снимок не копирует данные и не меняется при последующих добавлениях.
      */
     public List<Animal> getAnimals() {
-        return new ArrayList<>(animals);
+        AnimalShard[] current = state.shards;
+        return current.length == 1 ? current[0].store.snapshot() : new ConcatList<>(getAnimalPartitions());
+    }
+
+    /**
+     * Возвращает неизменяемые снимки животных по разделам (по одному на раздел, в порядке разделов).
+     * Вид целиком попадает в один раздел, поэтому разделы можно обрабатывать независимо
+     * и параллельно, а результаты затем слить.
+     */
+    public List<List<Animal>> getAnimalPartitions() {
+        AnimalShard[] current = state.shards;
+        List<List<Animal>> partitions = new ArrayList<>(current.length);
+        for (AnimalShard shard : current) {
+            partitions.add(shard.store.snapshot());
+        }
+        return partitions;
+    }
+
+    public int getShardCount() {
+        return state.shards.length;
     }
     
     /**
-     * Возвращает список всех сотрудников.
+     * Возвращает страницу животных начиная с позиции offset в склейке разделов.
+     */
+    public Page<Animal> getAnimalsPage(int offset, int limit) {
+        return Page.ofPartitions(getAnimalPartitions(), offset, limit);
+    }
+
+    /**
+     * Возвращает страницу животных после курсора предыдущей страницы (null - с начала).
+     * Курсор указывает на раздел и позицию в нём, поэтому добавления в другие разделы
+     * между запросами страниц не сдвигают выдачу.
+     */
+    public Page<Animal> getAnimalsPage(String cursor, int limit) {
+        return Page.ofPartitions(getAnimalPartitions(), Page.decodeCursor(cursor), limit);
+    }
+
+    /**
+     * Ленивый поток всех животных снимка: элементы не собираются в список заранее,
+     * а колоночное хранилище создаёт объекты Animal по мере обхода.
+     */
+    public Stream<Animal> streamAnimals() {
+        return getAnimals().stream();
+    }
+
+    /**
+     * Ленивый итератор по снимку всех животных.
+     */
+    public Iterator<Animal> iterateAnimals() {
+        return getAnimals().iterator();
+    }
+
+    /**
+     * Возвращает неизменяемый снимок всех сотрудников.
      */
     public List<Employee> getEmployees() {
-        return new ArrayList<>(employees);
+        return state.staff.employees.snapshot();
     }
     
     /**
-     * Получает список животных конкретного вида.
+     * Возвращает неизменяемый снимок сотрудников, умеющих выполнять указанный вид ухода.
+     * Список поддерживается при добавлении, поэтому запрос не проверяет всех сотрудников.
+     */
+    public List<Employee> getEmployeesWith(Capability capability) {
+        return state.staff.byCapability.get(capability).snapshot();
+    }
+
+    /**
+     * Получает неизменяемый снимок животных конкретного вида (без учёта регистра).
+     * Использует индекс по ordinal вида, поэтому стоимость не зависит от размера зоопарка.
      */
     public List<Animal> getAnimalsBySpecies(String species) {
-        return animals.stream()
-                .filter(a -> a.getSpecies().equalsIgnoreCase(species))
-                .collect(Collectors.toList());
+        return shardOf(species).store.bySpecies(species);
+    }
+
+    /**
+     * Возвращает страницу животных вида начиная с позиции offset внутри вида.
+     */
+    public Page<Animal> getAnimalsBySpeciesPage(String species, int offset, int limit) {
+        return Page.of(getAnimalsBySpecies(species), offset, limit);
+    }
+
+    /**
+     * Возвращает страницу животных вида после курсора предыдущей страницы (null - с начала).
+     */
+    public Page<Animal> getAnimalsBySpeciesPage(String species, String cursor, int limit) {
+        return Page.ofPartitions(List.of(getAnimalsBySpecies(species)), Page.decodeCursor(cursor), limit);
+    }
+
+    /**
+     * Ленивый поток животных вида (без учёта регистра).
+     */
+    public Stream<Animal> streamAnimalsBySpecies(String species) {
+        return getAnimalsBySpecies(species).stream();
+    }
+
+    /**
+     * Находит животных с точно таким именем (с учётом регистра) через индекс имён, за O(log n).
+     */
+    public List<Animal> findAnimalsByName(String name) {
+        List<Animal> found = findAnimals(name, false, Integer.MAX_VALUE);
+        found.removeIf(animal -> !animal.getName().equals(name));
+        return found;
+    }
+
+    /**
+     * Находит животных, чьё имя начинается с prefix без учёта регистра,
+     * в алфавитном порядке; стоимость O(log n + limit).
+     */
+    public List<Animal> findAnimalsByPrefix(String prefix, int limit) {
+        return findAnimals(prefix, true, limit);
+    }
+
+    /**
+     * Поиск по индексам имён всех разделов; результаты разделов сливаются
+     * в общем алфавитном порядке (равные без учёта регистра имена - по идентификатору).
+     */
+    private List<Animal> findAnimals(String name, boolean prefix, int limit) {
+        AnimalShard[] current = state.shards;
+        if (current.length == 1) {
+            return resolve(current[0].names.find(name, prefix, limit), current[0]::get);
+        }
+        List<Animal> found = new ArrayList<>();
+        for (AnimalShard shard : current) {
+            found.addAll(resolve(shard.names.find(name, prefix, limit), shard::get));
+        }
+        found.sort(Comparator.comparing(Animal::getName, String.CASE_INSENSITIVE_ORDER)
+                .thenComparingLong(Animal::getId));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * Находит сотрудников с точно таким именем (с учётом регистра) через индекс имён.
+     */
+    public List<Employee> findEmployeesByName(String name) {
+        EmployeeShard staff = state.staff;
+        List<Employee> found = resolve(staff.names.find(name, false, Integer.MAX_VALUE), staff::get);
+        found.removeIf(employee -> !employee.getName().equals(name));
+        return found;
+    }
+
+    /**
+     * Находит сотрудников, чьё имя начинается с prefix без учёта регистра, в алфавитном порядке.
+     */
+    public List<Employee> findEmployeesByPrefix(String prefix, int limit) {
+        EmployeeShard staff = state.staff;
+        return resolve(staff.names.find(prefix, true, limit), staff::get);
+    }
+
+    /**
+     * Возвращает количество животных по видам, отсортированное по названию вида.
+     * Счётчики ведутся в массиве по ordinal вида и обновляются при добавлении,
+     * поэтому стоимость зависит только от числа видов и разделов. Блокировки не берутся:
+     * каждый раздел публикует неизменяемый снимок своих счётчиков.
+     */
+    public Map<String, Long> getSpeciesCounts() {
+        long[] counts = new long[0];
+        for (AnimalShard shard : state.shards) {
+            counts = shard.addCountsTo(counts);
+        }
+        Map<String, Long> result = new TreeMap<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                result.put(SpeciesRegistry.byOrdinal(ordinal).getName(), counts[ordinal]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сущности по найденным идентификаторам; удалённые после поиска пропускаются.
+     */
+    private static <T> List<T> resolve(int[] ids, LongFunction<T> byId) {
+        List<T> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            T entity = byId.apply(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет до применения изменения, что все подписчики смогут его принять.
+     */
+    private void checkWritable() {
+        for (ZooChangeListener listener : listeners) {
+            listener.checkWritable();
+        }
+    }
+
+    /**
+     * Ждёт, пока подписчики (журнал) сделают долговременными уже применённые изменения;
+     * вызывается без блокировок, поэтому ожидание не задерживает других писателей.
+     */
+    private void awaitDurable() {
+        for (ZooChangeListener listener : listeners) {
+            listener.awaitDurable();
+        }
+    }
+
+    private void notifyAnimalsAdded(List<? extends Animal> batch) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        List<Animal> added = List.copyOf(batch);
+        for (ZooChangeListener listener : listeners) {
+            listener.animalsAdded(added);
+        }
+    }
+
+    private void notifyEmployeesAdded(List<? extends Employee> batch) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        List<Employee> added = List.copyOf(batch);
+        for (ZooChangeListener listener : listeners) {
+            listener.employeesAdded(added);
+        }
+    }
+
+    /**
+     * Назначает идентификаторы пачке и добавляет её в хранилище раздела; вызывается под shard.lock.
+     */
+    private void appendAnimals(AnimalShard shard, List<? extends Animal> batch) {
+        checkWritable();
+        int[] assigned = assignIds(shard.ids, batch, Animal::getId, Animal::assignId);
+        try {
+            shard.appendAll(batch, assigned);
+        } catch (RuntimeException e) {
+            releaseClaims(shard.ids, batch, assigned, Animal::getId, Animal::revokeId);
+            throw e;
+        }
+        modifications.incrementAndGet();
+        notifyAnimalsAdded(batch);
+    }
+
+    /**
+     * Удаляет животное строки row из хранилища, таблицы идентификаторов, индекса имён
+     * и счётчиков раздела; вызывается под shard.lock.
+     *
+     * @return удалённое животное
+     */
+    private static Animal removeFromShard(AnimalShard shard, long id, int row) {
+        Animal animal = shard.store.get(row);
+        shard.names.update((int) id, animal.getName(), false, () -> {
+            shard.store.remove(row);
+            shard.ids.release(id);
+        });
+        shard.countSpecies(animal, -1);
+        return animal;
+    }
+
+    /**
+     * Заменяет животное строки row в хранилище и, если строка сменилась, в таблице идентификаторов.
+     */
+    private static void replaceInShard(AnimalShard shard, long id, int row, Animal replacement) {
+        int replacementRow = shard.store.replace(row, replacement);
+        if (replacementRow != row) {
+            shard.ids.put(id, shard.kind, replacementRow);
+        }
+    }
+
+    /**
+     * Номер раздела, в котором сейчас лежит животное, или -1.
+     */
+    private int shardHolding(long id) {
+        State current = state;
+        int location = current.ids.locate(id);
+        if (!IdTable.isPlaced(location)) {
+            return -1;
+        }
+        int kind = current.ids.kindOf(location);
+        return kind < current.shards.length ? kind : -1;
+    }
+
+    /**
+     * Берёт блокировку раздела index и возвращает раздел: блокировка переходит к разделу,
+     * подменённому replaceAll, поэтому под ней раздел уже не сменится.
+     */
+    private AnimalShard lockShard(int index) {
+        state.shards[index].lock.lock();
+        return state.shards[index];
     }
-}
 
+    private AnimalShard shardOf(String species) {
+        AnimalShard[] current = state.shards;
+        if (current.length == 1) {
+            return current[0];
+        }
+        Species known = SpeciesRegistry.lookup(species);
+        return known == null ? current[0] : current[shardIndex(known)];
+    }
+
+    /**
+     * Номер раздела вида: хэш названия без учёта регистра, чтобы раздел не зависел
+     * от порядка регистрации видов и совпадал после перезапуска.
+     */
+    private int shardIndex(Species species) {
+        int shardCount = getShardCount();
+        if (shardCount == 1) {
+            return 0;
+        }
+        return Math.floorMod(species.getName().toLowerCase(Locale.ROOT).hashCode(), shardCount);
+    }
+
+    /**
+     * Пустое состояние: разделы животных - виды мест 0..shardCount-1 в таблице
+     * идентификаторов, сотрудники - вид shardCount.
+     */
+    private static State newState(int shardCount, Supplier<? extends AnimalStore> stores) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Число разделов должно быть положительным: " + shardCount);
+        }
+        IdTable ids = new IdTable(shardCount + 1);
+        AnimalShard[] shards = new AnimalShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new AnimalShard(stores.get(), ids, i);
+        }
+        return new State(ids, shards, new EmployeeShard(ids, shardCount));
+    }
+
+    /**
+     * Назначает идентификаторы пачке и добавляет её; вызывается под employeesLock.
+     */
+    private void appendEmployees(List<? extends Employee> batch) {
+        EmployeeShard staff = state.staff;
+        checkWritable();
+        int[] assigned = assignIds(staff.ids, batch, Employee::getId, Employee::assignId);
+        try {
+            staff.appendAll(batch, assigned);
+        } catch (RuntimeException e) {
+            releaseClaims(staff.ids, batch, assigned, Employee::getId, Employee::revokeId);
+            throw e;
+        }
+        modifications.incrementAndGet();
+        notifyEmployeesAdded(batch);
+    }
+
+    /**
+     * Выдаёт идентификаторы пачке. Сначала проверяется вся пачка, затем уже назначенные
+     * идентификаторы занимаются в таблице ids, и только потом остальным выдаются новые.
+     * Занятие атомарно, поэтому две пачки (в том числе разных разделов) не получат один
+     * идентификатор. Если что-то не удалось, занятое освобождается и сущностям ничего
+     * не назначается; после успеха занятое освобождает releaseClaims или добавление в таблицу.
+     * Новые идентификаторы хранилище читает из самих сущностей, поэтому они назначаются
+     * до добавления, а при его ошибке releaseClaims снимает их.
+     *
+     * @return уже назначенные до добавления идентификаторы
+     * @throws IllegalArgumentException если идентификатор недопустим, занят или повторяется
+     *                                  либо сущность встречается в пачке дважды
+     * @throws IllegalStateException    если идентификаторы исчерпаны
+     */
+    private <T> int[] assignIds(IdTable ids, List<? extends T> batch, ToLongFunction<T> idOf,
+                                ObjLongConsumer<T> assign) {
+        int[] assigned = new int[batch.size()];
+        int[] fresh = new int[batch.size()];
+        int assignedCount = 0;
+        int freshCount = 0;
+        long max = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            long id = idOf.applyAsLong(batch.get(i));
+            if (id == 0) {
+                fresh[freshCount++] = i;
+                continue;
+            }
+            if (id < 0 || id > IdTable.MAX_ID) {
+                throw new IllegalArgumentException("Недопустимый идентификатор: " + id);
+            }
+            assigned[assignedCount++] = (int) id;
+            max = Math.max(max, id);
+        }
+        assigned = Arrays.copyOf(assigned, assignedCount);
+        int[] sorted = assigned.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Идентификатор повторяется: " + sorted[i]);
+            }
+        }
+        if (hasRepeats(batch, fresh, freshCount)) {
+            throw new IllegalArgumentException("Сущность встречается в пачке дважды");
+        }
+
+        for (int i = 0; i < assigned.length; i++) {
+            if (!ids.claim(assigned[i])) {
+                release(ids, assigned, i);
+                throw new IllegalArgumentException("Идентификатор уже занят: " + assigned[i]);
+            }
+        }
+        reserveIds(max + 1);
+        int[] generated = new int[freshCount];
+        for (int i = 0; i < freshCount; i++) {
+            long id;
+            do {
+                id = nextId.getAndIncrement();
+                if (id > IdTable.MAX_ID) {
+                    release(ids, assigned, assigned.length);
+                    release(ids, generated, i);
+                    throw new IllegalStateException("Идентификаторы исчерпаны");
+                }
+                // Идентификатор мог занять добавляемый где-то ещё с уже назначенным
+            } while (!ids.claim(id));
+            generated[i] = (int) id;
+        }
+        for (int i = 0; i < freshCount; i++) {
+            assign.accept(batch.get(fresh[i]), generated[i]);
+        }
+        return assigned;
+    }
+
+    /**
+     * Встречается ли какой-либо из объектов batch[indexes[0..count)] дважды (по ссылке).
+     * Ключи сортируются по identityHashCode, и по ссылке сравниваются только соседи с равным хэшем.
+     */
+    private static boolean hasRepeats(List<?> batch, int[] indexes, int count) {
+        if (count < 2) {
+            return false;
+        }
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) System.identityHashCode(batch.get(indexes[i])) << 32) | indexes[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 1; i < count; i++) {
+            for (int j = i - 1; j >= 0 && (keys[j] >> 32) == (keys[i] >> 32); j--) {
+                if (batch.get((int) keys[j]) == batch.get((int) keys[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void release(IdTable ids, int[] claimed, int count) {
+        for (int i = 0; i < count; i++) {
+            ids.release(claimed[i]);
+        }
+    }
+
+    /**
+     * Освобождает идентификаторы пачки, занятые assignIds, но не добавленные в таблицу, и снимает
+     * с сущностей выданные им новые идентификаторы (assigned - назначенные до добавления,
+     * они остаются), чтобы повторное добавление не взяло уже освобождённый идентификатор.
+     */
+    private static <T> void releaseClaims(IdTable ids, List<? extends T> batch, int[] assigned,
+                                          ToLongFunction<T> idOf, ObjLongConsumer<T> revoke) {
+        int[] kept = assigned.clone();
+        Arrays.sort(kept);
+        for (T entity : batch) {
+            long id = idOf.applyAsLong(entity);
+            if (id != 0 && ids.locate(id) == IdTable.CLAIMED) {
+                ids.release(id);
+                if (Arrays.binarySearch(kept, (int) id) < 0) {
+                    revoke.accept(entity, id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверяет, что у всех сущностей пачки назначены допустимые и неповторяющиеся
+     * идентификаторы, занимая их в ids.
+     *
+     * @return наибольший идентификатор пачки (0 для пустой)
+     */
+    private static <T> long claimAssigned(List<? extends T> batch, ToLongFunction<T> idOf, IdTable ids) {
+        long max = 0;
+        for (T entity : batch) {
+            long id = idOf.applyAsLong(entity);
+            if (id <= 0 || id > IdTable.MAX_ID) {
+                throw new IllegalArgumentException("Недопустимый идентификатор: " + id);
+            }
+            if (!ids.claim(id)) {
+                throw new IllegalArgumentException("Идентификатор повторяется: " + id);
+            }
+            max = Math.max(max, id);
+        }
+        return max;
+    }
+
+    private static void requireReplacementId(long replacementId, long id) {
+        if (replacementId != 0 && replacementId != id) {
+            throw new IllegalArgumentException("Замене уже назначен другой идентификатор: " + replacementId);
+        }
+    }
+
+    /**
+     * Всё, что replaceAll подменяет одной записью: таблица идентификаторов, разделы и сотрудники.
+     */
+    private record State(IdTable ids, AnimalShard[] shards, EmployeeShard staff) {
+    }
+}
@@ -7,11 +7,25 @@ package org.example.animals;
 public abstract class Animal {
 
     private final String name;
-    private final String species;
+    private final Species species;
+    private long id;
+
+    /**
+     * Животное вида, указанного аннотацией {@link SpeciesName} класса.
+     *
+     * @throws IllegalStateException если у класса нет аннотации SpeciesName
+     */
+    protected Animal(String name) {
+        this.name = name;
+        this.species = SpeciesRegistry.ofClass(getClass());
+        if (species == null) {
+            throw new IllegalStateException("У класса " + getClass().getName() + " нет аннотации @SpeciesName");
+        }
+    }
 
     protected Animal(String name, String species) {
         this.name = name;
-        this.species = species;
+        this.species = SpeciesRegistry.register(species);
     }
 
     public String getName() {
@@ -19,6 +33,45 @@ public abstract class Animal {
     }
 
     public String getSpecies() {
+        return species.getName();
+    }
+
+    /**
+     * Идентификатор, выданный ZooManager при добавлении; 0, пока животного нет в зоопарке.
+     * Сохраняется при удалении, поэтому повторное добавление того же объекта вернёт прежний идентификатор.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Назначает идентификатор. Вызывается ZooManager и хранилищами при восстановлении;
+     * повторно назначить другой идентификатор нельзя.
+     *
+     * @throws IllegalStateException если уже назначен другой идентификатор
+     */
+    public void assignId(long id) {
+        if (this.id != 0 && this.id != id) {
+            throw new IllegalStateException("Идентификатор уже назначен: " + this.id);
+        }
+        this.id = id;
+    }
+
+    /**
+     * Снимает идентификатор id, выданный при добавлении, которое не удалось: сущность снова
+     * считается не добавленной, и следующее добавление выдаст ей новый идентификатор.
+     * Вызывается ZooManager; другой идентификатор не снимается.
+     */
+    public void revokeId(long id) {
+        if (this.id == id) {
+            this.id = 0;
+        }
+    }
+
+    /**
+     * Канонический вид из SpeciesRegistry.
+     */
+    public Species getSpeciesRef() {
         return species;
     }
 
@@ -1,20 +1,22 @@
 package org.example.animals;
 
+import org.example.events.Events;
 
+@SpeciesName("Monkey")
 public class Monkey extends Animal {
 
     public Monkey(String name) {
-        super(name, "Monkey");
+        super(name);
     }
 
     @Override
     public void makeSound() {
-        System.out.println(getName() + " кричит.");
+        Events.emit(getName() + " кричит.");
     }
 
     @Override
     public void performDailyActivity() {
-        System.out.println(getName() + " прыгает с ветки на ветку.");
+        Events.emit(getName() + " прыгает с ветки на ветку.");
     }
 }
 
@@ -1,20 +1,22 @@
 package org.example.animals;
 
+import org.example.events.Events;
 
+@SpeciesName("Parrot")
 public class Parrot extends Animal {
 
     public Parrot(String name) {
-        super(name, "Parrot");
+        super(name);
     }
 
     @Override
     public void makeSound() {
-        System.out.println(getName() + " говорит: \"Привет!\"");
+        Events.emit(getName() + " говорит: \"Привет!\"");
     }
 
     @Override
     public void performDailyActivity() {
-        System.out.println(getName() + " перелетает с жердочки на жердочку.");
+        Events.emit(getName() + " перелетает с жердочки на жердочку.");
     }
 }
 
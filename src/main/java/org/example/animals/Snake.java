@@ -1,20 +1,22 @@
 package org.example.animals;
 
+import org.example.events.Events;
 
+@SpeciesName("Snake")
 public class Snake extends Animal {
 
     public Snake(String name) {
-        super(name, "Snake");
+        super(name);
     }
 
     @Override
     public void makeSound() {
-        System.out.println(getName() + " шипит.");
+        Events.emit(getName() + " шипит.");
     }
 
     @Override
     public void performDailyActivity() {
-        System.out.println(getName() + " греется под лампой.");
+        Events.emit(getName() + " греется под лампой.");
     }
 }
 
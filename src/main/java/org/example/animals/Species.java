@@ -0,0 +1,33 @@
+package org.example.animals;
+
+/**
+ * Канонический объект вида животного (flyweight).
+ * Для каждого вида существует ровно один экземпляр с плотным порядковым номером,
+ * поэтому статистику и группировки можно вести в массивах, индексированных ordinal.
+ */
+public final class Species {
+
+    private final String name;
+    private final int ordinal;
+
+    Species(String name, int ordinal) {
+        this.name = name;
+        this.ordinal = ordinal;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Порядковый номер вида: 0, 1, 2, ... в порядке регистрации.
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.animals;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Вид, к которому относятся все животные класса. Позволяет узнать вид по классу
+ * (SpeciesRegistry.ofClass) без создания экземпляра.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SpeciesName {
+    String value();
+}
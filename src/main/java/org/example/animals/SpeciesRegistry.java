@@ -0,0 +1,86 @@
+package org.example.animals;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр видов: интернирует название вида в канонический Species с плотным ordinal.
+ * Виды сравниваются без учёта регистра; каноническим считается первое зарегистрированное написание.
+ * Виды регистрируются автоматически при создании первого животного вида, а для классов
+ * с аннотацией SpeciesName - уже при первом обращении к ofClass.
+ */
+public final class SpeciesRegistry {
+
+    private static final Map<String, Species> BY_NAME = new ConcurrentHashMap<>();
+    private static final Map<String, Species> BY_KEY = new ConcurrentHashMap<>();
+    private static volatile Species[] byOrdinal = new Species[0];
+
+    private static final ClassValue<Species> BY_CLASS = new ClassValue<>() {
+        @Override
+        protected Species computeValue(Class<?> type) {
+            SpeciesName name = type.getAnnotation(SpeciesName.class);
+            return name == null ? null : register(name.value());
+        }
+    };
+
+    private SpeciesRegistry() {
+    }
+
+    /**
+     * Возвращает канонический вид, регистрируя его при первом обращении.
+     */
+    public static Species register(String name) {
+        Species species = BY_NAME.get(name);
+        return species != null ? species : registerSlow(name);
+    }
+
+    /**
+     * Вид класса животных по его аннотации SpeciesName, зарегистрированный при первом
+     * обращении; экземпляр класса не создаётся.
+     *
+     * @return вид или null, если у класса нет аннотации
+     */
+    public static Species ofClass(Class<?> type) {
+        return BY_CLASS.get(type);
+    }
+
+    /**
+     * Ищет уже зарегистрированный вид без учёта регистра.
+     *
+     * @return вид или null, если такой вид не регистрировался
+     */
+    public static Species lookup(String name) {
+        Species species = BY_NAME.get(name);
+        return species != null ? species : BY_KEY.get(key(name));
+    }
+
+    public static Species byOrdinal(int ordinal) {
+        return byOrdinal[ordinal];
+    }
+
+    /**
+     * Количество зарегистрированных видов; ordinal всегда меньше этого числа.
+     */
+    public static int size() {
+        return byOrdinal.length;
+    }
+
+    private static synchronized Species registerSlow(String name) {
+        Species species = BY_KEY.get(key(name));
+        if (species == null) {
+            species = new Species(name, byOrdinal.length);
+            Species[] extended = Arrays.copyOf(byOrdinal, byOrdinal.length + 1);
+            extended[species.getOrdinal()] = species;
+            byOrdinal = extended;
+            BY_KEY.put(key(name), species);
+        }
+        BY_NAME.put(name, species);
+        return species;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
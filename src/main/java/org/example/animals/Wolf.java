@@ -1,20 +1,22 @@
 package org.example.animals;
 
+import org.example.events.Events;
 
+@SpeciesName("Wolf")
 public class Wolf extends Animal {
 
     public Wolf(String name) {
-        super(name, "Wolf");
+        super(name);
     }
 
     @Override
     public void makeSound() {
-        System.out.println(getName() + " рычит.");
+        Events.emit(getName() + " рычит.");
     }
 
     @Override
     public void performDailyActivity() {
-        System.out.println(getName() + " лениво гуляет по вольеру и наблюдает за посетителями.");
+        Events.emit(getName() + " лениво гуляет по вольеру и наблюдает за посетителями.");
     }
 }
 
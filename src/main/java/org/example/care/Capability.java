@@ -0,0 +1,31 @@
+package org.example.care;
+
+/**
+ * Вид ухода, который сотрудник умеет выполнять, и соответствующий ISP-интерфейс.
+ * Каждой возможности соответствует бит в маске CapabilityRegistry.
+ */
+public enum Capability {
+
+    FEEDING(Feedable.class),
+    CLEANING(Cleanable.class),
+    TREATMENT(Treatable.class);
+
+    private final Class<?> contract;
+    private final int bit;
+
+    Capability(Class<?> contract) {
+        this.contract = contract;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * Интерфейс, который должен реализовывать сотрудник.
+     */
+    public Class<?> getContract() {
+        return contract;
+    }
+
+    public int bit() {
+        return bit;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.care;
+
+/**
+ * Таблица возможностей ухода по классам.
+ * Маска для каждого класса вычисляется один раз (ClassValue), дальше проверка
+ * сводится к битовой операции без instanceof-цепочек и без аллокаций.
+ */
+public final class CapabilityRegistry {
+
+    private static final Capability[] CAPABILITIES = Capability.values();
+
+    private static final ClassValue<Integer> MASKS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int mask = 0;
+            for (Capability capability : CAPABILITIES) {
+                if (capability.getContract().isAssignableFrom(type)) {
+                    mask |= capability.bit();
+                }
+            }
+            return mask;
+        }
+    };
+
+    private CapabilityRegistry() {
+    }
+
+    /**
+     * Маска возможностей класса.
+     */
+    public static int maskOf(Class<?> type) {
+        return MASKS.get(type);
+    }
+
+    /**
+     * Маска возможностей объекта (0 для null).
+     */
+    public static int maskOf(Object subject) {
+        return subject == null ? 0 : MASKS.get(subject.getClass());
+    }
+
+    public static boolean can(Object subject, Capability capability) {
+        return (maskOf(subject) & capability.bit()) != 0;
+    }
+}
@@ -10,6 +10,7 @@ public abstract class Employee implements CareCapable {
 
     private final String name;
     private final String role;
+    private long id;
 
     protected Employee(String name, String role) {
         this.name = name;
@@ -23,4 +24,36 @@ public abstract class Employee implements CareCapable {
     public String getRole() {
         return role;
     }
+
+    /**
+     * Идентификатор, выданный ZooManager при добавлении; 0, пока сотрудника нет в зоопарке.
+     * Сохраняется при удалении, поэтому повторное добавление того же объекта вернёт прежний идентификатор.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Назначает идентификатор. Вызывается ZooManager и хранилищами при восстановлении;
+     * повторно назначить другой идентификатор нельзя.
+     *
+     * @throws IllegalStateException если уже назначен другой идентификатор
+     */
+    public void assignId(long id) {
+        if (this.id != 0 && this.id != id) {
+            throw new IllegalStateException("Идентификатор уже назначен: " + this.id);
+        }
+        this.id = id;
+    }
+
+    /**
+     * Снимает идентификатор id, выданный при добавлении, которое не удалось: сущность снова
+     * считается не добавленной, и следующее добавление выдаст ей новый идентификатор.
+     * Вызывается ZooManager; другой идентификатор не снимается.
+     */
+    public void revokeId(long id) {
+        if (this.id == id) {
+            this.id = 0;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package org.example.employees;
 
 import org.example.animals.Animal;
 import org.example.care.Treatable;
+import org.example.events.Events;
 
 /**
  * Ветеринар: отвечает только за лечение животных.
@@ -15,7 +16,7 @@ public class Vet extends Employee implements Treatable {
 
     @Override
     public void treat(Animal animal) {
-        System.out.println(getName() + " проводит осмотр и лечение " + animal.getName() + " (" + animal.getSpecies()
+        Events.emit(getName() + " проводит осмотр и лечение " + animal.getName() + " (" + animal.getSpecies()
                 + ").");
     }
 }
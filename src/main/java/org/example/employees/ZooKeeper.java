@@ -3,6 +3,7 @@ package org.example.employees;
 import org.example.animals.Animal;
 import org.example.care.Cleanable;
 import org.example.care.Feedable;
+import org.example.events.Events;
 
 /**
  * Смотритель зоопарка: кормление и уборка.
@@ -16,13 +17,12 @@ public class ZooKeeper extends Employee implements Feedable, Cleanable {
 
     @Override
     public void feed(Animal animal) {
-        System.out.println(getName() + " кормит " + animal.getName() + " (" + animal.getSpecies() + ").");
+        Events.emit(getName() + " кормит " + animal.getName() + " (" + animal.getSpecies() + ").");
     }
 
     @Override
     public void clean(Animal animal) {
-        System.out
-                .println(getName() + " убирает вольер у " + animal.getName() + " (" + animal.getSpecies() + ").");
+        Events.emit(getName() + " убирает вольер у " + animal.getName() + " (" + animal.getSpecies() + ").");
     }
 }
 
@@ -0,0 +1,174 @@
+package org.example.events;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Асинхронный приёмник: сообщения кладутся в кольцевой буфер фиксированного размера
+ * (ArrayBlockingQueue), а единственный поток-писатель забирает их пачками и пишет
+ * в Writer с одним flush на пачку.
+ * Если буфер заполнен, публикующий поток ждёт - сообщения не теряются, пока писатель жив.
+ * Если запись в Writer упала, писатель останавливается, а опубликованные после этого
+ * сообщения отбрасываются (их число - getDropped()), чтобы публикующие потоки не ждали
+ * места в буфере вечно.
+ */
+public class AsyncEventSink implements EventSink {
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private static final int MAX_BATCH = 4096;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final String STOP = new String("stop");
+
+    private final BlockingQueue<String> ring;
+    private final Writer out;
+    private final Thread writer;
+    private final Object progress = new Object();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    /** Потоки внутри publish; close ждёт их, чтобы ни одно сообщение не попало в буфер после STOP. */
+    private final AtomicInteger publishing = new AtomicInteger();
+    private volatile long written;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public AsyncEventSink(Writer out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    public AsyncEventSink(Writer out, int capacity) {
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.out = out;
+        this.writer = new Thread(this::writeLoop, "zoo-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @throws IllegalStateException если приёмник закрыт
+     */
+    @Override
+    public void publish(String message) {
+        publishing.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Приёмник событий закрыт");
+            }
+            if (failure != null) {
+                dropped.incrementAndGet();
+                return;
+            }
+            published.incrementAndGet();
+            while (!ring.offer(message, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    published.decrementAndGet();
+                    dropped.incrementAndGet();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            published.decrementAndGet();
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    /**
+     * Число сообщений, отброшенных после сбоя записи.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Ошибка, остановившая писателя, или null.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void flush() {
+        long target = published.get();
+        synchronized (progress) {
+            while (written < target && writer.isAlive()) {
+                try {
+                    progress.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // После closed новые publish бросают исключение; дожидаемся уже начатых
+        while (publishing.get() > 0) {
+            Thread.onSpinWait();
+        }
+        flush();
+        try {
+            while (writer.isAlive() && !ring.offer(STOP, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // Буфер полон, писатель ещё разбирает его
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                batch.add(ring.take());
+                ring.drainTo(batch, MAX_BATCH - 1);
+                boolean stop = false;
+                int count = 0;
+                for (String message : batch) {
+                    if (message == STOP) {
+                        stop = true;
+                        continue;
+                    }
+                    out.write(message);
+                    out.write(System.lineSeparator());
+                    count++;
+                }
+                out.flush();
+                batch.clear();
+                synchronized (progress) {
+                    written += count;
+                    progress.notifyAll();
+                }
+                if (stop) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failure = e;
+            // Сообщения, оставшиеся в буфере, уже не будут выведены
+            dropped.addAndGet(ring.size());
+            ring.clear();
+            System.err.println("Вывод событий остановлен: " + e.getMessage());
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.events;
+
+/**
+ * Синхронный вывод в System.out - поведение по умолчанию для интерактивной работы.
+ */
+public class ConsoleEventSink implements EventSink {
+
+    @Override
+    public void publish(String message) {
+        System.out.println(message);
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.events;
+
+/**
+ * Приёмник сообщений доменного слоя (добавления, звуки животных, уход).
+ * Реализации должны быть потокобезопасными.
+ */
+public interface EventSink extends AutoCloseable {
+
+    void publish(String message);
+
+    /**
+     * Дожидается вывода уже опубликованных сообщений.
+     */
+    default void flush() {
+    }
+
+    @Override
+    default void close() {
+        flush();
+    }
+}
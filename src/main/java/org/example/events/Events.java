@@ -0,0 +1,61 @@
+package org.example.events;
+
+/**
+ * Точка доступа к текущему приёмнику событий для доменных классов.
+ * По умолчанию сообщения выводятся в консоль.
+ */
+public final class Events {
+
+    private static volatile EventSink sink = new ConsoleEventSink();
+    /** Сообщения, перехваченные capture в текущем потоке, или null. */
+    private static final ThreadLocal<StringBuilder> CAPTURED = new ThreadLocal<>();
+
+    private Events() {
+    }
+
+    public static void emit(String message) {
+        StringBuilder captured = CAPTURED.get();
+        if (captured != null) {
+            if (captured.length() > 0) {
+                captured.append('\n');
+            }
+            captured.append(message);
+            return;
+        }
+        sink.publish(message);
+    }
+
+    /**
+     * Выполняет action, возвращая сообщения, отправленные им в этом потоке, вместо публикации
+     * в приёмник (через перевод строки). Нужно, когда сообщение - часть строки, которую
+     * вызывающий выводит сам: иначе асинхронный приёмник выведет его в другом месте.
+     */
+    public static String capture(Runnable action) {
+        StringBuilder previous = CAPTURED.get();
+        StringBuilder captured = new StringBuilder();
+        CAPTURED.set(captured);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CAPTURED.remove();
+            } else {
+                CAPTURED.set(previous);
+            }
+        }
+        return captured.toString();
+    }
+
+    public static EventSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Заменяет приёмник и возвращает предыдущий (его закрытие - забота вызывающего).
+     */
+    public static EventSink setSink(EventSink newSink) {
+        EventSink previous = sink;
+        sink = newSink;
+        return previous;
+    }
+}
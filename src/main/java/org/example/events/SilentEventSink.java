@@ -0,0 +1,12 @@
+package org.example.events;
+
+/**
+ * Отбрасывает все сообщения: для массовой загрузки и замеров производительности.
+ */
+public class SilentEventSink implements EventSink {
+
+    @Override
+    public void publish(String message) {
+        // Сообщения намеренно игнорируются
+    }
+}
@@ -0,0 +1,435 @@
+package org.example.http;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.example.Page;
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+import org.example.importing.BulkImporter;
+import org.example.metrics.ZooMetrics;
+import org.example.reporting.ZooReportService;
+import org.example.scheduling.CareSchedule;
+import org.example.scheduling.CareScheduler;
+import org.example.scheduling.CareTask;
+import org.example.scheduling.CareType;
+import org.example.scheduling.VirtualThreads;
+
+/**
+ * Встроенный HTTP/JSON API поверх ZooManager на com.sun.net.httpserver:
+ * GET /stat, GET /show[?species=&limit=&cursor=], GET /show/{id}, GET /employees,
+ * GET /sched и POST /add (строки в формате импорта, CSV или JSONL).
+ *
+ * Каждый запрос выполняется в виртуальном потоке, если JVM их поддерживает (ищутся
+ * через рефлексию, сборка остаётся на Java 17), иначе - в пуле фиксированного размера
+ * с ограниченной очередью: при переполнении запрос выполняет поток приёма соединений,
+ * и новые соединения ждут. Большие списки пишутся потоково (chunked), без сборки ответа
+ * в памяти. Длительность каждого запроса попадает в ZooMetrics как команда "http /путь".
+ */
+public class ZooHttpServer implements Closeable {
+
+    private static final int BACKLOG = 1024;
+    private static final int MIN_THREADS = 8;
+    private static final int THREADS_PER_CPU = 4;
+    private static final int QUEUE_PER_THREAD = 64;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ADD_BODY = 16 * 1024 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+    /**
+     * Системное свойство com.sun.net.httpserver, включающее TCP_NODELAY. Без него ответ из
+     * нескольких сегментов ждёт отложенного ACK клиента (~40 мс на запрос). Свойство общее
+     * для всей JVM и читается при первом создании HttpServer, поэтому его задаёт приложение
+     * при запуске (см. Main), а не сервер.
+     */
+    public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final ZooManager zooManager;
+    private final ZooReportService reportService;
+    private final CareScheduler careScheduler;
+    private final boolean readOnly;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String executorDescription;
+
+    private ZooHttpServer(InetSocketAddress address, ZooManager zooManager, ZooReportService reportService,
+            CareScheduler careScheduler, boolean readOnly) throws IOException {
+        this.zooManager = zooManager;
+        this.reportService = reportService;
+        this.careScheduler = careScheduler;
+        this.readOnly = readOnly;
+        this.server = HttpServer.create(address, BACKLOG);
+
+        ExecutorService virtual = VirtualThreads.newPerTaskExecutor();
+        if (virtual != null) {
+            this.executor = virtual;
+            this.executorDescription = "виртуальные потоки";
+        } else {
+            int threads = Math.max(MIN_THREADS, Runtime.getRuntime().availableProcessors() * THREADS_PER_CPU);
+            this.executor = newPool(threads);
+            this.executorDescription = "пул из " + threads + " потоков";
+        }
+        server.setExecutor(executor);
+
+        server.createContext("/stat", exchange -> handle(exchange, "GET", "/stat", this::stat));
+        server.createContext("/show", exchange -> handle(exchange, "GET", "/show", this::show));
+        server.createContext("/employees", exchange -> handle(exchange, "GET", "/employees", this::employees));
+        server.createContext("/sched", exchange -> handle(exchange, "GET", "/sched", this::sched));
+        server.createContext("/add", exchange -> handle(exchange, "POST", "/add", this::add));
+        server.start();
+    }
+
+    /**
+     * Запускает сервер на address.
+     *
+     * @param readOnly запретить POST /add (ведомый узел репликации)
+     */
+    public static ZooHttpServer start(InetSocketAddress address, ZooManager zooManager,
+            ZooReportService reportService, CareScheduler careScheduler, boolean readOnly) throws IOException {
+        return new ZooHttpServer(address, zooManager, reportService, careScheduler, readOnly);
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * На чём выполняются запросы: виртуальные потоки или пул.
+     */
+    public String getExecutorDescription() {
+        return executorDescription;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String method, String metric, Handler handler) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                sendError(exchange, 405, "Метод не поддерживается: " + exchange.getRequestMethod());
+                return;
+            }
+            handler.handle(exchange);
+        } catch (IllegalArgumentException e) {
+            sendErrorIfPossible(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            sendErrorIfPossible(exchange, 500, e.toString());
+        } finally {
+            exchange.close();
+            ZooMetrics.recordCommand("http " + metric, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * GET /stat: {"total":N,"species":{"Wolf":N,...},"summary":"..."} по счётчикам ZooManager;
+     * summary - та же сводка, что выводит команда stat.
+     */
+    private void stat(HttpExchange exchange) throws IOException {
+        Map<String, Long> counts = zooManager.getSpeciesCounts();
+        long total = 0;
+        StringBuilder species = new StringBuilder();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (species.length() > 0) {
+                species.append(',');
+            }
+            Json.string(species, entry.getKey()).append(':').append(Long.toString(entry.getValue()));
+            total += entry.getValue();
+        }
+        StringBuilder body = new StringBuilder("{\"total\":").append(total)
+                .append(",\"species\":{").append(species).append("},\"summary\":");
+        Json.string(body, reportService.buildShortSummary(counts)).append('}');
+        sendJson(exchange, 200, body.toString());
+    }
+
+    /**
+     * GET /show/{id} - одно животное; GET /show - все животные или вида species,
+     * целиком потоково или страницей при заданном limit (продолжение - по cursor из next).
+     */
+    private void show(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() > "/show/".length() && path.startsWith("/show/")) {
+            Animal animal = zooManager.getAnimal(parseId(path.substring("/show/".length())));
+            if (animal == null) {
+                sendError(exchange, 404, "Животное не найдено: " + path.substring("/show/".length()));
+                return;
+            }
+            StringBuilder body = new StringBuilder();
+            writeAnimal(body, animal);
+            sendJson(exchange, 200, body.toString());
+            return;
+        }
+
+        Map<String, String> query = parseQuery(exchange);
+        String species = query.get("species");
+        String limit = query.get("limit");
+        if (limit == null) {
+            List<Animal> animals = species == null ? zooManager.getAnimals() : zooManager.getAnimalsBySpecies(species);
+            try (Writer out = startStream(exchange)) {
+                out.append("{\"total\":").append(Integer.toString(animals.size())).append(",\"items\":[");
+                writeAnimals(out, animals);
+                out.append("]}");
+            }
+            return;
+        }
+
+        int pageSize = parsePositive("limit", limit);
+        String cursor = query.get("cursor");
+        Page<Animal> page = species == null
+                ? zooManager.getAnimalsPage(cursor, pageSize)
+                : zooManager.getAnimalsBySpeciesPage(species, cursor, pageSize);
+        try (Writer out = startStream(exchange)) {
+            out.append("{\"total\":").append(Integer.toString(page.getTotal())).append(",\"items\":[");
+            writeAnimals(out, page.getItems());
+            out.append("],\"next\":");
+            Json.string(out, page.getNextCursor()).append('}');
+        }
+    }
+
+    /**
+     * GET /employees: все сотрудники потоково.
+     */
+    private void employees(HttpExchange exchange) throws IOException {
+        List<Employee> employees = zooManager.getEmployees();
+        try (Writer out = startStream(exchange)) {
+            out.append("{\"total\":").append(Integer.toString(employees.size())).append(",\"items\":[");
+            for (int i = 0; i < employees.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                writeEmployee(out, employees.get(i));
+            }
+            out.append("]}");
+        }
+    }
+
+    /**
+     * GET /sched: расписание ухода на сегодня с назначенными сотрудниками
+     * и животными, которым сотрудника не хватило, по видам ухода.
+     */
+    private void sched(HttpExchange exchange) throws IOException {
+        CareSchedule schedule = careScheduler.schedule(zooManager.getAnimals(), zooManager.getEmployees());
+        try (Writer out = startStream(exchange)) {
+            out.append('{');
+            CareType[] types = CareType.values();
+            for (int t = 0; t < types.length; t++) {
+                CareType type = types[t];
+                if (t > 0) {
+                    out.append(',');
+                }
+                Json.string(out, type.name().toLowerCase(Locale.ROOT)).append(":{\"title\":");
+                Json.string(out, type.getTitle()).append(",\"tasks\":[");
+                List<CareTask> tasks = schedule.getTasks(type);
+                for (int i = 0; i < tasks.size(); i++) {
+                    CareTask task = tasks.get(i);
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    out.append("{\"start\":\"").append(task.getStart().toString())
+                            .append("\",\"end\":\"").append(task.getEnd().toString()).append("\",\"animal\":");
+                    writeAnimal(out, task.getAnimal());
+                    out.append(",\"employee\":");
+                    writeEmployee(out, task.getEmployee());
+                    out.append('}');
+                }
+                out.append("],\"unassigned\":[");
+                writeAnimals(out, schedule.getUnassigned(type));
+                out.append("]}");
+            }
+            out.append('}');
+        }
+    }
+
+    /**
+     * POST /add: тело - строки в формате импорта (animal,wolf,Серый или JSONL).
+     * Ответ: {"animals":[id...],"employees":[id...],"errors":["строка N: ..."]};
+     * 400, если не добавлено ничего, а ошибки есть.
+     */
+    private void add(HttpExchange exchange) throws IOException {
+        if (readOnly) {
+            sendError(exchange, 403, "Узел доступен только для чтения");
+            return;
+        }
+        String body = readBody(exchange);
+        List<Animal> animals = new ArrayList<>();
+        List<Employee> employees = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        String[] lines = body.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            try {
+                Object record = BulkImporter.parseRecord(lines[i]);
+                if (record instanceof Animal animal) {
+                    animals.add(animal);
+                } else if (record != null) {
+                    employees.add((Employee) record);
+                }
+            } catch (IllegalArgumentException e) {
+                errors.add("строка " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        zooManager.addAnimals(animals);
+        zooManager.addEmployees(employees);
+
+        StringBuilder response = new StringBuilder("{\"animals\":[");
+        for (int i = 0; i < animals.size(); i++) {
+            response.append(i > 0 ? "," : "").append(animals.get(i).getId());
+        }
+        response.append("],\"employees\":[");
+        for (int i = 0; i < employees.size(); i++) {
+            response.append(i > 0 ? "," : "").append(employees.get(i).getId());
+        }
+        response.append("],\"errors\":[");
+        for (int i = 0; i < errors.size(); i++) {
+            Json.string(response.append(i > 0 ? "," : ""), errors.get(i));
+        }
+        response.append("]}");
+        boolean failed = animals.isEmpty() && employees.isEmpty() && !errors.isEmpty();
+        sendJson(exchange, failed ? 400 : 200, response.toString());
+    }
+
+    private static void writeAnimals(Appendable out, List<Animal> animals) throws IOException {
+        for (int i = 0; i < animals.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writeAnimal(out, animals.get(i));
+        }
+    }
+
+    private static void writeAnimal(Appendable out, Animal animal) throws IOException {
+        out.append("{\"id\":").append(Long.toString(animal.getId())).append(",\"name\":");
+        Json.string(out, animal.getName()).append(",\"species\":");
+        Json.string(out, animal.getSpecies()).append('}');
+    }
+
+    private static void writeEmployee(Appendable out, Employee employee) throws IOException {
+        out.append("{\"id\":").append(Long.toString(employee.getId())).append(",\"name\":");
+        Json.string(out, employee.getName()).append(",\"role\":");
+        Json.string(out, employee.getRole()).append('}');
+    }
+
+    /**
+     * Отправляет заголовки потокового ответа 200 и возвращает буферизованный писатель тела.
+     */
+    private static Writer startStream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                OUTPUT_BUFFER_SIZE);
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder body = new StringBuilder("{\"error\":");
+        Json.string(body, message).append('}');
+        sendJson(exchange, status, body.toString());
+    }
+
+    /**
+     * Отправляет ошибку, если заголовки ответа ещё не ушли; иначе ответ просто обрывается.
+     */
+    private static void sendErrorIfPossible(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() == -1) {
+            sendError(exchange, status, message);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_ADD_BODY + 1);
+            if (bytes.length > MAX_ADD_BODY) {
+                throw new IllegalArgumentException("Тело запроса больше " + MAX_ADD_BODY + " байт");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value.startsWith("#") ? value.substring(1) : value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный идентификатор: " + value);
+        }
+    }
+
+    private static int parsePositive(String name, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Сообщение ниже
+        }
+        throw new IllegalArgumentException("Параметр " + name + " должен быть положительным числом: " + value);
+    }
+
+    /**
+     * Пул для JVM без виртуальных потоков: обработчики ждут в основном на записи ответа
+     * в сокет, поэтому потоков в несколько раз больше, чем процессоров.
+     */
+    private static ExecutorService newPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD), runnable -> {
+                    Thread thread = new Thread(runnable, "zoo-http-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.prestartAllCoreThreads();
+        return pool;
+    }
+}
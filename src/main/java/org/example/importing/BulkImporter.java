@@ -0,0 +1,397 @@
+package org.example.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.example.ReflectionUtils;
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Массовый импорт животных и сотрудников из CSV/JSONL файлов.
+ *
+ * Формат CSV: {@code вид_записи,тип,имя}, например {@code animal,wolf,Серый}. Имя в кавычках
+ * читается по RFC 4180: {@code ""} внутри - кавычка, а перевод строки продолжает запись
+ * на следующей строке файла (прочитанный перевод строки - всегда \n).
+ * Формат JSONL: {@code {"kind":"employee","type":"keeper","name":"Иван"}}.
+ * Вид записи: animal/a/-a или employee/e/-e. Пустые строки и строки с '#' пропускаются.
+ *
+ * Файл читается потоково, строки разбираются параллельными блоками,
+ * а готовые блоки загружаются в ZooManager пачками в исходном порядке.
+ * Ошибочные строки не прерывают импорт: в отчёт попадают первые MAX_REPORTED_ERRORS
+ * сообщений и общее число ошибок, поэтому файл с ошибкой в каждой строке не переполняет память.
+ */
+public class BulkImporter {
+
+    private static final int CHUNK_SIZE = 8192;
+    /** Сколько строк файла может занять одна запись с переводами строк в имени в кавычках. */
+    private static final int MAX_RECORD_LINES = 16;
+    /** Сколько сообщений об ошибках сохраняется в отчёте; остальные ошибки только считаются. */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ZooManager zooManager;
+    private final int parallelism;
+
+    public BulkImporter(ZooManager zooManager) {
+        this(zooManager, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BulkImporter(ZooManager zooManager, int parallelism) {
+        this.zooManager = zooManager;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Импортирует файл целиком.
+     *
+     * @throws IOException если файл не удалось прочитать
+     */
+    public ImportResult importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+        long animals = 0;
+        long employees = 0;
+        List<String> errors = new ArrayList<>();
+        long errorCount = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Deque<CompletableFuture<ParsedChunk>> inFlight = new ArrayDeque<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int continued = 0;
+                if (hasOpenQuote(line)) {
+                    StringBuilder record = new StringBuilder(line);
+                    String next;
+                    while (continued < MAX_RECORD_LINES - 1 && hasOpenQuote(record)
+                            && (next = reader.readLine()) != null) {
+                        record.append('\n').append(next);
+                        continued++;
+                    }
+                    line = record.toString();
+                }
+                lines.add(line);
+                // Пустые строки вместо продолжений сохраняют номера строк файла в сообщениях об ошибках
+                for (int i = 0; i < continued; i++) {
+                    lines.add("");
+                }
+                if (lines.size() >= CHUNK_SIZE) {
+                    inFlight.add(submit(executor, lines, lineNumber + 1));
+                    lineNumber += lines.size();
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                }
+                // Ограничиваем число блоков в памяти, чтобы импорт шёл потоково
+                if (inFlight.size() > parallelism * 2) {
+                    ParsedChunk chunk = inFlight.poll().join();
+                    apply(chunk, errors);
+                    animals += chunk.animals.size();
+                    employees += chunk.employees.size();
+                    errorCount += chunk.errorCount;
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(executor, lines, lineNumber + 1));
+            }
+            while (!inFlight.isEmpty()) {
+                ParsedChunk chunk = inFlight.poll().join();
+                apply(chunk, errors);
+                animals += chunk.animals.size();
+                employees += chunk.employees.size();
+                errorCount += chunk.errorCount;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new ImportResult(animals, employees, errors, errorCount, System.nanoTime() - start);
+    }
+
+    private CompletableFuture<ParsedChunk> submit(ExecutorService executor, List<String> lines, long firstLine) {
+        return CompletableFuture.supplyAsync(() -> parseChunk(lines, firstLine), executor);
+    }
+
+    private void apply(ParsedChunk chunk, List<String> errors) {
+        zooManager.addAnimals(chunk.animals);
+        zooManager.addEmployees(chunk.employees);
+        for (String error : chunk.errors) {
+            if (errors.size() == MAX_REPORTED_ERRORS) {
+                break;
+            }
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Разбирает блок строк и создаёт сущности через ReflectionUtils.
+     */
+    private static ParsedChunk parseChunk(List<String> lines, long firstLine) {
+        ParsedChunk chunk = new ParsedChunk();
+        for (int i = 0; i < lines.size(); i++) {
+            long lineNumber = firstLine + i;
+            try {
+                Object record = parseRecord(lines.get(i));
+                if (record instanceof Animal animal) {
+                    chunk.animals.add(animal);
+                } else if (record != null) {
+                    chunk.employees.add((Employee) record);
+                }
+            } catch (IllegalArgumentException e) {
+                if (chunk.errors.size() < MAX_REPORTED_ERRORS) {
+                    chunk.errors.add("строка " + lineNumber + ": " + e.getMessage());
+                }
+                chunk.errorCount++;
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Разбирает одну строку импорта (CSV или JSONL) и создаёт сущность.
+     *
+     * @return Animal или Employee; null для пустой строки и комментария
+     * @throws IllegalArgumentException если строка некорректна
+     */
+    public static Object parseRecord(String line) {
+        String stripped = line.strip();
+        if (stripped.isEmpty() || stripped.startsWith("#")) {
+            return null;
+        }
+        String[] record = stripped.startsWith("{") ? parseJsonLine(stripped) : parseCsvLine(stripped);
+        return record == null ? null : createRecord(record[0], record[1], record[2]);
+    }
+
+    private static Object createRecord(String kind, String type, String name) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("пустое имя");
+        }
+        String lowerType = type.toLowerCase(Locale.ROOT);
+        switch (kind.toLowerCase(Locale.ROOT)) {
+            case "animal", "a", "-a" -> {
+                Animal animal = ReflectionUtils.createAnimalByType(lowerType, name);
+                if (animal == null) {
+                    throw new IllegalArgumentException("неизвестный тип животного: " + type);
+                }
+                return animal;
+            }
+            case "employee", "e", "-e" -> {
+                Employee employee = ReflectionUtils.createEmployeeByType(lowerType, name);
+                if (employee == null) {
+                    throw new IllegalArgumentException("неизвестный тип сотрудника: " + type);
+                }
+                return employee;
+            }
+            default -> throw new IllegalArgumentException("неизвестный вид записи: " + kind);
+        }
+    }
+
+    /**
+     * CSV строка {@code animal,тип,имя}, которую принимает импорт (например, в другом зоопарке).
+     */
+    public static String toCsvLine(Animal animal) {
+        return "animal," + animal.getClass().getSimpleName().toLowerCase(Locale.ROOT) + "," + csvName(animal.getName());
+    }
+
+    /**
+     * CSV строка {@code employee,тип,имя}, которую принимает импорт.
+     */
+    public static String toCsvLine(Employee employee) {
+        return "employee," + employee.getClass().getSimpleName().toLowerCase(Locale.ROOT) + "," + csvName(employee.getName());
+    }
+
+    /**
+     * Имя в кавычках по RFC 4180, если оно содержит запятую, кавычку или перевод строки
+     * либо пробелы по краям (их срезал бы разбор); иначе как есть.
+     */
+    private static String csvName(String name) {
+        boolean quote = !name.equals(name.strip());
+        for (int i = 0; i < name.length() && !quote; i++) {
+            char c = name.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        return quote ? "\"" + name.replace("\"", "\"\"") + "\"" : name;
+    }
+
+    /**
+     * Начинается ли в CSV записи имя в кавычках, которое ещё не закрыто
+     * (нечётное число кавычек в поле имени): тогда запись продолжается на следующей строке.
+     */
+    private static boolean hasOpenQuote(CharSequence record) {
+        int pos = 0;
+        while (pos < record.length() && Character.isWhitespace(record.charAt(pos))) {
+            pos++;
+        }
+        if (pos == record.length() || record.charAt(pos) == '{' || record.charAt(pos) == '#') {
+            return false;
+        }
+        for (int commas = 0; commas < 2; pos++) {
+            if (pos == record.length()) {
+                return false;
+            }
+            if (record.charAt(pos) == ',') {
+                commas++;
+            }
+        }
+        while (pos < record.length() && Character.isWhitespace(record.charAt(pos))) {
+            pos++;
+        }
+        if (pos == record.length() || record.charAt(pos) != '"') {
+            return false;
+        }
+        int quotes = 0;
+        for (; pos < record.length(); pos++) {
+            if (record.charAt(pos) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 == 1;
+    }
+
+    /**
+     * Разбирает CSV строку {@code вид,тип,имя}. Имя может содержать запятые.
+     * Строка-заголовок {@code kind,type,name} пропускается (возвращается null).
+     */
+    private static String[] parseCsvLine(String line) {
+        String[] parts = line.split(",", 3);
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("ожидается 'вид,тип,имя'");
+        }
+        String kind = unquote(parts[0].strip());
+        if ("kind".equalsIgnoreCase(kind)) {
+            return null;
+        }
+        if (hasOpenQuote(line)) {
+            throw new IllegalArgumentException("незакрытая кавычка в имени");
+        }
+        return new String[]{kind, unquote(parts[1].strip()), unquote(parts[2].strip())};
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+
+    /**
+     * Разбирает плоский JSON объект со строковыми полями kind, type и name.
+     */
+    private static String[] parseJsonLine(String line) {
+        String kind = null;
+        String type = null;
+        String name = null;
+
+        int[] pos = {1};
+        skipWhitespace(line, pos);
+        if (pos[0] < line.length() && line.charAt(pos[0]) == '}') {
+            throw new IllegalArgumentException("пустой объект");
+        }
+        while (true) {
+            skipWhitespace(line, pos);
+            String key = readJsonString(line, pos);
+            skipWhitespace(line, pos);
+            expect(line, pos, ':');
+            skipWhitespace(line, pos);
+            String value = readJsonString(line, pos);
+            switch (key) {
+                case "kind" -> kind = value;
+                case "type" -> type = value;
+                case "name" -> name = value;
+                default -> {
+                    // Лишние поля игнорируются
+                }
+            }
+            skipWhitespace(line, pos);
+            if (pos[0] >= line.length()) {
+                throw new IllegalArgumentException("незакрытый JSON объект");
+            }
+            char c = line.charAt(pos[0]++);
+            if (c == '}') {
+                break;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("ожидается ',' или '}' в позиции " + (pos[0] - 1));
+            }
+        }
+
+        if (kind == null || type == null || name == null) {
+            throw new IllegalArgumentException("ожидаются поля kind, type и name");
+        }
+        return new String[]{kind, type, name.strip()};
+    }
+
+    private static String readJsonString(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder builder = new StringBuilder();
+        while (pos[0] < line.length()) {
+            char c = line.charAt(pos[0]++);
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (pos[0] >= line.length()) {
+                break;
+            }
+            char escaped = line.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n' -> builder.append('\n');
+                case 't' -> builder.append('\t');
+                case 'r' -> builder.append('\r');
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'u' -> {
+                    if (pos[0] + 4 > line.length()) {
+                        throw new IllegalArgumentException("неполная escape-последовательность \\u");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(line.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("некорректная escape-последовательность \\u");
+                    }
+                    pos[0] += 4;
+                }
+                default -> builder.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("незакрытая строка");
+    }
+
+    private static void expect(String line, int[] pos, char expected) {
+        if (pos[0] >= line.length() || line.charAt(pos[0]) != expected) {
+            throw new IllegalArgumentException("ожидается '" + expected + "' в позиции " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static void skipWhitespace(String line, int[] pos) {
+        while (pos[0] < line.length() && Character.isWhitespace(line.charAt(pos[0]))) {
+            pos[0]++;
+        }
+    }
+
+    /**
+     * Результат разбора одного блока строк.
+     */
+    private static final class ParsedChunk {
+        private final List<Animal> animals = new ArrayList<>();
+        private final List<Employee> employees = new ArrayList<>();
+        /** Первые MAX_REPORTED_ERRORS сообщений блока. */
+        private final List<String> errors = new ArrayList<>();
+        private long errorCount;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.importing;
+
+import java.util.List;
+
+/**
+ * Итог массового импорта: количество загруженных записей, число ошибок с первыми сообщениями
+ * о них и время работы.
+ */
+public class ImportResult {
+
+    private final long animalsImported;
+    private final long employeesImported;
+    private final List<String> errors;
+    private final long errorCount;
+    private final long elapsedNanos;
+
+    /**
+     * @param errors     сообщения о первых ошибках (не больше, чем ошибок всего)
+     * @param errorCount число всех ошибочных строк
+     */
+    public ImportResult(long animalsImported, long employeesImported, List<String> errors, long errorCount,
+            long elapsedNanos) {
+        this.animalsImported = animalsImported;
+        this.employeesImported = employeesImported;
+        this.errors = List.copyOf(errors);
+        this.errorCount = errorCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getAnimalsImported() {
+        return animalsImported;
+    }
+
+    public long getEmployeesImported() {
+        return employeesImported;
+    }
+
+    /**
+     * Сообщения о первых ошибках в формате "строка N: причина"; их может быть меньше getErrorCount().
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Число всех строк, которые не удалось импортировать.
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Пропускная способность: обработанные строки с данными (включая ошибочные) в секунду.
+     */
+    public double getRecordsPerSecond() {
+        long records = animalsImported + employeesImported + errorCount;
+        return elapsedNanos == 0 ? records : records * 1_000_000_000.0 / elapsedNanos;
+    }
+}
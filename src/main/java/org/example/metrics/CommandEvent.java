@@ -0,0 +1,23 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-событие выполнения команды консоли.
+ */
+@Name("org.example.Command")
+@Label("Zoo Command")
+@Category("Zoo")
+@Description("Выполнение команды Main")
+public class CommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Success")
+    public boolean success;
+}
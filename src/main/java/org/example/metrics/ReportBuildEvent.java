@@ -0,0 +1,20 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-событие построения отчёта ZooReportService.
+ */
+@Name("org.example.ReportBuild")
+@Label("Zoo Report Build")
+@Category("Zoo")
+@Description("Построение или потоковая запись отчёта")
+public class ReportBuildEvent extends Event {
+
+    @Label("Report")
+    public String report;
+}
@@ -0,0 +1,27 @@
+package org.example.metrics;
+
+/**
+ * Замер построения одного отчёта: пишет длительность в гистограмму ZooMetrics
+ * и JFR-событие ReportBuildEvent при закрытии.
+ */
+public final class ReportTimer implements AutoCloseable {
+
+    private final String report;
+    private final ReportBuildEvent event = new ReportBuildEvent();
+    private final long start;
+
+    ReportTimer(String report) {
+        this.report = report;
+        event.begin();
+        this.start = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        ZooMetrics.recordReport(report, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.report = report;
+            event.commit();
+        }
+    }
+}
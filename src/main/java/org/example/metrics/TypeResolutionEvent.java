@@ -0,0 +1,23 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-событие рефлексивного разрешения имени типа (промах кэша фабрик ReflectionUtils).
+ */
+@Name("org.example.TypeResolution")
+@Label("Zoo Type Resolution")
+@Category("Zoo")
+@Description("Поиск класса и компиляция фабрики по имени типа")
+public class TypeResolutionEvent extends Event {
+
+    @Label("Type Name")
+    public String typeName;
+
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,39 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Периодическое JFR-событие со значениями счётчиков ZooMetrics (раз в секунду).
+ */
+@Name("org.example.ZooCounters")
+@Label("Zoo Counters")
+@Category("Zoo")
+@Description("Счётчики добавлений, обращений к ReflectionUtils и кэша отчётов")
+@Period("1 s")
+@StackTrace(false)
+public class ZooCountersEvent extends Event {
+
+    @Label("Animals Added")
+    public long animalsAdded;
+
+    @Label("Employees Added")
+    public long employeesAdded;
+
+    @Label("Factory Lookups")
+    public long factoryLookups;
+
+    @Label("Reflective Resolutions")
+    public long reflectiveResolutions;
+
+    @Label("Report Cache Hits")
+    public long reportCacheHits;
+
+    @Label("Report Cache Misses")
+    public long reportCacheMisses;
+}
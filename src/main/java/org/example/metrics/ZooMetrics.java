@@ -0,0 +1,146 @@
+package org.example.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Встроенные метрики: гистограммы задержек команд и отчётов, счётчики добавлений,
+ * обращений к ReflectionUtils и кэша отчётов. Те же данные публикуются JFR-событиями
+ * (CommandEvent, ReportBuildEvent, TypeResolutionEvent, ZooCountersEvent),
+ * которые ничего не стоят, пока запись JFR выключена.
+ */
+public final class ZooMetrics {
+
+    private static final LongAdder ANIMALS_ADDED = new LongAdder();
+    private static final LongAdder EMPLOYEES_ADDED = new LongAdder();
+    private static final LongAdder FACTORY_LOOKUPS = new LongAdder();
+    private static final LongAdder REFLECTIVE_RESOLUTIONS = new LongAdder();
+    private static final LongAdder REPORT_CACHE_HITS = new LongAdder();
+    private static final LongAdder REPORT_CACHE_MISSES = new LongAdder();
+    private static final LongAdder REPORT_CACHE_EVICTIONS = new LongAdder();
+
+    private static final Map<String, LatencyHistogram> COMMANDS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> REPORTS = new ConcurrentSkipListMap<>();
+
+    static {
+        FlightRecorder.addPeriodicEvent(ZooCountersEvent.class, () -> {
+            ZooCountersEvent event = new ZooCountersEvent();
+            event.animalsAdded = ANIMALS_ADDED.sum();
+            event.employeesAdded = EMPLOYEES_ADDED.sum();
+            event.factoryLookups = FACTORY_LOOKUPS.sum();
+            event.reflectiveResolutions = REFLECTIVE_RESOLUTIONS.sum();
+            event.reportCacheHits = REPORT_CACHE_HITS.sum();
+            event.reportCacheMisses = REPORT_CACHE_MISSES.sum();
+            event.commit();
+        });
+    }
+
+    private ZooMetrics() {
+    }
+
+    public static void animalsAdded(long count) {
+        ANIMALS_ADDED.add(count);
+    }
+
+    public static void employeesAdded(long count) {
+        EMPLOYEES_ADDED.add(count);
+    }
+
+    /**
+     * Обращение к кэшу фабрик ReflectionUtils.
+     */
+    public static void factoryLookup() {
+        FACTORY_LOOKUPS.increment();
+    }
+
+    /**
+     * Рефлексивное разрешение типа (промах кэша).
+     */
+    public static void reflectiveResolution(String typeName, boolean found) {
+        REFLECTIVE_RESOLUTIONS.increment();
+        TypeResolutionEvent event = new TypeResolutionEvent();
+        if (event.shouldCommit()) {
+            event.typeName = typeName;
+            event.found = found;
+            event.commit();
+        }
+    }
+
+    /**
+     * Отчёт выдан из ReportCache без построения.
+     */
+    public static void reportCacheHit() {
+        REPORT_CACHE_HITS.increment();
+    }
+
+    /**
+     * Отчёта нужной версии в ReportCache не было, он построен заново.
+     */
+    public static void reportCacheMiss() {
+        REPORT_CACHE_MISSES.increment();
+    }
+
+    /**
+     * Отчёт вытеснен из ReportCache из-за ограничения памяти.
+     */
+    public static void reportCacheEviction() {
+        REPORT_CACHE_EVICTIONS.increment();
+    }
+
+    public static void recordCommand(String command, long nanos) {
+        COMMANDS.computeIfAbsent(command, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Начинает замер отчёта; закрытие таймера записывает его длительность.
+     */
+    public static ReportTimer startReport(String report) {
+        return new ReportTimer(report);
+    }
+
+    public static void recordReport(String report, long nanos) {
+        REPORTS.computeIfAbsent(report, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Пишет текущие значения всех метрик.
+     */
+    public static void writeTo(Appendable out) throws IOException {
+        out.append("Счётчики:\n");
+        out.append("  Добавлено животных: ").append(Long.toString(ANIMALS_ADDED.sum())).append("\n");
+        out.append("  Добавлено сотрудников: ").append(Long.toString(EMPLOYEES_ADDED.sum())).append("\n");
+        out.append("  Обращений к фабрикам ReflectionUtils: ").append(Long.toString(FACTORY_LOOKUPS.sum())).append("\n");
+        out.append("  Рефлексивных разрешений типов: ").append(Long.toString(REFLECTIVE_RESOLUTIONS.sum())).append("\n");
+        out.append("  Кэш отчётов: попаданий ").append(Long.toString(REPORT_CACHE_HITS.sum()))
+                .append(", промахов ").append(Long.toString(REPORT_CACHE_MISSES.sum()))
+                .append(", вытеснений ").append(Long.toString(REPORT_CACHE_EVICTIONS.sum())).append("\n");
+        out.append("\nКоманды (мс: p50 / p95 / p99 / max):\n");
+        writeHistograms(COMMANDS, out);
+        out.append("\nОтчёты (мс: p50 / p95 / p99 / max):\n");
+        writeHistograms(REPORTS, out);
+    }
+
+    private static void writeHistograms(Map<String, LatencyHistogram> histograms, Appendable out) throws IOException {
+        if (histograms.isEmpty()) {
+            out.append("  нет данных\n");
+            return;
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            out.append("  ").append(entry.getKey()).append(": ")
+                    .append(Long.toString(histogram.getCount())).append(" шт., ")
+                    .append(millis(histogram.percentile(0.50))).append(" / ")
+                    .append(millis(histogram.percentile(0.95))).append(" / ")
+                    .append(millis(histogram.percentile(0.99))).append(" / ")
+                    .append(millis(histogram.getMaxNanos())).append("\n");
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import org.example.ReflectionUtils;
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Двоичные записи журнала и снимка, строки в UTF-8:
+ * добавление или замена сущности - [вид:1][идентификатор:8][длина типа:2][тип][длина имени:4][имя],
+ * удаление - [вид:1][идентификатор:8].
+ * Тип - простое имя класса, по нему сущность воссоздаётся через фабрики ReflectionUtils.
+ * Виды 1 и 2 - записи прежнего формата без идентификатора ([вид:1][длина типа:2][тип][длина имени:4][имя]);
+ * они только читаются, а сущность получает новый идентификатор при добавлении.
+ */
+final class EntityCodec {
+
+    static final byte KIND_ANIMAL = 1;
+    static final byte KIND_EMPLOYEE = 2;
+    static final byte KIND_ANIMAL_WITH_ID = 3;
+    static final byte KIND_EMPLOYEE_WITH_ID = 4;
+    static final byte KIND_REMOVED = 5;
+    static final byte KIND_ANIMAL_REPLACED = 6;
+    static final byte KIND_EMPLOYEE_REPLACED = 7;
+
+    static final int REMOVAL_SIZE = 1 + 8;
+
+    private static final ClassValue<byte[]> TYPE_NAMES = new ClassValue<>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return type.getSimpleName().getBytes(StandardCharsets.UTF_8);
+        }
+    };
+
+    private EntityCodec() {
+    }
+
+    static byte[] typeName(Object entity) {
+        return TYPE_NAMES.get(entity.getClass());
+    }
+
+    static int encodedSize(byte[] type, byte[] name) {
+        return 1 + 8 + 2 + type.length + 4 + name.length;
+    }
+
+    static void write(ByteBuffer buffer, byte kind, long id, byte[] type, byte[] name) {
+        buffer.put(kind);
+        buffer.putLong(id);
+        buffer.putShort((short) type.length);
+        buffer.put(type);
+        buffer.putInt(name.length);
+        buffer.put(name);
+    }
+
+    static void writeRemoval(ByteBuffer buffer, long id) {
+        buffer.put(KIND_REMOVED);
+        buffer.putLong(id);
+    }
+
+    /**
+     * Читает одну запись из буфера.
+     *
+     * @return добавленный Animal или Employee (с идентификатором, если он записан), Removal или Replacement
+     * @throws IllegalStateException если вид или тип записи неизвестен
+     */
+    static Object read(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        if (kind < KIND_ANIMAL || kind > KIND_EMPLOYEE_REPLACED) {
+            throw new IllegalStateException("Неизвестный вид записи: " + kind);
+        }
+        long id = kind == KIND_ANIMAL || kind == KIND_EMPLOYEE ? 0 : buffer.getLong();
+        if (kind == KIND_REMOVED) {
+            return new Removal(id);
+        }
+        String type = readString(buffer, buffer.getShort() & 0xFFFF);
+        String name = readString(buffer, buffer.getInt());
+        boolean animal = kind == KIND_ANIMAL || kind == KIND_ANIMAL_WITH_ID || kind == KIND_ANIMAL_REPLACED;
+        Object entity;
+        if (animal) {
+            Animal created = create(ReflectionUtils.getAnimalFactory(type), type, name);
+            created.assignId(id);
+            entity = created;
+        } else {
+            Employee created = create(ReflectionUtils.getEmployeeFactory(type), type, name);
+            created.assignId(id);
+            entity = created;
+        }
+        return kind == KIND_ANIMAL_REPLACED || kind == KIND_EMPLOYEE_REPLACED ? new Replacement(entity) : entity;
+    }
+
+    /**
+     * Вид записи добавления (replaced == false) или замены сущности.
+     */
+    static byte kindOf(Object entity, boolean replaced) {
+        if (entity instanceof Animal) {
+            return replaced ? KIND_ANIMAL_REPLACED : KIND_ANIMAL_WITH_ID;
+        }
+        if (entity instanceof Employee) {
+            return replaced ? KIND_EMPLOYEE_REPLACED : KIND_EMPLOYEE_WITH_ID;
+        }
+        throw new IllegalArgumentException("Неподдерживаемая сущность: " + entity);
+    }
+
+    static long idOf(Object entity) {
+        return entity instanceof Animal animal ? animal.getId() : ((Employee) entity).getId();
+    }
+
+    static byte[] nameOf(Object entity) {
+        String name = entity instanceof Animal animal ? animal.getName() : ((Employee) entity).getName();
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static <T> T create(Function<String, T> factory, String type, String name) {
+        if (factory == null) {
+            throw new IllegalStateException("Неизвестный тип сущности: " + type);
+        }
+        return factory.apply(name);
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Некорректная длина строки: " + length);
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * Запись об удалении сущности.
+     */
+    static final class Removal {
+        final long id;
+
+        Removal(long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Запись о замене сущности; entity несёт идентификатор заменяемой.
+     */
+    static final class Replacement {
+        final Object entity;
+
+        Replacement(Object entity) {
+            this.entity = entity;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.persistence;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Растущий буфер записей журнала в формате [длина данных:4][CRC32 данных:4][данные EntityCodec].
+ * Тот же формат передаётся ведомым узлам репликации. Не потокобезопасен: владелец
+ * сериализует доступ своей блокировкой.
+ */
+final class RecordBuffer {
+
+    static final int RECORD_HEADER = 8;
+
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer;
+
+    RecordBuffer(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    /**
+     * Дописывает записи добавления сущностей.
+     *
+     * @return число дописанных байт
+     */
+    int appendAll(List<?> entities) {
+        int appended = 0;
+        for (Object entity : entities) {
+            appended += appendEntity(entity, false);
+        }
+        return appended;
+    }
+
+    /**
+     * Дописывает запись добавления (replaced == false) или замены сущности.
+     *
+     * @return число дописанных байт
+     */
+    int appendEntity(Object entity, boolean replaced) {
+        byte[] type = EntityCodec.typeName(entity);
+        byte[] name = EntityCodec.nameOf(entity);
+        int size = EntityCodec.encodedSize(type, name);
+        int start = beginRecord(size);
+        EntityCodec.write(buffer, EntityCodec.kindOf(entity, replaced), EntityCodec.idOf(entity), type, name);
+        return endRecord(start, size);
+    }
+
+    int appendRemoval(long id) {
+        int start = beginRecord(EntityCodec.REMOVAL_SIZE);
+        EntityCodec.writeRemoval(buffer, id);
+        return endRecord(start, EntityCodec.REMOVAL_SIZE);
+    }
+
+    /**
+     * Число байт в буфере.
+     */
+    int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Забирает накопленные записи (буфер готов к чтению) и начинает новый буфер ёмкостью nextCapacity.
+     */
+    ByteBuffer detach(int nextCapacity) {
+        ByteBuffer detached = buffer;
+        buffer = ByteBuffer.allocate(nextCapacity);
+        return detached.flip();
+    }
+
+    /**
+     * Размер целых записей, начиная со смещения offset, суммарно не больше maxBytes
+     * (но не меньше одной записи, если она есть).
+     */
+    int span(int offset, int maxBytes) {
+        int end = offset;
+        int limit = buffer.position();
+        while (end < limit) {
+            int next = end + RECORD_HEADER + buffer.getInt(end);
+            if (next - offset > maxBytes && end > offset) {
+                break;
+            }
+            end = next;
+        }
+        return end - offset;
+    }
+
+    void copy(int offset, int length, ByteBuffer target) {
+        target.put(buffer.array(), offset, length);
+    }
+
+    /**
+     * Отбрасывает целые записи из начала буфера, пока не останется не больше keepBytes.
+     *
+     * @return число отброшенных байт
+     */
+    int discardOldest(int keepBytes) {
+        int offset = 0;
+        int limit = buffer.position();
+        while (limit - offset > keepBytes) {
+            offset += RECORD_HEADER + buffer.getInt(offset);
+        }
+        if (offset > 0) {
+            buffer.flip().position(offset);
+            buffer.compact();
+        }
+        return offset;
+    }
+
+    /**
+     * Читает одну запись из records, проверяя её длину и контрольную сумму.
+     *
+     * @return результат EntityCodec.read
+     * @throws IllegalStateException если запись обрезана или повреждена
+     */
+    static Object read(ByteBuffer records, CRC32 checksum) {
+        if (records.remaining() < RECORD_HEADER) {
+            throw new IllegalStateException("Обрезанный заголовок записи");
+        }
+        int size = records.getInt();
+        int expectedCrc = records.getInt();
+        if (size <= 0 || size > records.remaining()) {
+            throw new IllegalStateException("Некорректная длина записи: " + size);
+        }
+        ByteBuffer record = records.slice(records.position(), size);
+        checksum.reset();
+        checksum.update(record.duplicate());
+        if ((int) checksum.getValue() != expectedCrc) {
+            throw new IllegalStateException("Контрольная сумма записи не совпадает");
+        }
+        records.position(records.position() + size);
+        return EntityCodec.read(record);
+    }
+
+    /**
+     * Резервирует место под запись размера size и возвращает позицию её заголовка.
+     */
+    private int beginRecord(int size) {
+        ensureCapacity(RECORD_HEADER + size);
+        int start = buffer.position();
+        buffer.position(start + RECORD_HEADER);
+        return start;
+    }
+
+    private int endRecord(int start, int size) {
+        crc.reset();
+        crc.update(buffer.array(), start + RECORD_HEADER, size);
+        buffer.putInt(start, size);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return RECORD_HEADER + size;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (buffer.remaining() < extra) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Собирает записи журнала в пачки подряд идущих сущностей одного вида,
+ * чтобы применять их через addAnimals/addEmployees с сохранением порядка;
+ * удаления и замены применяются по одной после сброса накопленной пачки.
+ */
+final class ReplayBatcher {
+
+    private static final int REPLAY_BATCH = 8192;
+
+    private final ZooManager zooManager;
+    private final List<Animal> animals = new ArrayList<>();
+    private final List<Employee> employees = new ArrayList<>();
+
+    ReplayBatcher(ZooManager zooManager) {
+        this.zooManager = zooManager;
+    }
+
+    void accept(Object entity) {
+        if (entity instanceof EntityCodec.Removal removal) {
+            flush();
+            if (zooManager.removeAnimal(removal.id) == null) {
+                zooManager.removeEmployee(removal.id);
+            }
+            return;
+        }
+        if (entity instanceof EntityCodec.Replacement replacement) {
+            flush();
+            if (replacement.entity instanceof Animal animal) {
+                zooManager.updateAnimal(animal.getId(), animal);
+            } else {
+                Employee employee = (Employee) replacement.entity;
+                zooManager.updateEmployee(employee.getId(), employee);
+            }
+            return;
+        }
+        if (entity instanceof Animal animal) {
+            if (!employees.isEmpty()) {
+                flush();
+            }
+            animals.add(animal);
+        } else {
+            if (!animals.isEmpty()) {
+                flush();
+            }
+            employees.add((Employee) entity);
+        }
+        if (animals.size() + employees.size() >= REPLAY_BATCH) {
+            flush();
+        }
+    }
+
+    void flush() {
+        zooManager.addAnimals(animals);
+        zooManager.addEmployees(employees);
+        animals.clear();
+        employees.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Кадры протокола репликации: [тип:1][длина данных:4][данные].
+ * HELLO (ведомый - ведущему): [эпоха:8][позиция:8] - с какой позиции потока продолжить;
+ * позиция -1 - у ведомого нет состояния.
+ * SNAPSHOT: [эпоха:8][снимок ZooSnapshot], смещение журнала в снимке - позиция потока после него.
+ * RECORDS: [позиция:8][записи RecordBuffer] - целые записи журнала, начиная с позиции потока.
+ * Эпоха случайна для каждого запуска ведущего: позиции другого запуска ничего не значат.
+ */
+final class ReplicationFrames {
+
+    static final byte HELLO = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte RECORDS = 3;
+
+    static final int HEADER = 1 + 4;
+    static final int HELLO_SIZE = 8 + 8;
+    /** Записи копятся в один кадр RECORDS примерно до такого размера. */
+    static final int MAX_RECORDS_PAYLOAD = 1024 * 1024;
+    /**
+     * Наибольшая запись, которую можно передать: с запасом больше любой сущности, добавляемой
+     * через импорт или HTTP (тело POST /add не больше 16 МБ).
+     */
+    static final int MAX_RECORD_SIZE = 16 * 1024 * 1024 + 1024;
+    /**
+     * Предел данных кадра RECORDS: позиция и записи до MAX_RECORDS_PAYLOAD плюс одна запись,
+     * которой кадр может превысить этот размер. Ведомый не принимает кадры длиннее.
+     */
+    static final int MAX_RECORDS_FRAME = 8 + MAX_RECORDS_PAYLOAD + MAX_RECORD_SIZE;
+
+    private ReplicationFrames() {
+    }
+
+    /**
+     * Начинает кадр: буфер под заголовок и payloadSize байт данных с записанным заголовком.
+     */
+    static ByteBuffer allocate(byte type, int payloadSize) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER + payloadSize);
+        frame.put(type);
+        frame.putInt(payloadSize);
+        return frame;
+    }
+
+    static ByteBuffer hello(long epoch, long position) {
+        ByteBuffer frame = allocate(HELLO, HELLO_SIZE);
+        frame.putLong(epoch);
+        frame.putLong(position);
+        return frame.flip();
+    }
+}
@@ -0,0 +1,544 @@
+package org.example.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.example.ZooChangeListener;
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Журнал изменений (добавления, удаления и замены сущностей), открытый только на дозапись.
+ * Запись: [длина данных:4][CRC32 данных:4][данные EntityCodec].
+ *
+ * Журнал хранится сегментами - файлами file.<позиция начала, 20 цифр>; позиции записей
+ * сквозные через все сегменты. startSegment() (при снимке) начинает новый сегмент,
+ * а deleteSegmentsBefore удаляет сегменты, целиком учтённые снимком. Файл file без
+ * суффикса (журнал до разбиения на сегменты) считается сегментом с позиции 0.
+ *
+ * Изменения копятся в буфере в памяти, а фоновый поток пишет их одной порцией в FileChannel
+ * и делает fsync - групповая фиксация. Писатель ZooManager после снятия блокировок ждёт
+ * в awaitDurable, пока fsync покроет его запись, поэтому подтверждённое изменение после сбоя
+ * не теряется; пока идёт один fsync, записи остальных писателей копятся для следующего.
+ * Без ожидающих буфер сбрасывается раз в flushIntervalMillis или когда вырос. sync()
+ * сбрасывает буфер синхронно. После ошибки записи журнал отвергает изменения
+ * в checkWritable, до их применения в ZooManager.
+ */
+public class ZooJournal implements ZooChangeListener, Closeable {
+
+    private static final int RECORD_HEADER = RecordBuffer.RECORD_HEADER;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final int GROUP_COMMIT_BYTES = 1024 * 1024;
+    private static final int READ_BUFFER = 1024 * 1024;
+    private static final int SEGMENT_SUFFIX_DIGITS = 20;
+
+    private final Path file;
+    private final long flushIntervalMillis;
+    private final Object appendLock = new Object();
+    private final Object flushLock = new Object();
+    /** Монитор ожидающих в awaitDurable; оповещается после каждого fsync и при ошибке. */
+    private final Object durableLock = new Object();
+    private final Thread flusher;
+    private final RecordBuffer pending = new RecordBuffer(INITIAL_BUFFER);
+    /** Позиции начала сегментов по возрастанию; защищены flushLock. */
+    private final List<Long> segmentStarts;
+    /** Позиции, с которых начать новые сегменты при сбросе; защищены appendLock. */
+    private final ArrayDeque<Long> segmentBoundaries = new ArrayDeque<>();
+
+    /** Текущий (последний) сегмент, его начало и позиция конца записанного; защищены flushLock. */
+    private FileChannel channel;
+    private long segmentStart;
+    private long flushedPosition;
+    private long appendedPosition;
+    /** Число потоков в awaitDurable; защищено appendLock. Пока они есть, сброс не откладывается. */
+    private int awaiting;
+    /** Позиция, до которой журнал записан и fsync сделан. */
+    private volatile long durablePosition;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    /**
+     * Открывает журнал. Недописанная после сбоя запись в конце последнего сегмента
+     * обрезается; повреждение в другом месте не даёт открыть журнал, чтобы не потерять
+     * следующие за ним целые записи.
+     *
+     * @param replay получает все целые записи журнала, начиная с позиции fromOffset:
+     *               добавленные сущности, EntityCodec.Removal и EntityCodec.Replacement
+     * @throws IOException если журнал повреждён или не содержит позиции fromOffset
+     */
+    public ZooJournal(Path file, long fromOffset, long flushIntervalMillis, Consumer<Object> replay)
+            throws IOException {
+        this.file = file;
+        this.flushIntervalMillis = flushIntervalMillis;
+        Path legacy = segmentPath(0);
+        if (Files.exists(file) && !Files.exists(legacy)) {
+            Files.move(file, legacy, StandardCopyOption.ATOMIC_MOVE);
+        }
+        this.segmentStarts = listSegments();
+        long end = replaySegments(fromOffset, replay);
+        if (segmentStarts.isEmpty() || end > segmentStart + channel.size()) {
+            // Журнала нет или он кончается раньше снимка: позиции продолжаются с fromOffset
+            if (channel != null) {
+                channel.close();
+            }
+            openSegment(end);
+        }
+        channel.position(end - segmentStart);
+        this.flushedPosition = end;
+        this.appendedPosition = end;
+        this.durablePosition = end;
+
+        this.flusher = new Thread(this::flushLoop, "zoo-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void checkWritable() {
+        checkFailure();
+    }
+
+    /**
+     * Ждёт fsync всех записей, добавленных до вызова, и будит фоновый поток, не дожидаясь
+     * интервала сброса.
+     *
+     * @throws UncheckedIOException если запись журнала не удалась или ожидание прервано
+     */
+    @Override
+    public void awaitDurable() {
+        long target;
+        synchronized (appendLock) {
+            target = appendedPosition;
+            if (durablePosition >= target) {
+                return;
+            }
+            awaiting++;
+            appendLock.notifyAll();
+        }
+        try {
+            synchronized (durableLock) {
+                while (durablePosition < target && failure == null) {
+                    durableLock.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Ожидание записи журнала прервано"));
+        } finally {
+            synchronized (appendLock) {
+                awaiting--;
+            }
+        }
+        checkFailure();
+    }
+
+    @Override
+    public void animalsAdded(List<Animal> added) {
+        appendAll(added);
+    }
+
+    @Override
+    public void employeesAdded(List<Employee> added) {
+        appendAll(added);
+    }
+
+    @Override
+    public void animalRemoved(Animal removed) {
+        appendRemoval(removed.getId());
+    }
+
+    @Override
+    public void employeeRemoved(Employee removed) {
+        appendRemoval(removed.getId());
+    }
+
+    @Override
+    public void animalReplaced(Animal previous, Animal current) {
+        appendReplacement(current);
+    }
+
+    @Override
+    public void employeeReplaced(Employee previous, Employee current) {
+        appendReplacement(current);
+    }
+
+    /**
+     * Позиция конца журнала с учётом ещё не сброшенных записей.
+     */
+    public long position() {
+        synchronized (appendLock) {
+            return appendedPosition;
+        }
+    }
+
+    /**
+     * Начинает новый сегмент с текущего конца журнала; файл создаётся при ближайшем сбросе.
+     * Вызывается при заблокированных изменениях ZooManager, чтобы граница совпала с позицией снимка.
+     *
+     * @return позиция начала нового сегмента
+     */
+    public long startSegment() {
+        synchronized (appendLock) {
+            segmentBoundaries.add(appendedPosition);
+            return appendedPosition;
+        }
+    }
+
+    /**
+     * Удаляет сегменты, целиком лежащие до позиции offset (уже учтённые в снимке).
+     * Текущий сегмент не удаляется.
+     *
+     * @return число удалённых сегментов
+     */
+    public int deleteSegmentsBefore(long offset) throws IOException {
+        synchronized (flushLock) {
+            int deleted = 0;
+            while (segmentStarts.size() > 1 && segmentStarts.get(1) <= offset) {
+                Files.deleteIfExists(segmentPath(segmentStarts.remove(0)));
+                deleted++;
+            }
+            return deleted;
+        }
+    }
+
+    /**
+     * Число файлов-сегментов журнала.
+     */
+    public int getSegmentCount() {
+        synchronized (flushLock) {
+            return segmentStarts.size();
+        }
+    }
+
+    /**
+     * Синхронно записывает накопленные изменения и делает fsync.
+     */
+    public void sync() throws IOException {
+        flush();
+        IOException error = failure;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (appendLock) {
+            appendLock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            sync();
+        } finally {
+            synchronized (flushLock) {
+                channel.close();
+            }
+        }
+    }
+
+    private void appendAll(List<?> entities) {
+        synchronized (appendLock) {
+            appendedPosition += pending.appendAll(entities);
+            wakeFlusherIfFull();
+        }
+    }
+
+    private void appendReplacement(Object entity) {
+        synchronized (appendLock) {
+            appendedPosition += pending.appendEntity(entity, true);
+            wakeFlusherIfFull();
+        }
+    }
+
+    private void appendRemoval(long id) {
+        synchronized (appendLock) {
+            appendedPosition += pending.appendRemoval(id);
+            wakeFlusherIfFull();
+        }
+    }
+
+    private void wakeFlusherIfFull() {
+        if (pending.size() >= GROUP_COMMIT_BYTES) {
+            appendLock.notifyAll();
+        }
+    }
+
+    private void checkFailure() {
+        IOException error = failure;
+        if (error != null) {
+            throw new UncheckedIOException("Журнал недоступен после ошибки записи", error);
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            synchronized (appendLock) {
+                // Ожидающие будят поток сразу; пустой буфер означает, что их записи уже сбрасываются
+                boolean urgent = awaiting > 0 && pending.size() > 0;
+                if (pending.size() < GROUP_COMMIT_BYTES && !urgent && !closed) {
+                    try {
+                        appendLock.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            ByteBuffer toWrite;
+            List<Long> boundaries;
+            synchronized (appendLock) {
+                int size = pending.size();
+                if (size == 0 && segmentBoundaries.isEmpty()) {
+                    return;
+                }
+                toWrite = pending.detach(Math.max(INITIAL_BUFFER, Math.min(size, GROUP_COMMIT_BYTES)));
+                boundaries = new ArrayList<>(segmentBoundaries);
+                segmentBoundaries.clear();
+            }
+            try {
+                for (long boundary : boundaries) {
+                    int end = toWrite.position() + (int) (boundary - flushedPosition);
+                    write(toWrite.duplicate().limit(end));
+                    toWrite.position(end);
+                    if (boundary > segmentStart) {
+                        channel.force(false);
+                        channel.close();
+                        openSegment(boundary);
+                    }
+                }
+                write(toWrite);
+                channel.force(false);
+            } catch (IOException e) {
+                failure = e;
+            }
+            synchronized (durableLock) {
+                if (failure == null) {
+                    durablePosition = flushedPosition;
+                }
+                durableLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Пишет data в текущий сегмент; вызывается под flushLock.
+     */
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            flushedPosition += channel.write(data);
+        }
+    }
+
+    /**
+     * Создаёт сегмент с позиции start и делает его текущим; вызывается под flushLock.
+     */
+    private void openSegment(long start) throws IOException {
+        channel = FileChannel.open(segmentPath(start), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentStart = start;
+        segmentStarts.add(start);
+    }
+
+    private Path segmentPath(long start) {
+        return file.resolveSibling(file.getFileName() + "." + String.format("%0" + SEGMENT_SUFFIX_DIGITS + "d", start));
+    }
+
+    /**
+     * Позиции начала имеющихся сегментов по возрастанию.
+     */
+    private List<Long> listSegments() throws IOException {
+        String prefix = file.getFileName() + ".";
+        List<Long> starts = new ArrayList<>();
+        Path directory = file.toAbsolutePath().getParent();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.length() == prefix.length() + SEGMENT_SUFFIX_DIGITS && name.startsWith(prefix)
+                            && name.substring(prefix.length()).chars().allMatch(Character::isDigit))
+                    .forEach(name -> starts.add(Long.parseLong(name.substring(prefix.length()))));
+        }
+        starts.sort(null);
+        return starts;
+    }
+
+    /**
+     * Читает записи всех сегментов начиная с позиции fromOffset, обрезает недописанный хвост
+     * последнего сегмента и оставляет последний сегмент открытым как текущий.
+     *
+     * @return позиция конца журнала (не меньше fromOffset)
+     */
+    private long replaySegments(long fromOffset, Consumer<Object> consumer) throws IOException {
+        if (segmentStarts.isEmpty()) {
+            return fromOffset;
+        }
+        int first = segmentStarts.size() - 1;
+        while (first > 0 && segmentStarts.get(first) > fromOffset) {
+            first--;
+        }
+        if (segmentStarts.get(first) > fromOffset) {
+            throw new IOException("Журнал начинается с позиции " + segmentStarts.get(first)
+                    + ", а восстановление требует позиции " + fromOffset);
+        }
+        long position = fromOffset;
+        for (int i = first; i < segmentStarts.size(); i++) {
+            long start = segmentStarts.get(i);
+            boolean last = i == segmentStarts.size() - 1;
+            Path path = segmentPath(start);
+            FileChannel segment = last
+                    ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = segment.size();
+                if (!last && start + size != segmentStarts.get(i + 1)) {
+                    throw new IOException("Сегмент журнала " + path + " кончается на позиции " + (start + size)
+                            + ", а следующий начинается с " + segmentStarts.get(i + 1));
+                }
+                if (position - start > size) {
+                    // Позиция снимка за концом журнала
+                    position = Math.max(position, start + size);
+                } else {
+                    long validEnd = replay(segment, position - start, consumer);
+                    if (validEnd < size) {
+                        if (!last || !isTornTail(segment, validEnd)) {
+                            throw new IOException("Журнал повреждён: сегмент " + path + ", позиция " + (start + validEnd)
+                                    + "; за ней есть целые данные, автоматически не обрезается");
+                        }
+                        segment.truncate(validEnd);
+                        segment.force(true);
+                    }
+                    position = start + validEnd;
+                }
+            } catch (IOException | RuntimeException e) {
+                segment.close();
+                throw e;
+            }
+            if (last) {
+                channel = segment;
+                segmentStart = start;
+            } else {
+                segment.close();
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Повреждение с offset - недописанный хвост: последняя запись доходит до конца файла
+     * или выходит за него, либо дальше в файле одни нули (файл удлинён без данных).
+     */
+    private static boolean isTornTail(FileChannel segment, long offset) throws IOException {
+        long remaining = segment.size() - offset;
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(READ_BUFFER, remaining));
+        segment.read(buffer, offset);
+        if (remaining < RECORD_HEADER) {
+            return true;
+        }
+        int size = buffer.getInt(0);
+        if (size > 0 && RECORD_HEADER + (long) size >= remaining) {
+            return true;
+        }
+        long position = offset;
+        while (position < segment.size()) {
+            buffer.clear();
+            int read = segment.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) != 0) {
+                    return false;
+                }
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Читает записи сегмента начиная со смещения offset в файле и возвращает смещение
+     * сразу после последней целой записи.
+     */
+    private static long replay(FileChannel channel, long offset, Consumer<Object> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+        CRC32 checksum = new CRC32();
+        long fileSize = channel.size();
+        long position = offset;
+        long readPosition = offset;
+        boolean eof = false;
+
+        while (true) {
+            if (!eof) {
+                int read = channel.read(buffer, readPosition);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    readPosition += read;
+                }
+            }
+            buffer.flip();
+
+            while (buffer.remaining() >= RECORD_HEADER) {
+                int start = buffer.position();
+                int size = buffer.getInt(start);
+                int expectedCrc = buffer.getInt(start + 4);
+                if (size <= 0 || position + RECORD_HEADER + size > fileSize) {
+                    return position;
+                }
+                if (buffer.remaining() < RECORD_HEADER + size) {
+                    if (RECORD_HEADER + size > buffer.capacity()) {
+                        buffer = grow(buffer, RECORD_HEADER + size);
+                        buffer.flip();
+                    }
+                    break;
+                }
+                checksum.reset();
+                checksum.update(buffer.array(), start + RECORD_HEADER, size);
+                if ((int) checksum.getValue() != expectedCrc) {
+                    return position;
+                }
+                ByteBuffer record = buffer.duplicate();
+                record.position(start + RECORD_HEADER).limit(start + RECORD_HEADER + size);
+                try {
+                    consumer.accept(EntityCodec.read(record));
+                } catch (RuntimeException e) {
+                    throw new IOException("Не удалось восстановить запись журнала на позиции " + position, e);
+                }
+                buffer.position(start + RECORD_HEADER + size);
+                position += RECORD_HEADER + size;
+            }
+
+            if (eof) {
+                return position;
+            }
+            buffer.compact();
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int required) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(required, buffer.capacity() * 2));
+        larger.put(buffer);
+        return larger;
+    }
+}
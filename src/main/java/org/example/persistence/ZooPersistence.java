@@ -0,0 +1,141 @@
+package org.example.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ZooManager;
+import org.example.events.Events;
+
+/**
+ * Долговременное хранение ZooManager: журнал изменений плюс периодические снимки.
+ * Идентификаторы сущностей сохраняются и после восстановления остаются прежними.
+ *
+ * При открытии загружается последний снимок, затем догоняется хвост журнала после
+ * сохранённой в снимке позиции; только после этого журнал подписывается на новые изменения.
+ * Каждый снимок начинает новый сегмент журнала с позиции снимка и, записав снимок, удаляет
+ * сегменты до неё. Повреждённый снимок пропускается, только если журнал ещё цел с начала;
+ * иначе открытие завершается ошибкой.
+ */
+public class ZooPersistence implements Closeable {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+    public static final long DEFAULT_SNAPSHOT_INTERVAL_MINUTES = 5;
+
+    private static final String JOURNAL_FILE = "zoo.journal";
+    private static final String SNAPSHOT_FILE = "zoo.snapshot";
+
+    private final ZooManager zooManager;
+    private final Path snapshotFile;
+    private final ZooJournal journal;
+    private final ScheduledExecutorService snapshotScheduler;
+    private final long recoveredAnimals;
+    private final long recoveredEmployees;
+    private final long recoveryNanos;
+
+    private ZooPersistence(ZooManager zooManager, Path directory, long snapshotIntervalMinutes) throws IOException {
+        long start = System.nanoTime();
+        this.zooManager = zooManager;
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        Files.createDirectories(directory);
+
+        ZooSnapshot snapshot;
+        try {
+            snapshot = ZooSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            Events.emit("Снимок пропущен, восстановление по журналу: " + e.getMessage());
+            snapshot = null;
+        }
+        long journalOffset = 0;
+        if (snapshot != null) {
+            zooManager.addAnimals(snapshot.getAnimals());
+            zooManager.addEmployees(snapshot.getEmployees());
+            zooManager.reserveIds(snapshot.getNextId());
+            journalOffset = snapshot.getJournalOffset();
+        }
+
+        ReplayBatcher batcher = new ReplayBatcher(zooManager);
+        this.journal = new ZooJournal(directory.resolve(JOURNAL_FILE), journalOffset,
+                DEFAULT_FLUSH_INTERVAL_MILLIS, batcher::accept);
+        batcher.flush();
+        zooManager.addListener(journal);
+
+        this.recoveredAnimals = zooManager.getAnimals().size();
+        this.recoveredEmployees = zooManager.getEmployees().size();
+        this.recoveryNanos = System.nanoTime() - start;
+
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "zoo-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly,
+                snapshotIntervalMinutes, snapshotIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Восстанавливает состояние из каталога в пустой ZooManager и включает журналирование.
+     */
+    public static ZooPersistence open(Path directory, ZooManager zooManager) throws IOException {
+        return new ZooPersistence(zooManager, directory, DEFAULT_SNAPSHOT_INTERVAL_MINUTES);
+    }
+
+    /**
+     * Снимает согласованный снимок: состояние и позиция журнала фиксируются при заблокированных
+     * изменениях, и с этой позиции начинается новый сегмент журнала. Сегменты до неё удаляются
+     * после записи снимка.
+     */
+    public void snapshot() throws IOException {
+        ZooSnapshot snapshot = zooManager.withWritesBlocked(() ->
+                new ZooSnapshot(journal.startSegment(), zooManager.getNextId(),
+                        zooManager.getAnimals(), zooManager.getEmployees()));
+        journal.sync();
+        snapshot.write(snapshotFile);
+        journal.deleteSegmentsBefore(snapshot.getJournalOffset());
+    }
+
+    /**
+     * Число файлов-сегментов журнала.
+     */
+    public int getJournalSegmentCount() {
+        return journal.getSegmentCount();
+    }
+
+    public long getRecoveredAnimals() {
+        return recoveredAnimals;
+    }
+
+    public long getRecoveredEmployees() {
+        return recoveredEmployees;
+    }
+
+    public long getRecoveryNanos() {
+        return recoveryNanos;
+    }
+
+    /**
+     * Останавливает периодические снимки, сохраняет финальный снимок и закрывает журнал.
+     */
+    @Override
+    public void close() throws IOException {
+        snapshotScheduler.shutdownNow();
+        try {
+            snapshot();
+        } finally {
+            zooManager.removeListener(journal);
+            journal.close();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            Events.emit("Не удалось сохранить снимок: " + e.getMessage());
+        }
+    }
+}
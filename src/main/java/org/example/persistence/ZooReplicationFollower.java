@@ -0,0 +1,212 @@
+package org.example.persistence;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.example.ZooManager;
+import org.example.events.Events;
+
+/**
+ * Ведомый узел репликации: фоновый поток подключается к ведущему, сообщает позицию
+ * потока, до которой состояние уже применено, и применяет к своему ZooManager
+ * приходящие кадры - снимок целиком или записи журнала по порядку.
+ * При разрыве соединения переподключается и продолжает с той же позиции; если ведущий
+ * столько записей уже не хранит (или перезапущен), присылает снимок.
+ *
+ * Расхождение со снимком устраняется поштучными удалениями и заменами, поэтому совсем
+ * чужое состояние (ведущий перезапущен с другими данными) догоняется дольше, чем пустое.
+ *
+ * Сам ZooManager ведомого изменять нельзя: любые изменения разойдутся с ведущим.
+ */
+public class ZooReplicationFollower implements Closeable {
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int INITIAL_FRAME = 64 * 1024;
+
+    private final InetSocketAddress leader;
+    private final ZooManager zooManager;
+    private final Thread thread;
+    private final CountDownLatch synced = new CountDownLatch(1);
+    private final CRC32 checksum = new CRC32();
+
+    private volatile SocketChannel channel;
+    private volatile boolean closed;
+    private volatile boolean connected;
+    /** Эпоха ведущего и позиция его потока, до которой состояние применено; только поток ведомого. */
+    private long epoch;
+    private volatile long position = -1;
+    private ByteBuffer frame = ByteBuffer.allocate(INITIAL_FRAME);
+
+    private ZooReplicationFollower(InetSocketAddress leader, ZooManager zooManager) {
+        this.leader = leader;
+        this.zooManager = zooManager;
+        this.thread = new Thread(this::run, "zoo-replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Начинает следовать за ведущим по адресу leader, применяя его изменения к zooManager.
+     */
+    public static ZooReplicationFollower start(InetSocketAddress leader, ZooManager zooManager) {
+        return new ZooReplicationFollower(leader, zooManager);
+    }
+
+    /**
+     * Ждёт первой синхронизации со снимком ведущего.
+     *
+     * @return false, если за timeout синхронизироваться не удалось
+     */
+    public boolean awaitSync(long timeout, TimeUnit unit) throws InterruptedException {
+        return synced.await(timeout, unit);
+    }
+
+    /**
+     * Позиция потока ведущего, до которой изменения применены (-1 до первого снимка).
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public InetSocketAddress getLeader() {
+        return leader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        thread.interrupt();
+        SocketChannel current = channel;
+        if (current != null) {
+            current.close();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean reported = false;
+        while (!closed) {
+            try (SocketChannel socket = SocketChannel.open(leader)) {
+                channel = socket;
+                socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                ByteBuffer hello = ReplicationFrames.hello(epoch, position);
+                while (hello.hasRemaining()) {
+                    socket.write(hello);
+                }
+                connected = true;
+                reported = false;
+                while (!closed) {
+                    applyFrame(readFrame(socket));
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!closed && !reported) {
+                    Events.emit("Нет связи с ведущим " + leader + ": " + e.getMessage()
+                            + "; повтор каждые " + RECONNECT_DELAY_MILLIS + " мс");
+                    reported = true;
+                }
+            } finally {
+                connected = false;
+                channel = null;
+            }
+            if (!closed) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Читает кадр целиком; возвращённый буфер содержит тип и данные кадра без длины.
+     */
+    private ByteBuffer readFrame(SocketChannel socket) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ReplicationFrames.HEADER);
+        readFully(socket, header);
+        byte type = header.get(0);
+        int length = header.getInt(1);
+        if (type != ReplicationFrames.SNAPSHOT && type != ReplicationFrames.RECORDS) {
+            throw new IOException("Неизвестный кадр репликации: " + type);
+        }
+        // Снимок может быть большим, кадр записей - нет: чужая длина не должна заставить выделить гигабайты
+        int maxLength = type == ReplicationFrames.RECORDS ? ReplicationFrames.MAX_RECORDS_FRAME : Integer.MAX_VALUE - 1;
+        if (length < 0 || length > maxLength) {
+            throw new IOException("Некорректная длина кадра " + type + ": " + length);
+        }
+        if (frame.capacity() < 1 + length) {
+            frame = ByteBuffer.allocate(Math.max(1 + length, frame.capacity() * 2));
+        }
+        frame.clear().limit(1 + length);
+        frame.put(type);
+        readFully(socket, frame);
+        return frame.flip();
+    }
+
+    private static void readFully(SocketChannel socket, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (socket.read(buffer) < 0) {
+                throw new EOFException("Ведущий закрыл соединение");
+            }
+        }
+    }
+
+    private void applyFrame(ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        switch (type) {
+            case ReplicationFrames.SNAPSHOT -> {
+                long leaderEpoch = frame.getLong();
+                ZooSnapshot snapshot = ZooSnapshot.decode(frame, "кадр ведущего " + leader);
+                applySnapshot(snapshot);
+                epoch = leaderEpoch;
+                position = snapshot.getJournalOffset();
+                synced.countDown();
+            }
+            case ReplicationFrames.RECORDS -> {
+                long from = frame.getLong();
+                if (from != position) {
+                    throw new IOException("Разрыв потока репликации: ожидалась позиция " + position + ", получена " + from);
+                }
+                int length = frame.remaining();
+                // Весь кадр разбирается до применения: повреждённый кадр не применяется частично
+                List<Object> records = new ArrayList<>();
+                while (frame.hasRemaining()) {
+                    records.add(RecordBuffer.read(frame, checksum));
+                }
+                ReplayBatcher batcher = new ReplayBatcher(zooManager);
+                for (Object record : records) {
+                    batcher.accept(record);
+                }
+                batcher.flush();
+                position = from + length;
+            }
+            default -> throw new IOException("Неизвестный кадр репликации: " + type);
+        }
+    }
+
+    /**
+     * Заменяет состояние снимком одним шагом (ZooManager.replaceAll): читатели на ведомом
+     * не видят промежуточных состояний, которых не было у ведущего.
+     */
+    private void applySnapshot(ZooSnapshot snapshot) {
+        zooManager.replaceAll(snapshot.getAnimals(), snapshot.getEmployees(), snapshot.getNextId());
+    }
+}
@@ -0,0 +1,429 @@
+package org.example.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.example.ZooChangeListener;
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+import org.example.events.Events;
+
+/**
+ * Ведущий узел репликации: каждое изменение ZooManager кодируется записью журнала
+ * (RecordBuffer) в журнал репликации в памяти, а один поток с Selector рассылает записи
+ * ведомым по неблокирующим SocketChannel кадрами ReplicationFrames.
+ *
+ * Пока предыдущий кадр ведомому не ушёл, новые записи копятся, и следующий кадр
+ * уносит их все разом: под нагрузкой кадры укрупняются сами. Журнал репликации хранит
+ * не больше backlogBytes последних записей; ведомый, отставший сильнее (или новый),
+ * получает снимок, снятый при заблокированных изменениях, и продолжает с его позиции.
+ * Снимок снимается и кодируется отдельным потоком, а готовый кадр передаётся потоку
+ * Selector: остальные ведомые тем временем продолжают получать записи. Ведомые, которым
+ * снимок нужен одновременно, получают один и тот же закодированный снимок.
+ */
+public class ZooReplicationLeader implements ZooChangeListener, Closeable {
+
+    public static final int DEFAULT_BACKLOG_BYTES = 64 * 1024 * 1024;
+
+    private static final int INITIAL_LOG = 64 * 1024;
+    /** Сколько кадров подряд отправляется одному ведомому за проход, чтобы не задерживать остальных. */
+    private static final int FRAMES_PER_PASS = 4;
+
+    private final ZooManager zooManager;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final int backlogBytes;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final ExecutorService snapshots = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "zoo-replication-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Последний закодированный кадр снимка; только поток снимков. */
+    private EncodedSnapshot lastSnapshot;
+
+    private final Object logLock = new Object();
+    /** Записи с позициями потока [logStart, logEnd); защищены logLock. */
+    private final RecordBuffer log = new RecordBuffer(INITIAL_LOG);
+    private long logStart;
+    private long logEnd;
+
+    private volatile boolean closed;
+
+    private ZooReplicationLeader(ZooManager zooManager, InetSocketAddress address, int backlogBytes)
+            throws IOException {
+        this.zooManager = zooManager;
+        this.backlogBytes = backlogBytes;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        zooManager.addListener(this);
+        this.thread = new Thread(this::run, "zoo-replication-leader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Начинает принимать ведомых на address и рассылать им изменения zooManager.
+     */
+    public static ZooReplicationLeader start(InetSocketAddress address, ZooManager zooManager) throws IOException {
+        return start(address, zooManager, DEFAULT_BACKLOG_BYTES);
+    }
+
+    /**
+     * То же с журналом репликации не больше backlogBytes: ведомые, отставшие сильнее, получают снимок.
+     */
+    public static ZooReplicationLeader start(InetSocketAddress address, ZooManager zooManager, int backlogBytes)
+            throws IOException {
+        if (backlogBytes <= 0) {
+            throw new IllegalArgumentException("Размер журнала репликации должен быть положительным: " + backlogBytes);
+        }
+        return new ZooReplicationLeader(zooManager, address, backlogBytes);
+    }
+
+    /**
+     * Фактический адрес (полезно при порте 0).
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * Позиция конца потока репликации: сколько байт записей выдано с запуска.
+     */
+    public long getPosition() {
+        synchronized (logLock) {
+            return logEnd;
+        }
+    }
+
+    /**
+     * Число подключённых ведомых.
+     */
+    public int getFollowerCount() {
+        return Math.max(0, selector.keys().size() - 1);
+    }
+
+    @Override
+    public void animalsAdded(List<Animal> added) {
+        synchronized (logLock) {
+            appended(log.appendAll(added));
+        }
+    }
+
+    @Override
+    public void employeesAdded(List<Employee> added) {
+        synchronized (logLock) {
+            appended(log.appendAll(added));
+        }
+    }
+
+    @Override
+    public void animalRemoved(Animal removed) {
+        synchronized (logLock) {
+            appended(log.appendRemoval(removed.getId()));
+        }
+    }
+
+    @Override
+    public void employeeRemoved(Employee removed) {
+        synchronized (logLock) {
+            appended(log.appendRemoval(removed.getId()));
+        }
+    }
+
+    @Override
+    public void animalReplaced(Animal previous, Animal current) {
+        synchronized (logLock) {
+            appended(log.appendEntity(current, true));
+        }
+    }
+
+    @Override
+    public void employeeReplaced(Employee previous, Employee current) {
+        synchronized (logLock) {
+            appended(log.appendEntity(current, true));
+        }
+    }
+
+    /**
+     * Перестаёт принимать изменения и закрывает все соединения.
+     */
+    @Override
+    public void close() throws IOException {
+        zooManager.removeListener(this);
+        closed = true;
+        snapshots.shutdownNow();
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Вызывается под logLock после дописывания bytes байт.
+     */
+    private void appended(int bytes) {
+        logEnd += bytes;
+        if (log.size() > backlogBytes) {
+            logStart += log.discardOldest(backlogBytes / 2);
+        }
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        ((Follower) key.attachment()).read();
+                    }
+                }
+                selector.selectedKeys().clear();
+                for (SelectionKey key : selector.keys()) {
+                    if (key.isValid() && key.attachment() instanceof Follower follower) {
+                        follower.send();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!closed) {
+                    Events.emit("Ошибка ведущего репликации: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Кадр снимка и позиция потока, с которой продолжать после него.
+     */
+    private record EncodedSnapshot(ByteBuffer frame, long position, long nextId) {
+    }
+
+    /**
+     * Снимает и кодирует снимок; выполняется потоком снимков. Если с прошлого снимка
+     * журнал не продвинулся, возвращает прежний кадр.
+     */
+    private EncodedSnapshot encodeSnapshot() throws IOException {
+        ZooSnapshot snapshot = zooManager.withWritesBlocked(() -> new ZooSnapshot(getPosition(),
+                zooManager.getNextId(), zooManager.getAnimals(), zooManager.getEmployees()));
+        EncodedSnapshot last = lastSnapshot;
+        if (last != null && last.position == snapshot.getJournalOffset() && last.nextId == snapshot.getNextId()) {
+            return last;
+        }
+        int size = snapshot.encodedSize();
+        if (8L + size > Integer.MAX_VALUE - ReplicationFrames.HEADER) {
+            throw new IOException("Снимок слишком велик для кадра: " + size + " байт");
+        }
+        ByteBuffer frame = ReplicationFrames.allocate(ReplicationFrames.SNAPSHOT, 8 + size);
+        frame.putLong(epoch);
+        snapshot.encode(frame);
+        lastSnapshot = new EncodedSnapshot(frame.flip().asReadOnlyBuffer(), snapshot.getJournalOffset(),
+                snapshot.getNextId());
+        return lastSnapshot;
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Follower follower = new Follower(channel);
+        follower.key = channel.register(selector, SelectionKey.OP_READ, follower);
+    }
+
+    /**
+     * Соединение с ведомым; используется только потоком Selector.
+     */
+    private final class Follower {
+
+        private final SocketChannel channel;
+        private final ByteBuffer hello = ByteBuffer.allocate(ReplicationFrames.HEADER + ReplicationFrames.HELLO_SIZE);
+        private SelectionKey key;
+        private ByteBuffer out = ByteBuffer.allocate(0);
+        /** Позиция потока, с которой отправлять дальше; -1, пока не получен HELLO. */
+        private long position = -1;
+        private boolean needsSnapshot;
+        /** Снимок заказан у потока снимков; пока он не готов, ведомому ничего не отправляется. */
+        private boolean snapshotRequested;
+        /** Готовый снимок или ошибка его построения; пишутся потоком снимков. */
+        private volatile EncodedSnapshot snapshot;
+        private volatile Exception snapshotFailure;
+
+        Follower(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() {
+            try {
+                ByteBuffer target = hello.hasRemaining() ? hello : ByteBuffer.allocate(256);
+                if (channel.read(target) < 0) {
+                    disconnect(null);
+                    return;
+                }
+                if (target == hello && !hello.hasRemaining()) {
+                    acceptHello();
+                }
+            } catch (IOException | RuntimeException e) {
+                disconnect(e);
+            }
+        }
+
+        private void acceptHello() {
+            hello.flip();
+            if (hello.get() != ReplicationFrames.HELLO || hello.getInt() != ReplicationFrames.HELLO_SIZE) {
+                throw new IllegalStateException("Ожидался кадр HELLO");
+            }
+            long followerEpoch = hello.getLong();
+            long followerPosition = hello.getLong();
+            synchronized (logLock) {
+                needsSnapshot = followerEpoch != epoch || followerPosition < logStart || followerPosition > logEnd;
+            }
+            position = needsSnapshot ? 0 : followerPosition;
+        }
+
+        /**
+         * Отправляет накопившееся, пока сокет принимает данные.
+         */
+        void send() {
+            if (position < 0) {
+                return;
+            }
+            try {
+                for (int frames = 0; frames < FRAMES_PER_PASS; frames++) {
+                    if (!out.hasRemaining() && !nextFrame()) {
+                        break;
+                    }
+                    channel.write(out);
+                    if (out.hasRemaining()) {
+                        break;
+                    }
+                }
+                key.interestOps(out.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            } catch (IOException | RuntimeException e) {
+                disconnect(e);
+            }
+        }
+
+        /**
+         * Готовит следующий кадр в out.
+         *
+         * @return false, если отправлять нечего
+         */
+        private boolean nextFrame() throws IOException {
+            if (snapshotRequested) {
+                return takeSnapshot();
+            }
+            synchronized (logLock) {
+                if (!needsSnapshot && position < logStart) {
+                    needsSnapshot = true;
+                }
+                if (!needsSnapshot) {
+                    if (position == logEnd) {
+                        return false;
+                    }
+                    int offset = (int) (position - logStart);
+                    // Кадр может выйти больше лимита на одну запись: записи не режутся
+                    int length = log.span(offset, ReplicationFrames.MAX_RECORDS_PAYLOAD);
+                    if (8 + length > ReplicationFrames.MAX_RECORDS_FRAME) {
+                        throw new IOException("Запись журнала слишком велика для репликации: " + length + " байт");
+                    }
+                    ByteBuffer frame = ReplicationFrames.allocate(ReplicationFrames.RECORDS, 8 + length);
+                    frame.putLong(position);
+                    log.copy(offset, length, frame);
+                    out = frame.flip();
+                    position += length;
+                    return true;
+                }
+            }
+            // Снимок берётся вне logLock (слушатели захватывают logLock под блокировками ZooManager)
+            // и вне потока Selector, чтобы кодирование не задерживало остальных ведомых
+            snapshotRequested = true;
+            try {
+                snapshots.execute(() -> {
+                    try {
+                        snapshot = encodeSnapshot();
+                    } catch (IOException | RuntimeException e) {
+                        snapshotFailure = e;
+                    }
+                    selector.wakeup();
+                });
+            } catch (RejectedExecutionException e) {
+                // Ведущий закрывается
+            }
+            return false;
+        }
+
+        /**
+         * Ставит в out готовый снимок, если поток снимков его уже построил.
+         */
+        private boolean takeSnapshot() throws IOException {
+            Exception failure = snapshotFailure;
+            if (failure != null) {
+                throw new IOException("Не удалось построить снимок: " + failure.getMessage(), failure);
+            }
+            EncodedSnapshot ready = snapshot;
+            if (ready == null) {
+                return false;
+            }
+            out = ready.frame.duplicate();
+            position = ready.position;
+            snapshot = null;
+            snapshotRequested = false;
+            needsSnapshot = false;
+            return true;
+        }
+
+        private void disconnect(Exception cause) {
+            if (cause != null && !closed) {
+                Events.emit("Ведомый отключён: " + cause.getMessage());
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Соединение уже разорвано
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Снимок состояния зоопарка в отображаемом в память файле.
+ * Формат: [магия:4][версия:4][смещение журнала:8][животных:4][сотрудников:4][CRC32 тела:4]
+ * [следующий идентификатор:8][тело], тело - записи EntityCodec с идентификаторами
+ * (сначала животные, затем сотрудники). Снимки версии 1 (без следующего идентификатора,
+ * записи без идентификаторов) читаются.
+ * Файл пишется во временный и атомарно переименовывается. Тот же формат в памяти
+ * (encode/decode) передаётся ведомым узлам репликации.
+ */
+public class ZooSnapshot {
+
+    private static final int MAGIC = 0x5A4F4F53; // "ZOOS"
+    private static final int VERSION = 2;
+    private static final int HEADER_V1 = 4 + 4 + 8 + 4 + 4 + 4;
+    private static final int HEADER = HEADER_V1 + 8;
+
+    private final long journalOffset;
+    private final long nextId;
+    private final List<Animal> animals;
+    private final List<Employee> employees;
+
+    public ZooSnapshot(long journalOffset, long nextId, List<Animal> animals, List<Employee> employees) {
+        this.journalOffset = journalOffset;
+        this.nextId = nextId;
+        this.animals = animals;
+        this.employees = employees;
+    }
+
+    /**
+     * Позиция журнала, до которой изменения уже учтены в снимке.
+     */
+    public long getJournalOffset() {
+        return journalOffset;
+    }
+
+    /**
+     * Идентификатор, который получила бы следующая сущность на момент снимка (0 для версии 1).
+     */
+    public long getNextId() {
+        return nextId;
+    }
+
+    public List<Animal> getAnimals() {
+        return animals;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    /**
+     * Записывает снимок в файл.
+     */
+    public void write(Path file) throws IOException {
+        int size = encodedSize();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            encode(buffer);
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Размер снимка в байтах.
+     *
+     * @throws IOException если снимок не помещается в один буфер
+     */
+    int encodedSize() throws IOException {
+        long size = HEADER;
+        for (Animal animal : animals) {
+            size += EntityCodec.encodedSize(EntityCodec.typeName(animal), EntityCodec.nameOf(animal));
+        }
+        for (Employee employee : employees) {
+            size += EntityCodec.encodedSize(EntityCodec.typeName(employee), EntityCodec.nameOf(employee));
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Снимок слишком велик для одного буфера: " + size + " байт");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Пишет снимок (encodedSize() байт) в buffer с его текущей позиции.
+     */
+    void encode(ByteBuffer buffer) {
+        int base = buffer.position();
+        buffer.position(base + HEADER);
+        for (Animal animal : animals) {
+            EntityCodec.write(buffer, EntityCodec.KIND_ANIMAL_WITH_ID, animal.getId(),
+                    EntityCodec.typeName(animal), EntityCodec.nameOf(animal));
+        }
+        for (Employee employee : employees) {
+            EntityCodec.write(buffer, EntityCodec.KIND_EMPLOYEE_WITH_ID, employee.getId(),
+                    EntityCodec.typeName(employee), EntityCodec.nameOf(employee));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(base + HEADER).limit(buffer.position()));
+        buffer.putInt(base, MAGIC);
+        buffer.putInt(base + 4, VERSION);
+        buffer.putLong(base + 8, journalOffset);
+        buffer.putInt(base + 16, animals.size());
+        buffer.putInt(base + 20, employees.size());
+        buffer.putInt(base + 24, (int) crc.getValue());
+        buffer.putLong(base + 28, nextId);
+    }
+
+    /**
+     * Читает снимок из файла.
+     *
+     * @return снимок или null, если файла нет
+     * @throws IOException если файл повреждён или не читается
+     */
+    public static ZooSnapshot read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Некорректный размер снимка: " + channel.size());
+            }
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file.toString());
+        }
+    }
+
+    /**
+     * Читает снимок из buffer (от позиции до предела).
+     *
+     * @param source откуда снимок, для сообщений об ошибках
+     * @throws IOException если снимок повреждён
+     */
+    static ZooSnapshot decode(ByteBuffer buffer, String source) throws IOException {
+        ByteBuffer data = buffer.slice();
+        if (data.capacity() < HEADER_V1) {
+            throw new IOException("Некорректный размер снимка: " + data.capacity());
+        }
+        int version = data.getInt(4);
+        if (data.getInt(0) != MAGIC || (version != 1 && version != VERSION)) {
+            throw new IOException("Неизвестный формат снимка: " + source);
+        }
+        int header = version == 1 ? HEADER_V1 : HEADER;
+        if (data.capacity() < header) {
+            throw new IOException("Некорректный размер снимка: " + data.capacity());
+        }
+        long journalOffset = data.getLong(8);
+        long nextId = version == 1 ? 0 : data.getLong(28);
+        int animalCount = data.getInt(16);
+        int employeeCount = data.getInt(20);
+
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate().position(header));
+        if ((int) crc.getValue() != data.getInt(24)) {
+            throw new IOException("Контрольная сумма снимка не совпадает: " + source);
+        }
+
+        ByteBuffer body = data.duplicate().position(header);
+        List<Animal> animals = new ArrayList<>(animalCount);
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        try {
+            for (int i = 0; i < animalCount; i++) {
+                animals.add((Animal) EntityCodec.read(body));
+            }
+            for (int i = 0; i < employeeCount; i++) {
+                employees.add((Employee) EntityCodec.read(body));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Не удалось прочитать снимок: " + source, e);
+        }
+        return new ZooSnapshot(journalOffset, nextId, animals, employees);
+    }
+}
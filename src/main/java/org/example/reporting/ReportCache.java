@@ -0,0 +1,194 @@
+package org.example.reporting;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.example.metrics.ZooMetrics;
+
+/**
+ * Кэш готовых текстов отчётов. Каждый отчёт хранится под своим ключом вместе с версией
+ * данных, по которым построен (например, ZooManager.getModificationCount()): запрос
+ * с той же версией отдаёт сохранённый текст без построения, с другой - строит заново
+ * и заменяет запись. Поэтому изменения зоопарка сбрасывают кэш сами, без подписки.
+ *
+ * Объём ограничен maxBytes (по 2 байта на символ плюс накладные расходы записи);
+ * при превышении вытесняются давно не запрошенные отчёты. Отчёт больше maxBytes
+ * выводится, но не сохраняется. Попадания, промахи и вытеснения считает ZooMetrics.
+ *
+ * Потокобезопасен; построение идёт вне блокировки, и два одновременных промаха
+ * по одному ключу построят отчёт дважды.
+ */
+public class ReportCache {
+
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    /** Оценка памяти записи помимо символов: узел карты, запись, строка, ключ. */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+    /** В порядке обращений: первым идёт давно не запрошенный отчёт; защищена this. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    private record Entry(long version, String text, long bytes) {
+    }
+
+    public ReportCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public ReportCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Пишет в out отчёт key версии version: из кэша за время, не зависящее от данных,
+     * или, при промахе, через report, одновременно запоминая текст.
+     */
+    public void write(String key, long version, ZooReportService.ReportWriter report, Appendable out)
+            throws IOException {
+        String cached = lookup(key, version);
+        if (cached != null) {
+            ZooMetrics.reportCacheHit();
+            out.append(cached);
+            return;
+        }
+        ZooMetrics.reportCacheMiss();
+        Capture capture = new Capture(out, maxChars(key));
+        report.write(capture);
+        if (capture.text != null) {
+            store(key, version, capture.text.toString());
+        }
+    }
+
+    /**
+     * Текст отчёта key версии version: из кэша или построенный через report.
+     */
+    public String get(String key, long version, ZooReportService.ReportWriter report) {
+        String cached = lookup(key, version);
+        if (cached != null) {
+            ZooMetrics.reportCacheHit();
+            return cached;
+        }
+        StringBuilder out = new StringBuilder();
+        try {
+            write(key, version, report, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Ошибка записи в StringBuilder", e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Оценка занятой памяти в байтах.
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    private synchronized String lookup(String key, long version) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.version == version ? entry.text : null;
+    }
+
+    private synchronized void store(String key, long version, String text) {
+        Entry previous = entries.get(key);
+        if (previous != null && previous.version > version) {
+            // Пока строился отчёт, более новую версию уже сохранил другой поток
+            return;
+        }
+        Entry entry = new Entry(version, text, bytesOf(key, text.length()));
+        previous = entries.put(key, entry);
+        if (previous != null) {
+            sizeBytes -= previous.bytes;
+        }
+        sizeBytes += entry.bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (sizeBytes > maxBytes) {
+            sizeBytes -= eldest.next().bytes;
+            eldest.remove();
+            ZooMetrics.reportCacheEviction();
+        }
+    }
+
+    /**
+     * Сколько символов отчёта key ещё помещается в кэш целиком.
+     */
+    private long maxChars(String key) {
+        return (maxBytes - bytesOf(key, 0)) / 2;
+    }
+
+    private static long bytesOf(String key, int chars) {
+        return ENTRY_OVERHEAD + 2L * (key.length() + chars);
+    }
+
+    /**
+     * Передаёт текст в out и копит его, пока он не превысил limit символов.
+     */
+    private static final class Capture implements Appendable {
+
+        private final Appendable out;
+        private final long limit;
+        private StringBuilder text = new StringBuilder();
+
+        Capture(Appendable out, long limit) {
+            this.out = out;
+            this.limit = limit;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            CharSequence value = csq == null ? "null" : csq;
+            out.append(value);
+            capture(value, 0, value.length());
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            out.append(csq, start, end);
+            capture(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            out.append(c);
+            if (text != null) {
+                text.append(c);
+                checkLimit();
+            }
+            return this;
+        }
+
+        private void capture(CharSequence csq, int start, int end) {
+            if (text != null) {
+                text.append(csq, start, end);
+                checkLimit();
+            }
+        }
+
+        private void checkLimit() {
+            if (text.length() > limit) {
+                text = null;
+            }
+        }
+    }
+}
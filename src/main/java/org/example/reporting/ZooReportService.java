@@ -1,127 +1,421 @@
 package org.example.reporting;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalTime;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.example.animals.Animal;
-import org.example.care.Cleanable;
-import org.example.care.Feedable;
-import org.example.care.Treatable;
+import org.example.animals.SpeciesRegistry;
+import org.example.care.Capability;
+import org.example.care.CapabilityRegistry;
 import org.example.employees.Employee;
+import org.example.metrics.ReportTimer;
+import org.example.metrics.ZooMetrics;
+import org.example.scheduling.CareSchedule;
+import org.example.scheduling.CareTask;
+import org.example.scheduling.CareType;
 
 /**
  * Отчётный модуль по животным.
  * DIP: зависит от абстракции List<Animal>, а не от конкретных реализаций животных.
+ *
+ * Каждый отчёт доступен в двух видах: build* возвращает строку, write* пишет
+ * построчно в Appendable/OutputStream, не собирая весь отчёт в памяти.
+ * Длительность каждого write* попадает в ZooMetrics (и в JFR-событие ReportBuildEvent).
  */
 public class ZooReportService {
 
-    public String buildShortSummary(List<Animal> animals) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("Общее количество животных: ").append(animals.size()).append("\n");
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    /** Размер блока животных для параллельного построения дневного расписания. */
+    private static final int DAILY_SCHEDULE_CHUNK = 4096;
+    /** Блоков на поток в одном окне дневного расписания: ограничивает текст, буферизуемый перед записью. */
+    private static final int DAILY_SCHEDULE_WINDOW_PER_THREAD = 2;
 
-        Map<String, Long> bySpecies = animals.stream()
-                .collect(Collectors.groupingBy(Animal::getSpecies, Collectors.counting()));
-        
-        builder.append("Распределение по видам:\n");
-        bySpecies.forEach((species, count) -> 
-            builder.append("  ").append(species).append(": ").append(count).append("\n"));
+    private static final int FEEDING_START = 9 * 60;
+    private static final int MEDICAL_START = 11 * 60;
+    private static final int CLEANING_START = 14 * 60;
 
-        return builder.toString();
+    /** Строка обязанностей для каждой маски возможностей (null - обязанностей нет). */
+    private static final String[] RESPONSIBILITIES = buildResponsibilities();
+
+    /**
+     * Функция записи отчёта в Appendable.
+     */
+    @FunctionalInterface
+    public interface ReportWriter {
+        void write(Appendable out) throws IOException;
     }
 
-    public String buildFeedingSchedule(List<Animal> animals) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("Расписание кормления на сегодня:\n");
+    public String buildShortSummary(List<Animal> animals) {
+        return buildShortSummary(toSpeciesMap(countOrdinals(animals)));
+    }
 
-        LocalTime baseTime = LocalTime.of(9, 0);
-        int counter = 0;
+    /**
+     * Считает животных по видам в каждом разделе параллельно (например, по
+     * ZooManager.getAnimalPartitions()) и складывает счётчики разделов по порядку.
+     * Результат не зависит от числа разделов и порядка завершения задач.
+     */
+    public Map<String, Long> countBySpecies(List<? extends List<Animal>> partitions) {
+        Stream<? extends List<Animal>> parts = partitions.stream();
+        if (partitions.size() > 1) {
+            parts = parts.parallel();
+        }
+        long[][] perPartition = parts.map(ZooReportService::countOrdinals).toArray(long[][]::new);
+        // Вид, зарегистрированный во время подсчёта, удлиняет массивы поздних разделов
+        int length = 0;
+        for (long[] partition : perPartition) {
+            length = Math.max(length, partition.length);
+        }
+        long[] counts = new long[length];
+        for (long[] partition : perPartition) {
+            for (int ordinal = 0; ordinal < partition.length; ordinal++) {
+                counts[ordinal] += partition[ordinal];
+            }
+        }
+        return toSpeciesMap(counts);
+    }
+
+    private static long[] countOrdinals(List<Animal> animals) {
+        long[] counts = new long[SpeciesRegistry.size()];
         for (Animal animal : animals) {
-            LocalTime time = baseTime.plusMinutes(counter * 30L);
-            builder.append(time).append(" - ").append(animal.getName()).append(" (")
-                    .append(animal.getSpecies()).append(")").append("\n");
-            counter++;
+            int ordinal = animal.getSpeciesRef().getOrdinal();
+            if (ordinal >= counts.length) {
+                counts = Arrays.copyOf(counts, SpeciesRegistry.size());
+            }
+            counts[ordinal]++;
         }
+        return counts;
+    }
 
-        return builder.toString();
+    private static Map<String, Long> toSpeciesMap(long[] counts) {
+        Map<String, Long> bySpecies = new TreeMap<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                bySpecies.put(SpeciesRegistry.byOrdinal(ordinal).getName(), counts[ordinal]);
+            }
+        }
+        return bySpecies;
+    }
+
+    /**
+     * Строит сводку по готовым счётчикам видов (например, из ZooManager.getSpeciesCounts()).
+     * Стоимость зависит только от числа видов; виды выводятся в порядке итерации карты.
+     */
+    public String buildShortSummary(Map<String, Long> bySpecies) {
+        return render(out -> writeShortSummary(bySpecies, out));
+    }
+
+    public void writeShortSummary(Map<String, Long> bySpecies, Appendable out) throws IOException {
+        ReportTimer timer = ZooMetrics.startReport("summary");
+        try {
+            long total = 0;
+            for (long count : bySpecies.values()) {
+                total += count;
+            }
+
+            out.append("Общее количество животных: ").append(Long.toString(total)).append("\n");
+            out.append("Распределение по видам:\n");
+            for (Map.Entry<String, Long> entry : bySpecies.entrySet()) {
+                out.append("  ").append(entry.getKey()).append(": ")
+                        .append(Long.toString(entry.getValue())).append("\n");
+            }
+        } finally {
+            timer.close();
+        }
+    }
+
+    public String buildFeedingSchedule(List<Animal> animals) {
+        return render(out -> writeFeedingSchedule(animals, out));
+    }
+
+    public void writeFeedingSchedule(List<Animal> animals, Appendable out) throws IOException {
+        ReportTimer timer = ZooMetrics.startReport("feeding");
+        try {
+            out.append("Расписание кормления на сегодня:\n");
+            writeScheduleEntries(animals, LocalTime.of(9, 0), 30L, out);
+        } finally {
+            timer.close();
+        }
     }
 
     /**
      * Строит расписание уборки вольеров на сегодня.
      */
     public String buildCleaningSchedule(List<Animal> animals) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("Расписание уборки вольеров на сегодня:\n");
+        return render(out -> writeCleaningSchedule(animals, out));
+    }
 
-        LocalTime baseTime = LocalTime.of(14, 0); // Уборка начинается с 14:00
-        int counter = 0;
-        for (Animal animal : animals) {
-            LocalTime time = baseTime.plusMinutes(counter * 30L);
-            builder.append(time).append(" - ").append(animal.getName()).append(" (")
-                    .append(animal.getSpecies()).append(")").append("\n");
-            counter++;
+    public void writeCleaningSchedule(List<Animal> animals, Appendable out) throws IOException {
+        ReportTimer timer = ZooMetrics.startReport("cleaning");
+        try {
+            out.append("Расписание уборки вольеров на сегодня:\n");
+            writeScheduleEntries(animals, LocalTime.of(14, 0), 30L, out); // Уборка начинается с 14:00
+        } finally {
+            timer.close();
         }
-
-        return builder.toString();
     }
 
     /**
      * Строит расписание медицинских осмотров на сегодня.
      */
     public String buildMedicalSchedule(List<Animal> animals) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("Расписание медицинских осмотров на сегодня:\n");
+        return render(out -> writeMedicalSchedule(animals, out));
+    }
 
-        LocalTime baseTime = LocalTime.of(11, 0); // Медосмотры начинаются с 11:00
-        int counter = 0;
-        for (Animal animal : animals) {
-            LocalTime time = baseTime.plusMinutes(counter * 45L); // Медосмотр занимает больше времени
-            builder.append(time).append(" - ").append(animal.getName()).append(" (")
-                    .append(animal.getSpecies()).append(")").append("\n");
-            counter++;
+    public void writeMedicalSchedule(List<Animal> animals, Appendable out) throws IOException {
+        ReportTimer timer = ZooMetrics.startReport("medical");
+        try {
+            out.append("Расписание медицинских осмотров на сегодня:\n");
+            // Медосмотры начинаются с 11:00 и занимают больше времени
+            writeScheduleEntries(animals, LocalTime.of(11, 0), 45L, out);
+        } finally {
+            timer.close();
         }
+    }
 
-        return builder.toString();
+    /**
+     * Строит все три расписания (кормление, медосмотры, уборка),
+     * разделяя их пустой строкой. Результат совпадает с последовательными вызовами
+     * buildFeedingSchedule, buildMedicalSchedule и buildCleaningSchedule.
+     */
+    public String buildDailySchedule(List<Animal> animals) {
+        return render(out -> writeDailySchedule(animals, out));
+    }
+
+    /**
+     * Пишет все три расписания по очереди. Большие списки размечаются параллельно
+     * окнами из нескольких блоков по DAILY_SCHEDULE_CHUNK животных: готовое окно сразу
+     * пишется в out по порядку, поэтому в памяти одновременно только текст одного окна.
+     * Склейка разделов из ZooManager.getAnimals() делится на блоки так же, как обычный список.
+     */
+    public void writeDailySchedule(List<Animal> animals, Appendable out) throws IOException {
+        ReportTimer timer = ZooMetrics.startReport("daily");
+        try {
+            out.append("Расписание кормления на сегодня:\n");
+            writeDailySection(animals, FEEDING_START, 30L, out);
+            out.append("\nРасписание медицинских осмотров на сегодня:\n");
+            writeDailySection(animals, MEDICAL_START, 45L, out);
+            out.append("\nРасписание уборки вольеров на сегодня:\n");
+            writeDailySection(animals, CLEANING_START, 30L, out);
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Пишет строки одного расписания, начинающегося в startMinute с шагом stepMinutes.
+     */
+    private static void writeDailySection(List<Animal> animals, int startMinute, long stepMinutes,
+            Appendable out) throws IOException {
+        int chunkCount = (animals.size() + DAILY_SCHEDULE_CHUNK - 1) / DAILY_SCHEDULE_CHUNK;
+        int window = Math.max(1, ForkJoinPool.getCommonPoolParallelism() * DAILY_SCHEDULE_WINDOW_PER_THREAD);
+        for (int first = 0; first < chunkCount; first += window) {
+            int last = Math.min(chunkCount, first + window);
+            IntStream chunkIndexes = IntStream.range(first, last);
+            if (last - first > 1) {
+                chunkIndexes = chunkIndexes.parallel();
+            }
+            StringBuilder[] chunks = chunkIndexes
+                    .mapToObj(chunk -> renderDailyChunk(animals, chunk * DAILY_SCHEDULE_CHUNK,
+                            Math.min(animals.size(), (chunk + 1) * DAILY_SCHEDULE_CHUNK), startMinute, stepMinutes))
+                    .toArray(StringBuilder[]::new);
+            for (StringBuilder chunk : chunks) {
+                out.append(chunk);
+            }
+        }
+    }
+
+    /**
+     * Строит строки расписания для животных с индексами [from, to).
+     */
+    private static StringBuilder renderDailyChunk(List<Animal> animals, int from, int to, int startMinute,
+            long stepMinutes) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            appendScheduleLine(lines, startMinute + i * stepMinutes, animals.get(i));
+        }
+        return lines;
+    }
+
+    /**
+     * Добавляет строку "ЧЧ:ММ - имя (вид)"; время переходит через полночь так же, как LocalTime.plusMinutes.
+     */
+    private static void appendScheduleLine(StringBuilder builder, long minutes, Animal animal) {
+        int minuteOfDay = (int) (minutes % MINUTES_PER_DAY);
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        builder.append((char) ('0' + hour / 10)).append((char) ('0' + hour % 10)).append(':')
+                .append((char) ('0' + minute / 10)).append((char) ('0' + minute % 10))
+                .append(" - ").append(animal.getName()).append(" (")
+                .append(animal.getSpecies()).append(")").append('\n');
+    }
+
+    /**
+     * Строит расписание ухода с назначенными сотрудниками.
+     */
+    public String buildCareSchedule(CareSchedule schedule) {
+        return render(out -> writeCareSchedule(schedule, out));
+    }
+
+    public void writeCareSchedule(CareSchedule schedule, Appendable out) throws IOException {
+        ReportTimer timer = ZooMetrics.startReport("care");
+        try {
+            for (CareType type : CareType.values()) {
+                out.append(type.getTitle()).append(":\n");
+                List<CareTask> tasks = schedule.getTasks(type);
+                for (CareTask task : tasks) {
+                    out.append(task.getStart().toString()).append("-").append(task.getEnd().toString())
+                            .append(" - ").append(task.getAnimal().getName())
+                            .append(" (").append(task.getAnimal().getSpecies()).append(")")
+                            .append(" - ").append(task.getEmployee().getName()).append("\n");
+                }
+                List<Animal> unassigned = schedule.getUnassigned(type);
+                if (!unassigned.isEmpty()) {
+                    out.append("Не назначено (нет свободных сотрудников): ")
+                            .append(Integer.toString(unassigned.size())).append("\n");
+                    for (Animal animal : unassigned) {
+                        out.append("  ").append(animal.getName()).append(" (")
+                                .append(animal.getSpecies()).append(")").append("\n");
+                    }
+                }
+                out.append("\n");
+            }
+        } finally {
+            timer.close();
+        }
     }
 
     /**
      * Строит информацию о сотрудниках зоопарка.
      */
     public String buildEmployeesInfo(List<Employee> employees) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("=== Информация о сотрудниках зоопарка ===\n");
-        builder.append("Общее количество сотрудников: ").append(employees.size()).append("\n\n");
+        return render(out -> writeEmployeesInfo(employees, out));
+    }
 
-        if (employees.isEmpty()) {
-            builder.append("В зоопарке пока нет сотрудников.\n");
-            return builder.toString();
-        }
+    public void writeEmployeesInfo(List<Employee> employees, Appendable out) throws IOException {
+        ReportTimer timer = ZooMetrics.startReport("employees");
+        try {
+            out.append("=== Информация о сотрудниках зоопарка ===\n");
+            out.append("Общее количество сотрудников: ").append(Integer.toString(employees.size())).append("\n\n");
 
-        builder.append("Список сотрудников:\n");
-        for (Employee employee : employees) {
-            builder.append("\n  Имя: ").append(employee.getName()).append("\n");
-            builder.append("  Должность: ").append(employee.getRole()).append("\n");
+            if (employees.isEmpty()) {
+                out.append("В зоопарке пока нет сотрудников.\n");
+                return;
+            }
+
+            out.append("Список сотрудников:\n");
+            for (Employee employee : employees) {
+                out.append("\n  Имя: ").append(employee.getName()).append("\n");
+                out.append("  Идентификатор: ").append(Long.toString(employee.getId())).append("\n");
+                out.append("  Должность: ").append(employee.getRole()).append("\n");
             
-            List<String> responsibilities = new ArrayList<>();
-            if (employee instanceof Feedable) {
-                responsibilities.add("Кормление животных");
+                String responsibilities = RESPONSIBILITIES[CapabilityRegistry.maskOf(employee)];
+                if (responsibilities != null) {
+                    out.append("  Обязанности: ").append(responsibilities).append("\n");
+                }
             }
-            if (employee instanceof Cleanable) {
-                responsibilities.add("Уборка вольеров");
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Пишет отчёт в поток байтов (UTF-8) через буфер фиксированного размера.
+     * Поток после записи сбрасывается, но не закрывается.
+     * Пример: {@code writeTo(out, a -> service.writeFeedingSchedule(animals, a))}.
+     */
+    public void writeTo(OutputStream stream, ReportWriter report) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE);
+        report.write(writer);
+        writer.flush();
+    }
+
+    /**
+     * Пишет отчёт в PrintStream (например, System.out) в его собственной кодировке,
+     * передавая текст блоками по размеру буфера, а не целой строкой.
+     */
+    public void writeTo(PrintStream stream, ReportWriter report) throws IOException {
+        Writer adapter = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                stream.append(CharBuffer.wrap(buffer, offset, length));
             }
-            if (employee instanceof Treatable) {
-                responsibilities.add("Медицинский осмотр и лечение");
+
+            @Override
+            public void flush() {
+                stream.flush();
             }
-            
-            if (!responsibilities.isEmpty()) {
-                builder.append("  Обязанности: ").append(String.join(", ", responsibilities)).append("\n");
+
+            @Override
+            public void close() {
+                flush();
+            }
+        };
+        Writer writer = new BufferedWriter(adapter, OUTPUT_BUFFER_SIZE);
+        report.write(writer);
+        writer.flush();
+    }
+
+    private static void writeScheduleEntries(List<Animal> animals, LocalTime baseTime, long stepMinutes,
+            Appendable out) throws IOException {
+        int counter = 0;
+        for (Animal animal : animals) {
+            LocalTime time = baseTime.plusMinutes(counter * stepMinutes);
+            out.append(time.toString()).append(" - ").append(animal.getName()).append(" (")
+                    .append(animal.getSpecies()).append(")").append("\n");
+            counter++;
+        }
+    }
+
+    private static String[] buildResponsibilities() {
+        Capability[] capabilities = Capability.values();
+        String[] table = new String[1 << capabilities.length];
+        for (int mask = 1; mask < table.length; mask++) {
+            StringBuilder builder = new StringBuilder();
+            for (Capability capability : capabilities) {
+                if ((mask & capability.bit()) != 0) {
+                    if (builder.length() > 0) {
+                        builder.append(", ");
+                    }
+                    builder.append(responsibilityTitle(capability));
+                }
             }
+            table[mask] = builder.toString();
         }
+        return table;
+    }
+
+    private static String responsibilityTitle(Capability capability) {
+        return switch (capability) {
+            case FEEDING -> "Кормление животных";
+            case CLEANING -> "Уборка вольеров";
+            case TREATMENT -> "Медицинский осмотр и лечение";
+        };
+    }
 
+    private static String render(ReportWriter report) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            report.write(builder);
+        } catch (IOException e) {
+            // StringBuilder не бросает IOException
+            throw new UncheckedIOException(e);
+        }
         return builder.toString();
     }
 }
-
-
@@ -0,0 +1,128 @@
+package org.example.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.example.employees.Employee;
+
+/**
+ * Выполняет все задачи расписания ("прогон дня").
+ *
+ * Задачи одного сотрудника выполняются строго последовательно в порядке времени начала,
+ * поэтому смотритель никогда не кормит двух животных одновременно. Разные сотрудники
+ * работают параллельно, но одновременно активны не более maxConcurrency из них.
+ * На Java 21+ используются виртуальные потоки, на Java 17 - пул фиксированного размера.
+ */
+public class CareExecutor {
+
+    private final int maxConcurrency;
+
+    public CareExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public CareExecutor(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Параллелизм должен быть положительным: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Выполняет все назначенные задачи расписания и возвращает итог.
+     *
+     * @throws InterruptedException если ожидание завершения было прервано
+     */
+    public CareRunReport run(CareSchedule schedule) throws InterruptedException {
+        Map<Employee, List<CareTask>> queues = new IdentityHashMap<>();
+        int total = 0;
+        for (CareType type : CareType.values()) {
+            for (CareTask task : schedule.getTasks(type)) {
+                queues.computeIfAbsent(task.getEmployee(), e -> new ArrayList<>()).add(task);
+                total++;
+            }
+        }
+
+        int maxEmployeeQueue = 0;
+        for (List<CareTask> queue : queues.values()) {
+            queue.sort(Comparator.comparing(CareTask::getStart));
+            maxEmployeeQueue = Math.max(maxEmployeeQueue, queue.size());
+        }
+
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<EmployeeResult>> futures = new ArrayList<>(queues.size());
+        ExecutorService executor = VirtualThreads.newPerTaskExecutorOrPool(Math.min(maxConcurrency, Math.max(1, queues.size())));
+        try {
+            for (List<CareTask> queue : queues.values()) {
+                futures.add(executor.submit(() -> runQueue(queue, permits, start)));
+            }
+
+            int completed = 0;
+            int failed = 0;
+            long[] latencies = new long[total];
+            int filled = 0;
+            for (Future<EmployeeResult> future : futures) {
+                EmployeeResult result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Сбой выполнения задач сотрудника", e.getCause());
+                }
+                completed += result.completed;
+                failed += result.failed;
+                System.arraycopy(result.latencies, 0, latencies, filled, result.latencies.length);
+                filled += result.latencies.length;
+            }
+            Arrays.sort(latencies, 0, filled);
+            return new CareRunReport(completed, failed, total, maxEmployeeQueue,
+                    Arrays.copyOf(latencies, filled), System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Последовательно выполняет очередь одного сотрудника, удерживая одно разрешение параллелизма.
+     */
+    private static EmployeeResult runQueue(List<CareTask> queue, Semaphore permits, long runStart)
+            throws InterruptedException {
+        EmployeeResult result = new EmployeeResult(queue.size());
+        permits.acquire();
+        try {
+            for (CareTask task : queue) {
+                try {
+                    task.getType().perform(task.getEmployee(), task.getAnimal());
+                    result.completed++;
+                } catch (RuntimeException e) {
+                    result.failed++;
+                }
+                result.latencies[result.completed + result.failed - 1] = System.nanoTime() - runStart;
+            }
+        } finally {
+            permits.release();
+        }
+        return result;
+    }
+
+    /**
+     * Итог выполнения очереди одного сотрудника.
+     */
+    private static final class EmployeeResult {
+        private final long[] latencies;
+        private int completed;
+        private int failed;
+
+        EmployeeResult(int size) {
+            this.latencies = new long[size];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.scheduling;
+
+/**
+ * Итог выполнения задач дня: количество задач, глубина очереди и задержки.
+ * Задержка задачи - время от начала прогона до её завершения.
+ */
+public class CareRunReport {
+
+    private final int completed;
+    private final int failed;
+    private final int initialQueueDepth;
+    private final int maxEmployeeQueueDepth;
+    private final long p50Nanos;
+    private final long p95Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+    private final long elapsedNanos;
+
+    CareRunReport(int completed, int failed, int initialQueueDepth, int maxEmployeeQueueDepth,
+            long[] sortedLatencies, long elapsedNanos) {
+        this.completed = completed;
+        this.failed = failed;
+        this.initialQueueDepth = initialQueueDepth;
+        this.maxEmployeeQueueDepth = maxEmployeeQueueDepth;
+        this.p50Nanos = percentile(sortedLatencies, 0.50);
+        this.p95Nanos = percentile(sortedLatencies, 0.95);
+        this.p99Nanos = percentile(sortedLatencies, 0.99);
+        this.maxNanos = sortedLatencies.length == 0 ? 0 : sortedLatencies[sortedLatencies.length - 1];
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Сколько задач стояло в очереди на момент старта.
+     */
+    public int getInitialQueueDepth() {
+        return initialQueueDepth;
+    }
+
+    /**
+     * Самая длинная очередь задач у одного сотрудника.
+     */
+    public int getMaxEmployeeQueueDepth() {
+        return maxEmployeeQueueDepth;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.scheduling;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.example.animals.Animal;
+
+/**
+ * Результат планирования на день: назначенные задачи по видам ухода
+ * (в порядке времени начала) и животные, которым не хватило сотрудников.
+ */
+public class CareSchedule {
+
+    private final Map<CareType, List<CareTask>> tasks;
+    private final Map<CareType, List<Animal>> unassigned;
+
+    CareSchedule(Map<CareType, List<CareTask>> tasks, Map<CareType, List<Animal>> unassigned) {
+        this.tasks = new EnumMap<>(tasks);
+        this.unassigned = new EnumMap<>(unassigned);
+    }
+
+    public List<CareTask> getTasks(CareType type) {
+        return tasks.getOrDefault(type, List.of());
+    }
+
+    public List<Animal> getUnassigned(CareType type) {
+        return unassigned.getOrDefault(type, List.of());
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.scheduling;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Планировщик ухода: распределяет кормление и уборку между Feedable/Cleanable сотрудниками,
+ * а медосмотры - между Treatable, с учётом смены и лимита задач на сотрудника.
+ *
+ * Виды ухода планируются по очереди (см. порядок CareType); внутри вида каждое животное
+ * получает сотрудника, который освобождается раньше всех (очередь с приоритетом),
+ * поэтому сложность O(n log k), где k - число подходящих сотрудников.
+ * Время начала выдаваемых задач не убывает, поэтому сортировка результата не нужна.
+ */
+public class CareScheduler {
+
+    public static final LocalTime DEFAULT_SHIFT_START = LocalTime.of(9, 0);
+    public static final LocalTime DEFAULT_SHIFT_END = LocalTime.of(18, 0);
+    public static final int DEFAULT_MAX_TASKS_PER_EMPLOYEE = 16;
+
+    private final int shiftStart;
+    private final int shiftEnd;
+    private final int maxTasksPerEmployee;
+
+    public CareScheduler() {
+        this(DEFAULT_SHIFT_START, DEFAULT_SHIFT_END, DEFAULT_MAX_TASKS_PER_EMPLOYEE);
+    }
+
+    /**
+     * @param shiftStart начало смены сотрудников
+     * @param shiftEnd конец смены: задача должна закончиться не позже этого времени
+     * @param maxTasksPerEmployee максимум задач на одного сотрудника за день
+     */
+    public CareScheduler(LocalTime shiftStart, LocalTime shiftEnd, int maxTasksPerEmployee) {
+        if (!shiftStart.isBefore(shiftEnd)) {
+            throw new IllegalArgumentException("Начало смены должно быть раньше конца: " + shiftStart + " - " + shiftEnd);
+        }
+        if (maxTasksPerEmployee <= 0) {
+            throw new IllegalArgumentException("Лимит задач должен быть положительным: " + maxTasksPerEmployee);
+        }
+        this.shiftStart = toMinutes(shiftStart);
+        this.shiftEnd = toMinutes(shiftEnd);
+        this.maxTasksPerEmployee = maxTasksPerEmployee;
+    }
+
+    /**
+     * Строит расписание ухода за всеми животными на день.
+     */
+    public CareSchedule schedule(List<Animal> animals, List<Employee> employees) {
+        List<Slot> slots = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            slots.add(new Slot(employees.get(i), i, shiftStart));
+        }
+
+        Map<CareType, List<CareTask>> tasks = new EnumMap<>(CareType.class);
+        Map<CareType, List<Animal>> unassigned = new EnumMap<>(CareType.class);
+        for (CareType type : CareType.values()) {
+            List<CareTask> typeTasks = new ArrayList<>();
+            List<Animal> typeUnassigned = new ArrayList<>();
+            scheduleType(type, animals, slots, typeTasks, typeUnassigned);
+            tasks.put(type, typeTasks);
+            unassigned.put(type, typeUnassigned);
+        }
+        return new CareSchedule(tasks, unassigned);
+    }
+
+    private void scheduleType(CareType type, List<Animal> animals, List<Slot> slots,
+            List<CareTask> tasks, List<Animal> unassigned) {
+        int earliest = Math.max(shiftStart, toMinutes(type.getEarliestStart()));
+        int duration = type.getDurationMinutes();
+
+        // Ключ очереди - момент, когда сотрудник может начать следующую задачу этого вида
+        PriorityQueue<Slot> queue = new PriorityQueue<>(Math.max(1, slots.size()),
+                (a, b) -> a.startKey != b.startKey
+                        ? Integer.compare(a.startKey, b.startKey)
+                        : Integer.compare(a.order, b.order));
+        for (Slot slot : slots) {
+            if (type.canPerform(slot.employee)) {
+                slot.startKey = Math.max(slot.freeAt, earliest);
+                if (slot.canTake(slot.startKey, duration)) {
+                    queue.add(slot);
+                }
+            }
+        }
+
+        for (Animal animal : animals) {
+            Slot slot = queue.poll();
+            if (slot == null) {
+                unassigned.add(animal);
+                continue;
+            }
+            int start = slot.startKey;
+            int end = start + duration;
+            tasks.add(new CareTask(type, animal, slot.employee, toTime(start), toTime(end)));
+            slot.freeAt = end;
+            slot.taskCount++;
+            slot.startKey = end;
+            if (slot.canTake(end, duration)) {
+                queue.add(slot);
+            }
+        }
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalTime toTime(int minutes) {
+        return LocalTime.of(minutes / 60, minutes % 60);
+    }
+
+    /**
+     * Состояние сотрудника в течение дня.
+     */
+    private final class Slot {
+        private final Employee employee;
+        private final int order;
+        private int freeAt;
+        private int taskCount;
+        private int startKey;
+
+        Slot(Employee employee, int order, int freeAt) {
+            this.employee = employee;
+            this.order = order;
+            this.freeAt = freeAt;
+        }
+
+        boolean canTake(int start, int duration) {
+            return taskCount < maxTasksPerEmployee && start + duration <= shiftEnd;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.scheduling;
+
+import java.time.LocalTime;
+
+import org.example.animals.Animal;
+import org.example.employees.Employee;
+
+/**
+ * Назначенная задача ухода: кто, за каким животным и когда.
+ */
+public class CareTask {
+
+    private final CareType type;
+    private final Animal animal;
+    private final Employee employee;
+    private final LocalTime start;
+    private final LocalTime end;
+
+    public CareTask(CareType type, Animal animal, Employee employee, LocalTime start, LocalTime end) {
+        this.type = type;
+        this.animal = animal;
+        this.employee = employee;
+        this.start = start;
+        this.end = end;
+    }
+
+    public CareType getType() {
+        return type;
+    }
+
+    public Animal getAnimal() {
+        return animal;
+    }
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public LocalTime getStart() {
+        return start;
+    }
+
+    public LocalTime getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.scheduling;
+
+import java.time.LocalTime;
+
+import org.example.animals.Animal;
+import org.example.care.Capability;
+import org.example.care.CapabilityRegistry;
+import org.example.care.Cleanable;
+import org.example.care.Feedable;
+import org.example.care.Treatable;
+import org.example.employees.Employee;
+
+/**
+ * Вид ухода за животным: какая возможность нужна сотруднику, сколько длится задача
+ * и с какого времени её можно начинать.
+ * Порядок констант задаёт порядок планирования в течение дня.
+ */
+public enum CareType {
+
+    FEEDING("Кормление", Capability.FEEDING, 30, LocalTime.of(9, 0)),
+    MEDICAL("Медицинский осмотр", Capability.TREATMENT, 45, LocalTime.of(11, 0)),
+    CLEANING("Уборка вольера", Capability.CLEANING, 30, LocalTime.of(14, 0));
+
+    private final String title;
+    private final Capability capability;
+    private final int durationMinutes;
+    private final LocalTime earliestStart;
+
+    CareType(String title, Capability capability, int durationMinutes, LocalTime earliestStart) {
+        this.title = title;
+        this.capability = capability;
+        this.durationMinutes = durationMinutes;
+        this.earliestStart = earliestStart;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Capability getCapability() {
+        return capability;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public LocalTime getEarliestStart() {
+        return earliestStart;
+    }
+
+    /**
+     * Может ли сотрудник выполнять этот вид ухода.
+     */
+    public boolean canPerform(Employee employee) {
+        return CapabilityRegistry.can(employee, capability);
+    }
+
+    /**
+     * Выполняет уход: вызывает соответствующий метод интерфейса у сотрудника.
+     *
+     * @throws ClassCastException если сотрудник не умеет выполнять этот вид ухода
+     */
+    public void perform(Employee employee, Animal animal) {
+        switch (this) {
+            case FEEDING -> ((Feedable) employee).feed(animal);
+            case MEDICAL -> ((Treatable) employee).treat(animal);
+            case CLEANING -> ((Cleanable) employee).clean(animal);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.scheduling;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Виртуальные потоки без зависимости от версии JVM при сборке: проект собирается под Java 17,
+ * а Executors.newVirtualThreadPerTaskExecutor() появился в Java 21. Метод ищется один раз.
+ */
+public final class VirtualThreads {
+
+    /** Фабрика исполнителя или null, если JVM не поддерживает виртуальные потоки. */
+    private static final MethodHandle FACTORY = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Исполнитель с новым виртуальным потоком на задачу или null, если JVM его не поддерживает
+     * (Java 17, либо Java 19-20 без --enable-preview).
+     */
+    public static ExecutorService newPerTaskExecutor() {
+        if (FACTORY == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) FACTORY.invokeExact();
+        } catch (UnsupportedOperationException e) {
+            return null;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+
+    /**
+     * Виртуальные потоки, если JVM их поддерживает, иначе пул из poolSize потоков.
+     */
+    public static ExecutorService newPerTaskExecutorOrPool(int poolSize) {
+        ExecutorService executor = newPerTaskExecutor();
+        return executor != null ? executor : Executors.newFixedThreadPool(poolSize);
+    }
+
+    private static MethodHandle findFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
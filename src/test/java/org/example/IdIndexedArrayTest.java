@@ -0,0 +1,61 @@
+package org.example;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+public class IdIndexedArrayTest extends TestCase {
+
+    private record Item(long id, String value) {
+    }
+
+    private final IdIndexedArray<Item> items = new IdIndexedArray<>(Item::id);
+
+    public void testRemoveMovesLastIntoGap() {
+        items.appendAll(List.of(new Item(10, "a"), new Item(20, "b"), new Item(30, "c"), new Item(40, "d")));
+        List<Item> before = items.snapshot();
+
+        assertTrue(items.remove(20));
+        assertEquals(List.of(new Item(10, "a"), new Item(40, "d"), new Item(30, "c")), items.snapshot());
+        // Позиция переставленного элемента обновлена: его можно удалить и заменить по идентификатору
+        assertTrue(items.replace(new Item(40, "D")));
+        assertEquals(new Item(40, "D"), items.snapshot().get(1));
+        assertTrue(items.remove(40));
+        assertEquals(List.of(new Item(10, "a"), new Item(30, "c")), items.snapshot());
+
+        assertEquals("выданный снимок не меняется", 4, before.size());
+        assertEquals(new Item(20, "b"), before.get(1));
+    }
+
+    public void testRemoveLastAndAbsent() {
+        items.append(new Item(1, "a"));
+        items.append(new Item(2, "b"));
+        assertTrue(items.remove(2));
+        assertFalse(items.remove(2));
+        assertFalse(items.replace(new Item(2, "x")));
+        assertEquals(List.of(new Item(1, "a")), items.snapshot());
+        assertTrue(items.remove(1));
+        assertTrue(items.snapshot().isEmpty());
+        items.append(new Item(1, "again"));
+        assertEquals(List.of(new Item(1, "again")), items.snapshot());
+    }
+
+    public void testManyRemovalsKeepPositionsConsistent() {
+        int count = 10_000;
+        for (int id = 1; id <= count; id++) {
+            items.append(new Item(id, "v" + id));
+        }
+        for (int id = 1; id <= count; id += 2) {
+            assertTrue(items.remove(id));
+        }
+        List<Item> left = items.snapshot();
+        assertEquals(count / 2, left.size());
+        for (int id = 2; id <= count; id += 2) {
+            assertTrue(items.replace(new Item(id, "w" + id)));
+        }
+        for (Item item : items.snapshot()) {
+            assertEquals(0, item.id() % 2);
+            assertEquals("w" + item.id(), item.value());
+        }
+    }
+}
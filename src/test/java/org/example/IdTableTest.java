@@ -0,0 +1,108 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import junit.framework.TestCase;
+
+public class IdTableTest extends TestCase {
+
+    public void testClaimPutRelease() {
+        IdTable ids = new IdTable(3);
+        assertEquals(IdTable.ABSENT, ids.locate(5));
+        assertTrue(ids.claim(5));
+        assertFalse(ids.claim(5));
+        assertEquals(IdTable.CLAIMED, ids.locate(5));
+        assertFalse(IdTable.isPlaced(ids.locate(5)));
+
+        ids.put(5, 2, 1000);
+        int location = ids.locate(5);
+        assertTrue(IdTable.isPlaced(location));
+        assertEquals(2, ids.kindOf(location));
+        assertEquals(1000, ids.rowOf(location));
+        assertFalse(ids.claim(5));
+
+        ids.release(5);
+        assertEquals(IdTable.ABSENT, ids.locate(5));
+        assertTrue(ids.claim(5));
+    }
+
+    public void testLocationEncodingForEveryKind() {
+        IdTable ids = new IdTable(9);
+        for (int kind = 0; kind < 9; kind++) {
+            for (int row : new int[]{0, 1, 4095, 4096, 12_345_678}) {
+                ids.put(1 + kind, kind, row);
+                int location = ids.locate(1 + kind);
+                assertEquals(kind, ids.kindOf(location));
+                assertEquals(row, ids.rowOf(location));
+            }
+        }
+    }
+
+    public void testLargeAndInvalidIds() {
+        IdTable ids = new IdTable(2);
+        assertEquals(IdTable.ABSENT, ids.locate(0));
+        assertEquals(IdTable.ABSENT, ids.locate(-1));
+        assertEquals(IdTable.ABSENT, ids.locate(IdTable.MAX_ID + 1));
+        assertTrue(ids.claim(IdTable.MAX_ID));
+        ids.put(IdTable.MAX_ID, 1, 7);
+        assertEquals(7, ids.rowOf(ids.locate(IdTable.MAX_ID)));
+        assertEquals(IdTable.ABSENT, ids.locate(IdTable.MAX_ID - 1));
+        try {
+            ids.claim(0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // идентификаторы начинаются с 1
+        }
+    }
+
+    public void testRowOverflowRejected() {
+        IdTable ids = new IdTable(4);
+        try {
+            ids.put(1, 3, Integer.MAX_VALUE / 2);
+            fail();
+        } catch (IllegalStateException expected) {
+            // строка не помещается вместе с видом в int
+        }
+    }
+
+    /**
+     * Потоки одновременно занимают одни и те же идентификаторы (в том числе в ещё не созданных
+     * блоках): каждый идентификатор достаётся ровно одному.
+     */
+    public void testConcurrentClaimsAreExclusive() throws InterruptedException {
+        IdTable ids = new IdTable(2);
+        int count = 50_000;
+        AtomicIntegerArray winners = new AtomicIntegerArray(count + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            boolean reverse = t % 2 == 1;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 1; i <= count; i++) {
+                    int id = reverse ? count + 1 - i : i;
+                    if (ids.claim(id)) {
+                        winners.incrementAndGet(id);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int id = 1; id <= count; id++) {
+            assertEquals("id " + id, 1, winners.get(id));
+            assertEquals(IdTable.CLAIMED, ids.locate(id));
+        }
+    }
+}
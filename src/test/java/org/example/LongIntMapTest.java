@@ -0,0 +1,64 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class LongIntMapTest extends TestCase {
+
+    public void testPutGetRemove() {
+        LongIntMap map = new LongIntMap();
+        assertEquals(LongIntMap.ABSENT, map.get(7));
+        map.put(7, 1);
+        map.put(1L << 40, 2);
+        map.put(7, 3);
+        assertEquals(2, map.size());
+        assertEquals(3, map.get(7));
+        assertEquals(2, map.get(1L << 40));
+        assertEquals(3, map.remove(7));
+        assertEquals(LongIntMap.ABSENT, map.remove(7));
+        assertEquals(LongIntMap.ABSENT, map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    public void testZeroKeyRejected() {
+        try {
+            new LongIntMap().put(0, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // ключ 0 означает пустую ячейку
+        }
+    }
+
+    /**
+     * Случайные вставки и удаления (с ростом и сжатием таблицы) сверяются с HashMap;
+     * ключи из узкого диапазона дают длинные цепочки пробирования и сдвиги при удалении.
+     */
+    public void testMatchesHashMap() {
+        Random random = new Random(42);
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> model = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            long key = 1 + random.nextInt(step < 100_000 ? 5_000 : 300);
+            if (random.nextInt(3) == 0) {
+                Integer expected = model.remove(key);
+                assertEquals(expected == null ? LongIntMap.ABSENT : expected, map.remove(key));
+            } else {
+                model.put(key, step);
+                map.put(key, step);
+            }
+            if (step % 997 == 0) {
+                assertEquals(model.size(), map.size());
+                for (Map.Entry<Long, Integer> entry : model.entrySet()) {
+                    assertEquals(entry.getValue().intValue(), map.get(entry.getKey()));
+                }
+            }
+        }
+        for (long key = 1; key <= 5_000; key++) {
+            Integer expected = model.get(key);
+            assertEquals(expected == null ? LongIntMap.ABSENT : expected, map.get(key));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import junit.framework.TestCase;
+
+import org.example.animals.Animal;
+import org.example.animals.Monkey;
+import org.example.animals.Parrot;
+import org.example.animals.Snake;
+import org.example.animals.Wolf;
+import org.example.events.EventSink;
+import org.example.events.Events;
+import org.example.events.SilentEventSink;
+
+public class PageTest extends TestCase {
+
+    private EventSink previousSink;
+
+    @Override
+    protected void setUp() {
+        previousSink = Events.setSink(new SilentEventSink());
+    }
+
+    @Override
+    protected void tearDown() {
+        Events.setSink(previousSink);
+    }
+
+    /**
+     * Добавления в первый раздел между запросами страниц не сдвигают курсор:
+     * каждое животное, бывшее в зоопарке в начале обхода, выдаётся ровно один раз.
+     */
+    public void testAddsToEarlierShardDoNotShiftCursor() {
+        ZooManager zoo = new ZooManager(2, HeapAnimalStore::new);
+        List<Supplier<Animal>> kinds = List.of(() -> new Wolf("w"), () -> new Parrot("p"),
+                () -> new Snake("s"), () -> new Monkey("m"));
+        for (int i = 0; i < 25; i++) {
+            for (Supplier<Animal> kind : kinds) {
+                zoo.addAnimal(kind.get());
+            }
+        }
+        List<List<Animal>> partitions = zoo.getAnimalPartitions();
+        assertFalse("нужны оба раздела", partitions.get(0).isEmpty() || partitions.get(1).isEmpty());
+        String firstShardSpecies = partitions.get(0).get(0).getSpecies();
+        Supplier<Animal> firstShardKind = kinds.stream()
+                .filter(kind -> kind.get().getSpecies().equals(firstShardSpecies))
+                .findFirst().orElseThrow();
+
+        Set<Long> expected = new HashSet<>();
+        zoo.getAnimals().forEach(animal -> expected.add(animal.getId()));
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Animal> page = zoo.getAnimalsPage(cursor, 7);
+            page.getItems().forEach(animal -> seen.add(animal.getId()));
+            for (int i = 0; i < 3; i++) {
+                zoo.addAnimal(firstShardKind.get());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        Set<Long> unique = new HashSet<>(seen);
+        assertEquals("животные не повторяются", seen.size(), unique.size());
+        assertTrue("ни одно животное не пропущено", unique.containsAll(expected));
+    }
+
+    public void testPageSpansPartitionsAndOffsetsMatchConcatenation() {
+        List<List<Integer>> partitions = List.of(List.of(1, 2, 3), List.of(), List.of(4, 5), List.of(6));
+        Page<Integer> page = Page.ofPartitions(partitions, 2, 3);
+        assertEquals(List.of(3, 4, 5), page.getItems());
+        assertEquals(2, page.getOffset());
+        assertEquals(6, page.getTotal());
+        Page<Integer> next = Page.ofPartitions(partitions, Page.decodeCursor(page.getNextCursor()), 3);
+        assertEquals(List.of(6), next.getItems());
+        assertEquals(5, next.getOffset());
+        assertFalse(next.hasNext());
+        assertNull(next.getNextCursor());
+    }
+
+    public void testBrokenCursorRejected() {
+        for (String cursor : new String[]{"x1.2", "c12", "c.1", "c1.-2", "c1.zzzzzzzzzz"}) {
+            try {
+                Page.decodeCursor(cursor);
+                fail(cursor);
+            } catch (IllegalArgumentException expected) {
+                // курсор повреждён
+            }
+        }
+        try {
+            Page.ofPartitions(List.of(List.of(1)), Page.decodeCursor("c5.0"), 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // такого раздела нет
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example;
+
+import java.util.function.Function;
+
+import junit.framework.TestCase;
+
+import org.example.animals.Animal;
+import org.example.animals.Snake;
+import org.example.employees.Employee;
+import org.example.employees.ZooKeeper;
+
+public class ReflectionUtilsTest extends TestCase {
+
+    /**
+     * Тип находится в любом регистре, и все написания дают одну фабрику,
+     * в каком бы порядке их ни запрашивали.
+     */
+    public void testMixedCaseLookupsShareOneFactory() {
+        Function<String, Animal> upper = ReflectionUtils.getAnimalFactory("SNAKE");
+        assertNotNull(upper);
+        assertSame(upper, ReflectionUtils.getAnimalFactory("snake"));
+        assertSame(upper, ReflectionUtils.getAnimalFactory("sNaKe"));
+        assertTrue(ReflectionUtils.createAnimalByType("Snake", "kaa") instanceof Snake);
+
+        Function<String, Employee> keeper = ReflectionUtils.getEmployeeFactory("ZOOKEEPER");
+        assertNotNull(keeper);
+        assertSame(keeper, ReflectionUtils.getEmployeeFactory("Keeper"));
+        assertTrue(ReflectionUtils.createEmployeeByType("zooKeeper", "bob") instanceof ZooKeeper);
+    }
+
+    public void testUnknownTypeInAnyCaseIsMissing() {
+        assertNull(ReflectionUtils.getAnimalFactory("DRAGON"));
+        assertNull(ReflectionUtils.getAnimalFactory("dragon"));
+        assertNull(ReflectionUtils.createAnimalByType("Dragon", "x"));
+        // Абстрактный базовый класс и класс другого назначения не считаются типом животного
+        assertNull(ReflectionUtils.getAnimalFactory("animal"));
+        assertNull(ReflectionUtils.getAnimalFactory("SpeciesRegistry"));
+        assertNull(ReflectionUtils.getEmployeeFactory("WOLF"));
+    }
+}
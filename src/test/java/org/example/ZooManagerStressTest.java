@@ -0,0 +1,422 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+import org.example.animals.Animal;
+import org.example.animals.Monkey;
+import org.example.animals.Parrot;
+import org.example.animals.Snake;
+import org.example.animals.Wolf;
+import org.example.employees.Employee;
+import org.example.employees.Vet;
+import org.example.employees.ZooKeeper;
+import org.example.events.EventSink;
+import org.example.events.Events;
+import org.example.events.SilentEventSink;
+
+/**
+ * Нагрузочная проверка ZooManager: писатели добавляют, переносят между видами (и разделами)
+ * и удаляют животных и сотрудников, пока читатели проверяют снимки и поиск по идентификатору.
+ * В конце состояние сверяется с моделями писателей: ничего не потеряно и не задвоено.
+ */
+public class ZooManagerStressTest extends TestCase {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 3;
+    private static final int OPERATIONS = 5_000;
+
+    private EventSink previousSink;
+
+    @Override
+    protected void setUp() {
+        previousSink = Events.setSink(new SilentEventSink());
+    }
+
+    @Override
+    protected void tearDown() {
+        Events.setSink(previousSink);
+    }
+
+    public void testHeapSingleShard() throws Exception {
+        stress(new ZooManager());
+    }
+
+    public void testHeapShards() throws Exception {
+        stress(new ZooManager(4, HeapAnimalStore::new));
+    }
+
+    public void testColumnarShards() throws Exception {
+        stress(new ZooManager(3, ColumnarAnimalStore::new));
+    }
+
+    /**
+     * Разделов столько же, сколько ядер: конфигурация, в которой добавления разных видов
+     * идут параллельно на всех ядрах.
+     */
+    public void testShardPerCore() throws Exception {
+        stress(new ZooManager(Math.max(2, Runtime.getRuntime().availableProcessors()), HeapAnimalStore::new));
+    }
+
+    /**
+     * Одно и то же уже назначенное животным и сотрудникам идентификатор занимают из разных
+     * потоков и разделов одновременно: добавляется ровно одна сущность.
+     */
+    public void testExplicitIdIsClaimedOnce() throws Exception {
+        ZooManager zoo = new ZooManager(4, HeapAnimalStore::new);
+        for (int round = 0; round < 200; round++) {
+            long id = 1_000 + round;
+            AtomicInteger added = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 5; t++) {
+                int kind = t;
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        if (kind == 4) {
+                            Employee employee = new Vet("v" + id);
+                            employee.assignId(id);
+                            zoo.addEmployees(List.of(employee));
+                        } else {
+                            Animal animal = newAnimal(kind, "a" + id);
+                            animal.assignId(id);
+                            zoo.addAnimals(List.of(animal));
+                        }
+                        added.incrementAndGet();
+                    } catch (IllegalArgumentException expected) {
+                        // идентификатор достался другому потоку
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals("id " + id, 1, added.get());
+            assertTrue((zoo.getAnimal(id) == null) != (zoo.getEmployee(id) == null));
+        }
+        assertEquals(200, zoo.getAnimals().size() + zoo.getEmployees().size());
+    }
+
+    /**
+     * Пачка, не прошедшая проверку, не тратит идентификаторы и ничего не назначает
+     * (один раздел: при нескольких пачка применяется по разделам независимо).
+     */
+    public void testRejectedBatchAllocatesNothing() {
+        ZooManager zoo = new ZooManager();
+        zoo.addAnimal(new Wolf("first"));
+        long nextId = zoo.getNextId();
+
+        Animal repeated = new Parrot("twice");
+        Animal other = new Snake("other");
+        try {
+            zoo.addAnimals(List.of(other, repeated, new Wolf("w"), repeated));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // объект встречается в пачке дважды
+        }
+        assertEquals(nextId, zoo.getNextId());
+        assertEquals(0, repeated.getId());
+        assertEquals(0, other.getId());
+
+        Animal taken = new Monkey("taken");
+        taken.assignId(1);
+        try {
+            zoo.addAnimals(List.of(new Wolf("fresh"), taken));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // идентификатор 1 уже занят
+        }
+        assertEquals(nextId, zoo.getNextId());
+        assertEquals(1, zoo.getAnimals().size());
+
+        Animal explicit = new Monkey("explicit");
+        explicit.assignId(nextId + 10);
+        zoo.addAnimals(List.of(repeated, explicit));
+        assertEquals(nextId + 11, repeated.getId());
+        assertSame(repeated, zoo.getAnimal(repeated.getId()));
+        assertSame(explicit, zoo.getAnimal(nextId + 10));
+    }
+
+    /**
+     * Если хранилище не приняло пачку, новые идентификаторы освобождаются и снимаются с животных,
+     * а назначенные заранее остаются: повторное добавление не берёт чужой идентификатор.
+     */
+    public void testFailedAppendRevokesFreshIds() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        ZooManager zoo = new ZooManager(new HeapAnimalStore() {
+            @Override
+            public int[] appendAll(List<? extends Animal> batch) {
+                if (failing.get()) {
+                    throw new IllegalStateException("хранилище недоступно");
+                }
+                return super.appendAll(batch);
+            }
+        });
+        Animal fresh = new Wolf("fresh");
+        Animal explicit = new Parrot("explicit");
+        explicit.assignId(50);
+        try {
+            zoo.addAnimals(List.of(fresh, explicit));
+            fail();
+        } catch (IllegalStateException expected) {
+            // добавление не удалось
+        }
+        assertEquals(0, fresh.getId());
+        assertEquals(50, explicit.getId());
+
+        failing.set(false);
+        long other = zoo.addAnimal(new Snake("other"));
+        zoo.addAnimals(List.of(fresh, explicit));
+        assertTrue(fresh.getId() != other);
+        assertSame(fresh, zoo.getAnimal(fresh.getId()));
+        assertSame(explicit, zoo.getAnimal(50));
+        assertEquals(3, zoo.getAnimals().size());
+    }
+
+    /**
+     * Счётчики видов читаются без блокировок: запрос не ждёт писателя, держащего все разделы.
+     */
+    public void testSpeciesCountsDoNotWaitForWriters() {
+        ZooManager zoo = new ZooManager(4, HeapAnimalStore::new);
+        zoo.addAnimals(List.of(new Wolf("w"), new Parrot("p"), new Parrot("q")));
+        AtomicReference<Map<String, Long>> counts = new AtomicReference<>();
+        zoo.withWritesBlocked(() -> {
+            Thread reader = new Thread(() -> counts.set(zoo.getSpeciesCounts()));
+            reader.start();
+            try {
+                reader.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertNotNull("чтение счётчиков ждало блокировку записи", counts.get());
+        assertEquals(Long.valueOf(2), counts.get().get(new Parrot("x").getSpecies()));
+        assertEquals(Long.valueOf(1), counts.get().get(new Wolf("x").getSpecies()));
+    }
+
+    private void stress(ZooManager zoo) throws Exception {
+        // Животные, которых один поток всё время переносит между видами: читатели должны находить их всегда
+        List<Long> moving = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            moving.add(zoo.addAnimal(newAnimal(i, "moving" + i)));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        List<Map<Long, String>> animalModels = new ArrayList<>();
+        List<Map<Long, String>> employeeModels = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            Map<Long, String> animals = new HashMap<>();
+            Map<Long, String> employees = new HashMap<>();
+            animalModels.add(animals);
+            employeeModels.add(employees);
+            Random random = new Random(w);
+            threads.add(thread(failure, () -> write(zoo, random, animals, employees)));
+        }
+        Map<Long, String> movingNames = new ConcurrentHashMap<>();
+        Thread mover = thread(failure, () -> {
+            Random random = new Random(99);
+            for (int i = 0; running.get(); i++) {
+                long id = moving.get(random.nextInt(moving.size()));
+                String name = "moving" + i;
+                assertNotNull(zoo.updateAnimal(id, newAnimal(random.nextInt(4), name)));
+                movingNames.put(id, name);
+            }
+        });
+        for (int r = 0; r < READERS; r++) {
+            threads.add(thread(failure, () -> {
+                Random random = new Random();
+                while (running.get()) {
+                    for (long id : moving) {
+                        Animal animal = zoo.getAnimal(id);
+                        assertNotNull("переносимое животное не найдено: " + id, animal);
+                        assertEquals(id, animal.getId());
+                    }
+                    checkSnapshot(zoo.getAnimals());
+                    if (random.nextInt(200) == 0) {
+                        checkConsistent(zoo);
+                    }
+                    // Даём писателям время и на машине с одним ядром
+                    pause();
+                }
+            }));
+        }
+
+        mover.start();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads.subList(0, WRITERS)) {
+            thread.join();
+        }
+        running.set(false);
+        mover.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        Map<Long, String> expectedAnimals = new HashMap<>();
+        animalModels.forEach(expectedAnimals::putAll);
+        for (long id : moving) {
+            expectedAnimals.put(id, movingNames.getOrDefault(id, zoo.getAnimal(id).getName()));
+        }
+        Map<Long, String> expectedEmployees = new HashMap<>();
+        employeeModels.forEach(expectedEmployees::putAll);
+
+        checkConsistent(zoo);
+        assertEquals(expectedAnimals.size(), zoo.getAnimals().size());
+        for (Map.Entry<Long, String> entry : expectedAnimals.entrySet()) {
+            Animal animal = zoo.getAnimal(entry.getKey());
+            assertNotNull("потеряно животное " + entry.getKey(), animal);
+            assertEquals(entry.getValue(), animal.getName());
+            if (entry.getKey() % 16 == 0) {
+                assertTrue(zoo.findAnimalsByName(entry.getValue()).stream().anyMatch(a -> a.getId() == entry.getKey()));
+            }
+        }
+        assertEquals(expectedEmployees.size(), zoo.getEmployees().size());
+        for (Map.Entry<Long, String> entry : expectedEmployees.entrySet()) {
+            Employee employee = zoo.getEmployee(entry.getKey());
+            assertNotNull("потерян сотрудник " + entry.getKey(), employee);
+            assertEquals(entry.getValue(), employee.getName());
+        }
+    }
+
+    /**
+     * Операции одного писателя над своими сущностями; model - что должно остаться.
+     */
+    private static void write(ZooManager zoo, Random random, Map<Long, String> animals, Map<Long, String> employees) {
+        List<Long> animalIds = new ArrayList<>();
+        List<Long> employeeIds = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int operation = random.nextInt(20);
+            String name = Thread.currentThread().getName() + "-" + i;
+            if (operation < 8) {
+                long id = zoo.addAnimal(newAnimal(random.nextInt(4), name));
+                animals.put(id, name);
+                animalIds.add(id);
+            } else if (operation < 9) {
+                List<Animal> batch = new ArrayList<>();
+                for (int k = 0; k < 50; k++) {
+                    batch.add(newAnimal(random.nextInt(4), name + "/" + k));
+                }
+                zoo.addAnimals(batch);
+                for (Animal animal : batch) {
+                    animals.put(animal.getId(), animal.getName());
+                    animalIds.add(animal.getId());
+                }
+            } else if (operation < 12 && !animalIds.isEmpty()) {
+                long id = animalIds.get(random.nextInt(animalIds.size()));
+                Animal previous = zoo.updateAnimal(id, newAnimal(random.nextInt(4), name));
+                assertEquals(animals.get(id), previous.getName());
+                animals.put(id, name);
+            } else if (operation < 15 && !animalIds.isEmpty()) {
+                long id = animalIds.remove(random.nextInt(animalIds.size()));
+                Animal removed = zoo.removeAnimal(id);
+                assertNotNull(removed);
+                assertEquals(animals.remove(id), removed.getName());
+                assertNull(zoo.getAnimal(id));
+            } else if (operation < 17) {
+                Employee employee = random.nextBoolean() ? new Vet(name) : new ZooKeeper(name);
+                long id = zoo.addEmployee(employee);
+                employees.put(id, name);
+                employeeIds.add(id);
+            } else if (operation < 18 && !employeeIds.isEmpty()) {
+                long id = employeeIds.get(random.nextInt(employeeIds.size()));
+                assertNotNull(zoo.updateEmployee(id, random.nextBoolean() ? new Vet(name) : new ZooKeeper(name)));
+                employees.put(id, name);
+            } else if (!employeeIds.isEmpty()) {
+                long id = employeeIds.remove(random.nextInt(employeeIds.size()));
+                assertEquals(employees.remove(id), zoo.removeEmployee(id).getName());
+            }
+        }
+    }
+
+    /**
+     * Снимок неизменен после выдачи: размер и элементы при повторном чтении те же.
+     */
+    private static void checkSnapshot(List<Animal> snapshot) {
+        int size = snapshot.size();
+        long sum = 0;
+        for (Animal animal : snapshot) {
+            assertNotNull(animal);
+            sum += animal.getId();
+        }
+        assertEquals(size, snapshot.size());
+        long again = 0;
+        for (int i = 0; i < size; i++) {
+            again += snapshot.get(i).getId();
+        }
+        assertEquals(sum, again);
+    }
+
+    /**
+     * При заблокированных изменениях снимок, счётчики видов и поиск по идентификатору согласованы.
+     */
+    private static void checkConsistent(ZooManager zoo) {
+        zoo.withWritesBlocked(() -> {
+            List<Animal> animals = zoo.getAnimals();
+            long counted = zoo.getSpeciesCounts().values().stream().mapToLong(Long::longValue).sum();
+            assertEquals(animals.size(), counted);
+            Set<Long> ids = new HashSet<>();
+            for (Animal animal : animals) {
+                assertTrue("животное в снимке дважды: " + animal.getId(), ids.add(animal.getId()));
+                Animal found = zoo.getAnimal(animal.getId());
+                assertNotNull(found);
+                assertEquals(animal.getName(), found.getName());
+            }
+            for (Employee employee : zoo.getEmployees()) {
+                assertTrue(ids.add(employee.getId()));
+                assertSame(employee, zoo.getEmployee(employee.getId()));
+            }
+            return null;
+        });
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread thread(AtomicReference<Throwable> failure, Runnable body) {
+        return new Thread(() -> {
+            try {
+                body.run();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    private static Animal newAnimal(int kind, String name) {
+        return switch (kind % 4) {
+            case 0 -> new Wolf(name);
+            case 1 -> new Parrot(name);
+            case 2 -> new Snake(name);
+            default -> new Monkey(name);
+        };
+    }
+}
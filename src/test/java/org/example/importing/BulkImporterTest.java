@@ -0,0 +1,103 @@
+package org.example.importing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.example.ZooManager;
+import org.example.animals.Wolf;
+import org.example.employees.Vet;
+import org.example.events.EventSink;
+import org.example.events.Events;
+import org.example.events.SilentEventSink;
+
+public class BulkImporterTest extends TestCase {
+
+    private EventSink previousSink;
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        previousSink = Events.setSink(new SilentEventSink());
+        file = Files.createTempFile("zoo-import-test", ".csv");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Events.setSink(previousSink);
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Строки transfer читаются импортом обратно с тем же именем, в том числе с запятыми,
+     * кавычками, переводами строк и пробелами по краям; номера следующих строк не сбиваются.
+     */
+    public void testCsvLinesRoundTrip() throws IOException {
+        List<String> names = List.of("Серый", "a,b", "say \"hi\"", "\"q", "line1\nline2", "  pad  ",
+                "many\n\n,\"\"\nlines", "trailing\n");
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String name : names) {
+                out.write(BulkImporter.toCsvLine(new Wolf(name)) + "\n");
+            }
+            out.write(BulkImporter.toCsvLine(new Vet("doc, \"the\"\nvet")) + "\n");
+            out.write("animal,dragon,bad\n");
+        }
+        ZooManager zoo = new ZooManager();
+        ImportResult result = new BulkImporter(zoo).importFile(file);
+
+        assertEquals(names.size(), result.getAnimalsImported());
+        assertEquals(1, result.getEmployeesImported());
+        assertEquals(List.of("строка " + Files.readAllLines(file).size() + ": неизвестный тип животного: dragon"),
+                result.getErrors());
+        List<String> imported = new ArrayList<>();
+        zoo.getAnimals().forEach(animal -> imported.add(animal.getName()));
+        assertEquals(names, imported);
+        assertEquals("doc, \"the\"\nvet", zoo.getEmployees().get(0).getName());
+    }
+
+    /**
+     * Незакрытая кавычка захватывает не больше MAX_RECORD_LINES строк, а не весь остаток файла.
+     */
+    public void testUnclosedQuoteIsBounded() throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("animal,wolf,\"open\n");
+            for (int i = 0; i < 100; i++) {
+                out.write("animal,wolf,w" + i + "\n");
+            }
+        }
+        ZooManager zoo = new ZooManager();
+        ImportResult result = new BulkImporter(zoo).importFile(file);
+        assertEquals(1, result.getErrorCount());
+        assertEquals("строка 1: незакрытая кавычка в имени", result.getErrors().get(0));
+        assertEquals(100 - 15, result.getAnimalsImported());
+    }
+
+    /**
+     * Сообщений в отчёте не больше MAX_REPORTED_ERRORS, но считаются все ошибочные строки.
+     */
+    public void testErrorMessagesAreCappedButCounted() throws IOException {
+        int bad = 30_000;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < bad; i++) {
+                out.write("animal,dragon,d" + i + "\n");
+                if (i % 1000 == 0) {
+                    out.write("animal,wolf,w" + i + "\n");
+                }
+            }
+        }
+        ZooManager zoo = new ZooManager();
+        ImportResult result = new BulkImporter(zoo, 4).importFile(file);
+
+        assertEquals(bad / 1000, result.getAnimalsImported());
+        assertEquals(bad, result.getErrorCount());
+        assertEquals(BulkImporter.MAX_REPORTED_ERRORS, result.getErrors().size());
+        assertTrue(result.getErrors().get(0), result.getErrors().get(0).startsWith("строка 1: "));
+        assertEquals(bad / 1000, zoo.getAnimals().size());
+    }
+}
@@ -0,0 +1,262 @@
+package org.example.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import junit.framework.TestCase;
+
+import org.example.HeapAnimalStore;
+import org.example.ZooChangeListener;
+import org.example.ZooManager;
+import org.example.animals.Animal;
+import org.example.animals.Monkey;
+import org.example.animals.Parrot;
+import org.example.animals.Snake;
+import org.example.animals.Wolf;
+import org.example.employees.Vet;
+import org.example.events.EventSink;
+import org.example.events.Events;
+import org.example.events.SilentEventSink;
+
+public class ZooJournalTest extends TestCase {
+
+    private static final String SEGMENT_0 = "x.journal.00000000000000000000";
+
+    private EventSink previousSink;
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        previousSink = Events.setSink(new SilentEventSink());
+        directory = Files.createTempDirectory("zoo-journal-test");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Events.setSink(previousSink);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public void testReplaysEverythingAfterReopen() throws IOException {
+        long size = writeAnimals(100);
+        List<Object> replayed = new ArrayList<>();
+        try (ZooJournal journal = open(0, replayed)) {
+            assertEquals(100, replayed.size());
+            assertEquals(size, journal.position());
+        }
+        replayed.clear();
+        try (ZooJournal journal = open(size, replayed)) {
+            assertTrue("после позиции ничего нет", replayed.isEmpty());
+            assertEquals(size, journal.position());
+        }
+    }
+
+    public void testLegacyFileBecomesFirstSegment() throws IOException {
+        long size = writeAnimals(10);
+        Files.move(directory.resolve(SEGMENT_0), directory.resolve("x.journal"));
+        List<Object> replayed = new ArrayList<>();
+        try (ZooJournal journal = open(0, replayed)) {
+            assertEquals(10, replayed.size());
+            assertEquals(size, journal.position());
+        }
+        assertFalse(Files.exists(directory.resolve("x.journal")));
+        assertEquals(size, Files.size(directory.resolve(SEGMENT_0)));
+    }
+
+    public void testTornTailIsTruncated() throws IOException {
+        long size = writeAnimals(20);
+        // Заголовок обещает 50 байт записи, а дописано только 10: запись оборвалась при сбое
+        append(ByteBuffer.allocate(18).putInt(50).putInt(123).position(18).flip());
+        List<Object> replayed = new ArrayList<>();
+        open(0, replayed).close();
+        assertEquals(20, replayed.size());
+        assertEquals(size, Files.size(directory.resolve(SEGMENT_0)));
+    }
+
+    public void testZeroTailIsTruncated() throws IOException {
+        long size = writeAnimals(20);
+        append(ByteBuffer.allocate(4096));
+        List<Object> replayed = new ArrayList<>();
+        open(0, replayed).close();
+        assertEquals(20, replayed.size());
+        assertEquals(size, Files.size(directory.resolve(SEGMENT_0)));
+    }
+
+    public void testCorruptionInTheMiddleIsRefused() throws IOException {
+        long size = writeAnimals(100);
+        Path segment = directory.resolve(SEGMENT_0);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[(int) (size / 2)] ^= 0x55;
+        Files.write(segment, bytes);
+        try {
+            open(0, new ArrayList<>()).close();
+            fail();
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("Журнал повреждён"));
+        }
+        assertEquals("повреждённый журнал не обрезается", size, Files.size(segment));
+    }
+
+    public void testSnapshotRollsSegmentsAndRecoveryMatches() throws IOException {
+        Path data = directory.resolve("data");
+        ZooManager zoo = new ZooManager(2, HeapAnimalStore::new);
+        ZooPersistence persistence = ZooPersistence.open(data, zoo);
+        try {
+            for (int i = 0; i < 500; i++) {
+                zoo.addAnimal(i % 2 == 0 ? new Parrot("p" + i) : new Snake("s" + i));
+            }
+            persistence.snapshot();
+            for (long id = 1; id <= 10; id++) {
+                zoo.removeAnimal(id);
+            }
+            zoo.updateAnimal(20, new Wolf("renamed"));
+            zoo.addEmployee(new Vet("doctor"));
+            persistence.snapshot();
+            for (int i = 0; i < 5; i++) {
+                zoo.addAnimal(new Monkey("m" + i));
+            }
+            assertEquals(1, persistence.getJournalSegmentCount());
+
+            // Копия каталога до закрытия - как после аварийной остановки: снимок плюс хвост журнала.
+            // addAnimal возвращается после fsync, поэтому копия сразу содержит добавленное
+            persistence.snapshot();
+            zoo.addAnimal(new Wolf("after snapshot"));
+            Path copy = directory.resolve("copy");
+            copyDirectory(data, copy);
+            ZooManager recovered = new ZooManager();
+            try (ZooPersistence reopened = ZooPersistence.open(copy, recovered)) {
+                assertEquals(zoo.getAnimals().size(), reopened.getRecoveredAnimals());
+                assertEquals(zoo.getNextId(), recovered.getNextId());
+                for (Animal animal : zoo.getAnimals()) {
+                    Animal restored = recovered.getAnimal(animal.getId());
+                    assertNotNull(restored);
+                    assertEquals(animal.getName(), restored.getName());
+                    assertEquals(animal.getSpecies(), restored.getSpecies());
+                }
+                assertEquals("renamed", recovered.getAnimal(20).getName());
+                assertNull(recovered.getAnimal(5));
+                assertEquals(1, recovered.findEmployeesByName("doctor").size());
+            }
+        } finally {
+            persistence.close();
+        }
+    }
+
+    public void testCorruptSnapshotWithTrimmedJournalIsRefused() throws IOException {
+        Path data = directory.resolve("data");
+        ZooManager zoo = new ZooManager();
+        try (ZooPersistence persistence = ZooPersistence.open(data, zoo)) {
+            assertEquals(0, persistence.getRecoveredAnimals());
+            for (int i = 0; i < 100; i++) {
+                zoo.addAnimal(new Wolf("w" + i));
+            }
+        }
+        Files.write(data.resolve("zoo.snapshot"), new byte[]{1, 2, 3});
+        try {
+            ZooPersistence.open(data, new ZooManager()).close();
+            fail("журнал с начала удалён, восстановить без снимка нельзя");
+        } catch (IOException expected) {
+            // ошибка вместо молча пустого зоопарка
+        }
+    }
+
+    public void testSkippedSnapshotIsReportedAsEvent() throws IOException {
+        Path data = directory.resolve("data");
+        Files.createDirectories(data);
+        Files.write(data.resolve("zoo.snapshot"), new byte[]{1, 2, 3});
+        List<String> messages = new CopyOnWriteArrayList<>();
+        Events.setSink(messages::add);
+        try (ZooPersistence persistence = ZooPersistence.open(data, new ZooManager())) {
+            assertEquals(0, persistence.getRecoveredAnimals());
+        }
+        assertTrue(messages.toString(), messages.stream().anyMatch(m -> m.startsWith("Снимок пропущен")));
+    }
+
+    /**
+     * Подписчик, который не может записать изменение, отменяет его до применения:
+     * зоопарк и журнал не расходятся.
+     */
+    public void testRejectingListenerLeavesZooUnchanged() {
+        ZooManager zoo = new ZooManager();
+        long id = zoo.addAnimal(new Wolf("kept"));
+        zoo.addListener(new ZooChangeListener() {
+            @Override
+            public void checkWritable() {
+                throw new UncheckedIOException(new IOException("диск недоступен"));
+            }
+        });
+        long modifications = zoo.getModificationCount();
+        try {
+            zoo.addAnimal(new Parrot("lost"));
+            fail();
+        } catch (UncheckedIOException expected) {
+            // изменение отвергнуто
+        }
+        try {
+            zoo.removeAnimal(id);
+            fail();
+        } catch (UncheckedIOException expected) {
+            // изменение отвергнуто
+        }
+        try {
+            zoo.updateAnimal(id, new Snake("renamed"));
+            fail();
+        } catch (UncheckedIOException expected) {
+            // изменение отвергнуто
+        }
+        assertEquals(modifications, zoo.getModificationCount());
+        assertEquals(1, zoo.getAnimals().size());
+        assertEquals("kept", zoo.getAnimal(id).getName());
+        assertEquals(id + 1, zoo.getNextId());
+    }
+
+    /**
+     * Пишет count добавлений животных в новый журнал x.journal и закрывает его.
+     *
+     * @return размер журнала
+     */
+    private long writeAnimals(int count) throws IOException {
+        try (ZooJournal journal = open(0, new ArrayList<>())) {
+            for (int i = 0; i < count; i++) {
+                Animal animal = new Wolf("w" + i);
+                animal.assignId(i + 1);
+                journal.animalsAdded(List.of(animal));
+            }
+            journal.sync();
+            return journal.position();
+        }
+    }
+
+    private ZooJournal open(long fromOffset, List<Object> replayed) throws IOException {
+        return new ZooJournal(directory.resolve("x.journal"), fromOffset, 10, replayed::add);
+    }
+
+    private void append(ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(SEGMENT_0), StandardOpenOption.APPEND)) {
+            channel.write(bytes);
+        }
+    }
+
+    private static void copyDirectory(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+    }
+}